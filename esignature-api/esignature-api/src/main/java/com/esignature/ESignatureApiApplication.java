@@ -3,11 +3,13 @@ package com.esignature;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.security.Security;
 
 @SpringBootApplication
 @EnableConfigurationProperties
+@EnableScheduling
 public class ESignatureApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,16 @@
+package com.esignature.audit;
+
+/**
+ * Actions tracées dans le journal d'audit
+ */
+public enum AuditAction {
+    UPLOAD,
+    VIEW,
+    PAGE_VIEW,
+    DOWNLOAD,
+    SIGN,
+    VERIFY,
+    WORKFLOW_CREATE,
+    REJECT,
+    EVIDENCE_EXPORT
+}
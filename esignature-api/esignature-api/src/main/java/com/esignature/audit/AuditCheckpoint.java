@@ -0,0 +1,18 @@
+package com.esignature.audit;
+
+/**
+ * Point de contrôle : racine de Merkle d'une plage d'entrées consécutives d'un segment, et position de la
+ * plage dans le fichier pour la vérifier sans relire tout le journal
+ */
+public record AuditCheckpoint(
+        long index,
+        String segment,
+        long startOffset,
+        long endOffset,
+        long fromSequence,
+        long toSequence,
+        String merkleRoot,
+        String lastHash,
+        long timestamp
+) {
+}
@@ -0,0 +1,24 @@
+package com.esignature.audit;
+
+import com.esignature.security.AuthenticatedClient;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Événement d'audit, construit sur le thread de la requête (auteur, adresse IP, navigateur)
+ */
+public record AuditEvent(
+        long timestamp,
+        AuditAction action,
+        Long documentId,
+        String actor,
+        String ipAddress,
+        String userAgent,
+        String details
+) {
+
+    public static AuditEvent of(AuditAction action, Long documentId, HttpServletRequest request, String details) {
+        String actor = AuthenticatedClient.current().map(AuthenticatedClient::identity).orElse("anonymous");
+        return new AuditEvent(System.currentTimeMillis(), action, documentId, actor,
+                request.getRemoteAddr(), request.getHeader("User-Agent"), details);
+    }
+}
@@ -0,0 +1,544 @@
+package com.esignature.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Journal d'audit inaltérable, en ajout seul
+ *
+ * Les threads des requêtes déposent leurs événements dans une file circulaire sans verrou ; un thread dédié les
+ * écrit par lots dans des segments (audit-000001.log, ...), avec une seule synchronisation disque par lot.
+ * Chaque ligne est "empreinte json" : l'empreinte SHA-256 porte sur le JSON, qui contient l'empreinte de
+ * l'entrée précédente (chaîne). Régulièrement, un point de contrôle (checkpoints.log) enregistre la racine de
+ * Merkle des entrées écrites depuis le précédent et leur position dans le segment : un auditeur vérifie une
+ * plage sans relire tout le journal, et peut publier les racines ailleurs pour figer l'historique.
+ *
+ * Les pertes sont bornées et comptées (esignature.audit.events.dropped) plutôt que de bloquer les requêtes :
+ * file pleine au-delà de audit.offer-timeout-ms, ou lot toujours en échec après audit.write-attempts essais.
+ */
+@Service
+@Slf4j
+public class AuditLog {
+
+    static final String GENESIS = "0".repeat(64);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINTS = "checkpoints.log";
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Path location;
+    private final long segmentMaxBytes;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int checkpointInterval;
+    private final long checkpointMaxAgeMs;
+    private final long offerTimeoutNanos;
+    private final int writeAttempts;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final Counter writtenEvents;
+    private final Counter droppedBufferFull;
+    private final Counter droppedWriteFailed;
+
+    // État du thread d'écriture
+    private FileChannel segment;
+    private Path segmentPath;
+    private long segmentSize;
+    private long sequence;
+    private String lastHash;
+    private final List<byte[]> pendingLeaves = new ArrayList<>();
+    private long pendingStartOffset;
+    private long pendingFromSequence;
+    private long pendingSince;
+    private long nextCheckpointIndex;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLog(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${audit.location:./audit}") String location,
+            @Value("${audit.segment-max-bytes:67108864}") long segmentMaxBytes,
+            @Value("${audit.buffer-capacity:8192}") int bufferCapacity,
+            @Value("${audit.batch-size:512}") int batchSize,
+            @Value("${audit.flush-interval-ms:20}") long flushIntervalMs,
+            @Value("${audit.checkpoint-interval:1000}") int checkpointInterval,
+            @Value("${audit.checkpoint-max-age-ms:60000}") long checkpointMaxAgeMs,
+            @Value("${audit.offer-timeout-ms:100}") long offerTimeoutMs,
+            @Value("${audit.write-attempts:5}") int writeAttempts
+    ) {
+        this.objectMapper = objectMapper;
+        this.location = Paths.get(location);
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointMaxAgeMs = checkpointMaxAgeMs;
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        this.writeAttempts = Math.max(1, writeAttempts);
+        this.buffer = new AuditRingBuffer<>(bufferCapacity);
+        this.writtenEvents = Counter.builder("esignature.audit.events")
+                .description("Événements écrits dans le journal d'audit")
+                .register(meterRegistry);
+        this.droppedBufferFull = Counter.builder("esignature.audit.events.dropped")
+                .description("Événements d'audit perdus")
+                .tag("reason", "buffer-full")
+                .register(meterRegistry);
+        this.droppedWriteFailed = Counter.builder("esignature.audit.events.dropped")
+                .description("Événements d'audit perdus")
+                .tag("reason", "write-failed")
+                .register(meterRegistry);
+        Gauge.builder("esignature.audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Événements d'audit en attente d'écriture")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tracer un événement ; l'écriture sur disque se fait en arrière-plan. File pleine au-delà du délai :
+     * l'événement est compté comme perdu, la requête n'est pas bloquée
+     */
+    public void record(AuditEvent event) {
+        if (!buffer.offer(event, offerTimeoutNanos)) {
+            droppedBufferFull.increment();
+            log.warn("Événement d'audit perdu, file pleine : {} document {} par {}", event.action(),
+                    event.documentId(), event.actor());
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        recover();
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            batch.clear();
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (!pendingLeaves.isEmpty() && System.currentTimeMillis() - pendingSince >= checkpointMaxAgeMs) {
+                    checkpointQuietly();
+                }
+                if (running) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            // Un lot non écrit est retenté, puis abandonné : la chaîne reste celle des entrées écrites
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    write(batch);
+                    writtenEvents.increment(batch.size());
+                    break;
+                } catch (IOException e) {
+                    if (attempt >= writeAttempts) {
+                        droppedWriteFailed.increment(batch.size());
+                        log.error("Écriture du journal d'audit impossible, {} événement(s) perdu(s) : {}",
+                                batch.size(), e.getMessage());
+                        break;
+                    }
+                    log.error("Écriture du journal d'audit impossible, nouvel essai : {}", e.getMessage());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MS));
+                }
+            }
+        }
+        checkpointQuietly();
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Fermeture du segment d'audit : {}", e.getMessage());
+        }
+    }
+
+    private void write(List<AuditEvent> batch) throws IOException {
+        if (segmentSize >= segmentMaxBytes) {
+            roll();
+        }
+
+        long nextSequence = sequence;
+        String previousHash = lastHash;
+        List<byte[]> leaves = new ArrayList<>(batch.size());
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(batch.size() * 256);
+        for (AuditEvent event : batch) {
+            nextSequence++;
+            String json = objectMapper.writeValueAsString(new AuditEntry(
+                    nextSequence,
+                    Instant.ofEpochMilli(event.timestamp()).toString(),
+                    event.action().name(),
+                    event.documentId(),
+                    event.actor(),
+                    event.ipAddress(),
+                    event.userAgent(),
+                    event.details(),
+                    previousHash));
+            byte[] hash = MerkleTree.sha256().digest(json.getBytes(StandardCharsets.UTF_8));
+            previousHash = HexFormat.of().formatHex(hash);
+            lines.writeBytes((previousHash + " " + json + "\n").getBytes(StandardCharsets.UTF_8));
+            leaves.add(hash);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toByteArray());
+        try {
+            while (bytes.hasRemaining()) {
+                segment.write(bytes);
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            // Lot partiellement écrit : le segment revient à sa dernière ligne complète
+            segment.truncate(segmentSize);
+            throw e;
+        }
+
+        if (pendingLeaves.isEmpty()) {
+            pendingStartOffset = segmentSize;
+            pendingFromSequence = sequence + 1;
+            pendingSince = System.currentTimeMillis();
+        }
+        segmentSize += bytes.limit();
+        sequence = nextSequence;
+        lastHash = previousHash;
+        pendingLeaves.addAll(leaves);
+        if (pendingLeaves.size() >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Enregistrer la racine de Merkle des entrées écrites depuis le dernier point de contrôle
+     */
+    private void checkpoint() throws IOException {
+        if (pendingLeaves.isEmpty()) {
+            return;
+        }
+        AuditCheckpoint checkpoint = new AuditCheckpoint(
+                nextCheckpointIndex,
+                segmentPath.getFileName().toString(),
+                pendingStartOffset,
+                segmentSize,
+                pendingFromSequence,
+                sequence,
+                HexFormat.of().formatHex(MerkleTree.root(pendingLeaves)),
+                lastHash,
+                System.currentTimeMillis());
+
+        byte[] line = (objectMapper.writeValueAsString(checkpoint) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel checkpoints = FileChannel.open(location.resolve(CHECKPOINTS),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(line);
+            while (bytes.hasRemaining()) {
+                checkpoints.write(bytes);
+            }
+            checkpoints.force(false);
+        }
+        nextCheckpointIndex++;
+        pendingLeaves.clear();
+        log.debug("Point de contrôle d'audit {} : entrées {} à {}", checkpoint.index(),
+                checkpoint.fromSequence(), checkpoint.toSequence());
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            log.error("Point de contrôle d'audit non écrit : {}", e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        checkpoint();
+        segment.close();
+        String name = segmentPath.getFileName().toString();
+        int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        openSegment(location.resolve(segmentName(number + 1)));
+        log.info("Nouveau segment d'audit : {}", segmentPath.getFileName());
+    }
+
+    private void openSegment(Path path) throws IOException {
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentPath = path;
+        segmentSize = segment.size();
+    }
+
+    /**
+     * Reprendre la chaîne après un redémarrage : dernier point de contrôle, puis entrées écrites depuis dans le
+     * dernier segment ; une dernière ligne incomplète (arrêt brutal pendant une écriture) est retirée du segment
+     * comme de checkpoints.log
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(location);
+        truncateTornCheckpoint();
+        List<AuditCheckpoint> checkpoints = checkpoints(0, Integer.MAX_VALUE);
+        AuditCheckpoint last = checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+        nextCheckpointIndex = checkpoints.size();
+        sequence = last != null ? last.toSequence() : 0;
+        lastHash = last != null ? last.lastHash() : GENESIS;
+
+        List<Path> segments = segments();
+        Path current = segments.isEmpty() ? location.resolve(segmentName(1)) : segments.get(segments.size() - 1);
+        openSegment(current);
+        long offset = last != null && last.segment().equals(current.getFileName().toString())
+                ? last.endOffset() : 0;
+
+        byte[] tail = read(current, offset, segmentSize);
+        int lineStart = 0;
+        for (int i = 0; i < tail.length; i++) {
+            if (tail[i] != '\n') {
+                continue;
+            }
+            String line = new String(tail, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            JsonNode entry = objectMapper.readTree(line.substring(65));
+            if (pendingLeaves.isEmpty()) {
+                pendingStartOffset = offset + lineStart;
+                pendingFromSequence = entry.get("sequence").asLong();
+                pendingSince = System.currentTimeMillis();
+            }
+            sequence = entry.get("sequence").asLong();
+            lastHash = line.substring(0, 64);
+            pendingLeaves.add(HexFormat.of().parseHex(lastHash));
+            lineStart = i + 1;
+        }
+        if (lineStart < tail.length) {
+            log.warn("Dernière entrée d'audit incomplète retirée de {} ({} octets)", current.getFileName(),
+                    tail.length - lineStart);
+            segment.truncate(offset + lineStart);
+            segmentSize = offset + lineStart;
+        }
+        log.info("Journal d'audit : {} entrée(s), {} point(s) de contrôle, segment {}", sequence,
+                nextCheckpointIndex, current.getFileName());
+    }
+
+    /**
+     * Retirer de checkpoints.log une dernière ligne sans fin de ligne : les entrées qu'elle couvrait sont reprises
+     * depuis le segment et recevront un nouveau point de contrôle
+     */
+    private void truncateTornCheckpoint() throws IOException {
+        Path file = location.resolve(CHECKPOINTS);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel checkpoints = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = checkpoints.size();
+            long end = size;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            while (end > 0) {
+                last.clear();
+                checkpoints.read(last, end - 1);
+                if (last.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < size) {
+                log.warn("Dernier point de contrôle d'audit incomplet retiré ({} octets)", size - end);
+                checkpoints.truncate(end);
+                checkpoints.force(false);
+            }
+        }
+    }
+
+    /**
+     * Points de contrôle enregistrés, à partir de l'index from
+     */
+    public List<AuditCheckpoint> checkpoints(long from, int limit) throws IOException {
+        Path file = location.resolve(CHECKPOINTS);
+        List<AuditCheckpoint> result = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return result;
+        }
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            for (String line : (Iterable<String>) lines.skip(from).limit(limit)::iterator) {
+                try {
+                    result.add(objectMapper.readValue(line, AuditCheckpoint.class));
+                } catch (JsonProcessingException e) {
+                    // Ligne en cours d'écriture
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Vérifier la plage d'un point de contrôle : empreinte de chaque entrée, chaînage depuis le point de contrôle
+     * précédent, numérotation continue et racine de Merkle ; seule cette plage du segment est relue
+     */
+    public AuditVerification verify(long index) throws IOException {
+        List<AuditCheckpoint> range = checkpoints(Math.max(0, index - 1), index == 0 ? 1 : 2);
+        if (range.isEmpty() || range.get(range.size() - 1).index() != index) {
+            throw new IllegalArgumentException("Point de contrôle " + index + " inexistant");
+        }
+        AuditCheckpoint checkpoint = range.get(range.size() - 1);
+        String expectedPrevious = index == 0 ? GENESIS : range.get(0).lastHash();
+        long expectedSequence = checkpoint.fromSequence();
+
+        byte[] content = read(location.resolve(checkpoint.segment()), checkpoint.startOffset(), checkpoint.endOffset());
+        List<byte[]> leaves = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') {
+                continue;
+            }
+            String line = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            lineStart = i + 1;
+            if (line.length() < 66 || line.charAt(64) != ' ') {
+                return AuditVerification.invalid(checkpoint, leaves.size(), "Entrée illisible : " + expectedSequence);
+            }
+            String json = line.substring(65);
+            byte[] hash = MerkleTree.sha256().digest(json.getBytes(StandardCharsets.UTF_8));
+            if (!Arrays.equals(hash, HexFormat.of().parseHex(line.substring(0, 64)))) {
+                return AuditVerification.invalid(checkpoint, leaves.size(), "Entrée altérée : " + expectedSequence);
+            }
+            JsonNode entry = objectMapper.readTree(json);
+            if (!expectedPrevious.equals(entry.path("previousHash").asText())) {
+                return AuditVerification.invalid(checkpoint, leaves.size(), "Chaîne rompue : " + expectedSequence);
+            }
+            if (entry.path("sequence").asLong() != expectedSequence) {
+                return AuditVerification.invalid(checkpoint, leaves.size(), "Entrée manquante : " + expectedSequence);
+            }
+            leaves.add(hash);
+            expectedPrevious = line.substring(0, 64);
+            expectedSequence++;
+        }
+
+        if (expectedSequence - 1 != checkpoint.toSequence() || lineStart != content.length) {
+            return AuditVerification.invalid(checkpoint, leaves.size(), "Plage incomplète");
+        }
+        if (!HexFormat.of().formatHex(MerkleTree.root(leaves)).equals(checkpoint.merkleRoot())
+                || !expectedPrevious.equals(checkpoint.lastHash())) {
+            return AuditVerification.invalid(checkpoint, leaves.size(), "Racine de Merkle différente");
+        }
+        return new AuditVerification(index, true, leaves.size(), checkpoint.merkleRoot(), "Plage intègre");
+    }
+
+    /**
+     * Copier dans out les entrées d'un document, segment par segment et ligne par ligne ; renvoie les points de
+     * contrôle qui couvrent ces entrées (les plus récentes peuvent ne pas l'être encore)
+     */
+    public List<AuditCheckpoint> copyEntries(Long documentId, OutputStream out) throws IOException {
+        String marker = "\"documentId\":" + documentId + ",";
+        List<Long> sequences = new ArrayList<>();
+        for (Path file : segments()) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.length() < 66 || line.indexOf(marker, 65) < 0) {
+                        continue;
+                    }
+                    try {
+                        sequences.add(objectMapper.readTree(line.substring(65)).path("sequence").asLong());
+                    } catch (JsonProcessingException e) {
+                        // Ligne en cours d'écriture
+                        continue;
+                    }
+                    out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        List<AuditCheckpoint> covering = new ArrayList<>();
+        int next = 0;
+        for (AuditCheckpoint checkpoint : checkpoints(0, Integer.MAX_VALUE)) {
+            while (next < sequences.size() && sequences.get(next) < checkpoint.fromSequence()) {
+                next++;
+            }
+            if (next < sequences.size() && sequences.get(next) <= checkpoint.toSequence()) {
+                covering.add(checkpoint);
+            }
+        }
+        return covering;
+    }
+
+    private static byte[] read(Path file, long from, long to) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(to - from));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes, from + bytes.position()) >= 0) {
+                // lecture jusqu'à la fin de la plage
+            }
+        }
+        return bytes.array();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(location)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static String segmentName(int number) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Ligne du journal (ordre des champs fixe : c'est ce JSON qui est haché)
+     */
+    private record AuditEntry(
+            long sequence,
+            String timestamp,
+            String action,
+            Long documentId,
+            String actor,
+            String ipAddress,
+            String userAgent,
+            String details,
+            String previousHash
+    ) {
+    }
+
+    /**
+     * Résultat de la vérification d'un point de contrôle
+     */
+    public record AuditVerification(long checkpoint, boolean valid, long entries, String merkleRoot, String message) {
+
+        static AuditVerification invalid(AuditCheckpoint checkpoint, long entries, String message) {
+            return new AuditVerification(checkpoint.index(), false, entries, checkpoint.merkleRoot(), message);
+        }
+    }
+}
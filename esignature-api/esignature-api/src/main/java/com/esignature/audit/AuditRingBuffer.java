@@ -0,0 +1,77 @@
+package com.esignature.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * File circulaire bornée sans verrou : plusieurs producteurs (threads des requêtes), un seul consommateur
+ *
+ * Un producteur réserve une position par compare-and-set sur la queue puis y publie l'élément ; le consommateur
+ * lit dans l'ordre des positions et s'arrête sur une position réservée mais pas encore publiée. File pleine :
+ * le producteur attend qu'une place se libère, au plus le délai demandé.
+ */
+class AuditRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Ajouter un élément, en attendant au plus maxWaitNanos qu'une place se libère
+     *
+     * @return false si la file est restée pleine : l'élément n'a pas été ajouté
+     */
+    boolean offer(T element, long maxWaitNanos) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        long position;
+        while (true) {
+            position = tail.get();
+            if (position - head >= slots.length()) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(50_000);
+                continue;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                break;
+            }
+        }
+        slots.set((int) position & mask, element);
+        return true;
+    }
+
+    /**
+     * Retirer jusqu'à max éléments publiés, dans l'ordre (consommateur unique)
+     */
+    int drainTo(List<T> target, int max) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) position & mask;
+            T element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(element);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+}
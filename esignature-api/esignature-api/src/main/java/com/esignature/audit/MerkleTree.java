@@ -0,0 +1,54 @@
+package com.esignature.audit;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Racine de Merkle (SHA-256) des empreintes d'entrées du journal
+ *
+ * Feuille : SHA-256(0x00 || empreinte), nœud : SHA-256(0x01 || gauche || droite) ; un nœud sans voisin remonte
+ * tel quel au niveau supérieur.
+ */
+final class MerkleTree {
+
+    private MerkleTree() {
+    }
+
+    static byte[] root(List<byte[]> leaves) {
+        if (leaves.isEmpty()) {
+            return sha256().digest();
+        }
+        List<byte[]> level = new ArrayList<>(leaves.size());
+        for (byte[] leaf : leaves) {
+            level.add(hash((byte) 0, leaf, null));
+        }
+        while (level.size() > 1) {
+            List<byte[]> parents = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                parents.add(i + 1 < level.size() ? hash((byte) 1, level.get(i), level.get(i + 1)) : level.get(i));
+            }
+            level = parents;
+        }
+        return level.get(0);
+    }
+
+    private static byte[] hash(byte prefix, byte[] left, byte[] right) {
+        MessageDigest digest = sha256();
+        digest.update(prefix);
+        digest.update(left);
+        if (right != null) {
+            digest.update(right);
+        }
+        return digest.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
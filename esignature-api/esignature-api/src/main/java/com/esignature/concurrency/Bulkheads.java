@@ -0,0 +1,69 @@
+package com.esignature.concurrency;
+
+import com.esignature.config.AsyncConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Exécution des traitements coûteux en CPU dans leur cloison (signature, vérification)
+ *
+ * Le thread de la requête est libéré pendant le traitement (réponse asynchrone) : les lectures de
+ * métadonnées gardent des threads et du CPU disponibles même sous une charge de signatures. Une cloison
+ * saturée refuse immédiatement (TaskRejectedException), ce qui se traduit par 429 + Retry-After.
+ */
+@Component
+public class Bulkheads {
+
+    private final AsyncTaskExecutor signingExecutor;
+    private final AsyncTaskExecutor verificationExecutor;
+    private final String retryAfterSeconds;
+
+    public Bulkheads(
+            @Qualifier(AsyncConfig.SIGNING_EXECUTOR) AsyncTaskExecutor signingExecutor,
+            @Qualifier(AsyncConfig.VERIFICATION_EXECUTOR) AsyncTaskExecutor verificationExecutor,
+            @Value("${bulkhead.retry-after-seconds:1}") int retryAfterSeconds
+    ) {
+        this.signingExecutor = signingExecutor;
+        this.verificationExecutor = verificationExecutor;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    public <T> CompletableFuture<T> signing(Callable<T> task) {
+        return signingExecutor.submitCompletable(task);
+    }
+
+    public <T> CompletableFuture<T> verification(Callable<T> task) {
+        return verificationExecutor.submitCompletable(task);
+    }
+
+    /**
+     * Réponse d'une cloison saturée
+     */
+    public <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .build();
+    }
+
+    /**
+     * Exception d'origine d'un traitement asynchrone
+     */
+    public static Throwable cause(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
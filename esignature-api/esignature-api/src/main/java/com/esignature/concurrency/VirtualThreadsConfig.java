@@ -0,0 +1,58 @@
+package com.esignature.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Mode threads virtuels (Java 21+, spring.threads.virtual.enabled=true)
+ *
+ * Spring Boot exécute alors les requêtes Tomcat, les traitements asynchrones MVC (SSE, long-polling) et
+ * les tâches planifiées sur des threads virtuels : une requête bloquée sur le disque ou le réseau ne
+ * monopolise plus un thread du pool. Les connexions à la base sont bornées ici par un sémaphore. Les
+ * traitements CPU (signature, vérification, rendu des aperçus, contrôle des dépôts) ne sont pas limités à
+ * nouveau : ils s'exécutent déjà dans des pools de threads bornés (cloisons {@link Bulkheads}, contrôle des
+ * dépôts), un second sémaphore ne ferait qu'ajouter une file d'attente.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(
+            @Value("${concurrency.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long acquireTimeoutMs
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    log.info("Connexions simultanées limitées à {} ({})", permits, beanName);
+                    return new BoundedDataSource(dataSource, permits, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BoundedDataSource bounded) {
+                Gauge.builder("esignature.concurrency.waiting", bounded, BoundedDataSource::waitingThreads)
+                        .description("Traitements en attente d'un permis")
+                        .tag("limit", "database")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.esignature.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Exécuteurs des traitements en arrière-plan et cloisons (bulkheads) des traitements coûteux en CPU
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    
+    public static final String PREFLIGHT_EXECUTOR = "preflightExecutor";
+    public static final String IMPORT_EXECUTOR = "importExecutor";
+    public static final String RENDER_EXECUTOR = "renderExecutor";
+    public static final String SIGNING_EXECUTOR = "signingExecutor";
+    public static final String VERIFICATION_EXECUTOR = "verificationExecutor";
+    public static final String IDEMPOTENCY_EXECUTOR = "idempotencyExecutor";
+    
+    /**
+     * Contrôle des documents déposés : pool borné, la file pleine fait exécuter le contrôle par le thread
+     * appelant (ralentit les dépôts au lieu de perdre des contrôles)
+     */
+    @Bean(PREFLIGHT_EXECUTOR)
+    public ThreadPoolTaskExecutor preflightExecutor(
+            @Value("${preflight.threads:2}") int threads,
+            @Value("${preflight.queue-capacity:500}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("preflight-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Trace du dépôt prolongée dans le contrôle
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    /**
+     * Contrôle des documents d'un import en masse : autant de threads que de cœurs (sauf taille configurée) ;
+     * la file pleine fait contrôler l'entrée par le thread qui lit l'archive, ce qui ralentit la lecture
+     */
+    @Bean(IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor importExecutor(
+            @Value("${imports.threads:0}") int threads,
+            @Value("${imports.queue-capacity:200}") int queueCapacity
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    /**
+     * Relectures en base des requêtes idempotentes en attente d'une autre instance : lectures JPA bloquantes,
+     * gardées hors du pool commun de ForkJoin
+     */
+    @Bean(IDEMPOTENCY_EXECUTOR)
+    public ThreadPoolTaskExecutor idempotencyExecutor(
+            @Value("${idempotency.poll-threads:2}") int threads
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("idempotency-");
+        return executor;
+    }
+    
+    /**
+     * Signatures (PDF et cryptographie) : cloison dédiée, une rafale de signatures ne ralentit pas les lectures
+     */
+    @Bean(SIGNING_EXECUTOR)
+    public ThreadPoolTaskExecutor signingExecutor(
+            @Value("${bulkhead.signing.threads:0}") int threads,
+            @Value("${bulkhead.signing.queue-capacity:100}") int queueCapacity,
+            MeterRegistry registry
+    ) {
+        return bulkhead("signing", threads, queueCapacity, registry);
+    }
+    
+    /**
+     * Vérification des signatures d'un document
+     */
+    @Bean(VERIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor verificationExecutor(
+            @Value("${bulkhead.verification.threads:0}") int threads,
+            @Value("${bulkhead.verification.queue-capacity:100}") int queueCapacity,
+            MeterRegistry registry
+    ) {
+        return bulkhead("verification", threads, queueCapacity, registry);
+    }
+    
+    /**
+     * Rendu des aperçus de pages
+     */
+    @Bean(RENDER_EXECUTOR)
+    public ThreadPoolTaskExecutor renderExecutor(
+            @Value("${bulkhead.render.threads:0}") int threads,
+            @Value("${bulkhead.render.queue-capacity:50}") int queueCapacity,
+            MeterRegistry registry
+    ) {
+        return bulkhead("render", threads, queueCapacity, registry);
+    }
+    
+    /**
+     * Cloison pour un traitement lié au CPU : autant de threads que de cœurs (sauf taille configurée), file
+     * bornée, et refus immédiat au-delà (TaskRejectedException, 429 côté HTTP) plutôt qu'une attente qui
+     * dégraderait tous les clients. Les métriques executor.* sont publiées par nom de bean ; les refus sont
+     * comptés dans esignature.bulkhead.rejected.
+     */
+    private ThreadPoolTaskExecutor bulkhead(String pool, int threads, int queueCapacity, MeterRegistry registry) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        Counter rejected = Counter.builder("esignature.bulkhead.rejected")
+                .description("Traitements refusés, cloison saturée")
+                .tag("pool", pool)
+                .register(registry);
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(pool + "-");
+        executor.setRejectedExecutionHandler((task, threadPool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Cloison " + pool + " saturée");
+        });
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+}
@@ -1,11 +1,22 @@
 package com.esignature.config;
 
+import com.esignature.security.JwtAuthenticationFilter;
+import com.esignature.security.JwtAuthenticationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -17,8 +28,13 @@ import java.util.List;
 @EnableWebSecurity
 public class SecurityConfig {
     
+    /** Jeton d'accès exigé sur les routes documents (désactivable en développement) */
+    @Value("${jwt.required:true}")
+    private boolean jwtRequired;
+    
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   JwtAuthenticationService jwtAuthenticationService) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
@@ -29,11 +45,24 @@ public class SecurityConfig {
                     "/api-docs/**",
                     "/swagger-ui/**",
                     "/swagger-ui.html",
-                    "/h2-console/**"
+                    "/h2-console/**",
+                    "/actuator/health/**",
+                    "/actuator/prometheus",
+                    "/error"
                 ).permitAll()
-                .requestMatchers("/api/v1/documents/**").permitAll()
+                // Liens de signature des workflows : le jeton de signature authentifie le signataire
+                .requestMatchers(HttpMethod.POST, "/documents/sign", "/documents/workflow/*/reject").permitAll()
+                .requestMatchers("/documents/**", "/signature-images/**")
+                    .access(documentsAccess())
+                .requestMatchers("/audit/**").hasRole("AUDITOR")
                 .anyRequest().authenticated()
-            );
+            )
+            .addFilterBefore(new JwtAuthenticationFilter(jwtAuthenticationService),
+                UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint((request, response, e) -> {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            }));
         
         // Autoriser les frames pour H2 console
         http.headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()));
@@ -41,13 +70,19 @@ public class SecurityConfig {
         return http.build();
     }
     
+    private AuthorizationManager<RequestAuthorizationContext> documentsAccess() {
+        return jwtRequired
+                ? AuthenticatedAuthorizationManager.authenticated()
+                : (authentication, context) -> new AuthorizationDecision(true);
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "WWW-Authenticate"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,52 @@
+package com.esignature.controller;
+
+import com.esignature.audit.AuditCheckpoint;
+import com.esignature.audit.AuditLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/audit")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Audit", description = "Points de contrôle et vérification du journal d'audit (rôle AUDITOR)")
+public class AuditController {
+    
+    private final AuditLog auditLog;
+    
+    @GetMapping("/checkpoints")
+    @Operation(summary = "Points de contrôle du journal",
+               description = "Racines de Merkle successives et plages d'entrées couvertes")
+    public ResponseEntity<List<AuditCheckpoint>> getCheckpoints(
+            @RequestParam(value = "from", defaultValue = "0") long from,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(auditLog.checkpoints(Math.max(0, from), Math.min(Math.max(1, limit), 1000)));
+        } catch (Exception e) {
+            log.error("Erreur lors de la lecture des points de contrôle d'audit", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/checkpoints/{index}/verify")
+    @Operation(summary = "Vérifier un point de contrôle",
+               description = "Relit uniquement la plage couverte : empreintes, chaînage et racine de Merkle")
+    public ResponseEntity<AuditLog.AuditVerification> verifyCheckpoint(@PathVariable long index) {
+        try {
+            return ResponseEntity.ok(auditLog.verify(index));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Erreur lors de la vérification du point de contrôle d'audit {}", index, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
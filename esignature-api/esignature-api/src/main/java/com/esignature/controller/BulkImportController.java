@@ -0,0 +1,57 @@
+package com.esignature.controller;
+
+import com.esignature.audit.AuditAction;
+import com.esignature.audit.AuditEvent;
+import com.esignature.audit.AuditLog;
+import com.esignature.model.dto.BulkImportResponse;
+import com.esignature.security.AuthenticatedClient;
+import com.esignature.service.BulkImportService;
+import com.esignature.service.ImportArchiveReader;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/documents/imports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Import en masse", description = "Dépôt de nombreux documents en une seule archive")
+public class BulkImportController {
+    
+    private static final String TAR = "application/x-tar";
+    
+    private final BulkImportService bulkImportService;
+    private final AuditLog auditLog;
+    
+    @PostMapping(consumes = {"application/zip", TAR, "application/octet-stream"})
+    @Operation(summary = "Importer une archive de documents",
+               description = "Corps brut ZIP (ou tar avec Content-Type application/x-tar) ; manifest.json ou "
+                       + "manifest.csv en première entrée pour l'auteur, l'expiration et les signataires de chaque "
+                       + "fichier. Renvoie le résultat de chaque entrée et les jetons des workflows créés.")
+    public ResponseEntity<BulkImportResponse> importArchive(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(value = "uploadedBy", defaultValue = "system") String uploadedBy,
+            HttpServletRequest httpRequest
+    ) throws IOException {
+        ImportArchiveReader archive = contentType.startsWith(TAR)
+                ? ImportArchiveReader.tar(httpRequest.getInputStream())
+                : ImportArchiveReader.zip(httpRequest.getInputStream());
+        String identity = AuthenticatedClient.current().map(AuthenticatedClient::identity).orElse(null);
+        
+        BulkImportResponse response = bulkImportService.importArchive(archive, identity, uploadedBy);
+        for (BulkImportResponse.EntryResult entry : response.getEntries()) {
+            if (entry.getDocumentId() != null) {
+                auditLog.record(AuditEvent.of(AuditAction.UPLOAD, entry.getDocumentId(), httpRequest,
+                        "import " + entry.getFile()));
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+}
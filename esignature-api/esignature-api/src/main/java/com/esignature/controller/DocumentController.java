@@ -1,21 +1,53 @@
 package com.esignature.controller;
 
+import com.esignature.audit.AuditAction;
+import com.esignature.audit.AuditEvent;
+import com.esignature.audit.AuditLog;
+import com.esignature.concurrency.Bulkheads;
 import com.esignature.model.dto.*;
+import com.esignature.model.enums.SignatureStatus;
+import com.esignature.security.AuthenticatedClient;
+import com.esignature.service.DocumentEventService;
 import com.esignature.service.DocumentService;
+import com.esignature.service.EvidencePackageService;
+import com.esignature.service.IdempotencyService;
+import com.esignature.service.PageRenderService;
+import com.esignature.service.SignatureTokenService;
 import com.esignature.service.VerificationService;
 import com.esignature.service.WorkflowService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/documents")
@@ -24,68 +56,162 @@ import org.springframework.web.multipart.MultipartFile;
 @Tag(name = "Documents", description = "Gestion des documents et signatures électroniques")
 public class DocumentController {
     
+    private static final TypeReference<DocumentResponse> DOCUMENT = new TypeReference<>() {};
+    private static final TypeReference<List<WorkflowResponse>> WORKFLOWS = new TypeReference<>() {};
+    
     private final DocumentService documentService;
     private final VerificationService verificationService;
     private final WorkflowService workflowService;
+    private final DocumentEventService documentEventService;
+    private final PageRenderService pageRenderService;
+    private final Bulkheads bulkheads;
+    private final IdempotencyService idempotencyService;
+    private final AuditLog auditLog;
+    private final EvidencePackageService evidencePackageService;
+    private final SignatureTokenService signatureTokenService;
+    
+    @Value("${jwt.required:true}")
+    private boolean jwtRequired;
     
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    @Operation(summary = "Upload un document", description = "Téléverse un document pour signature")
-    public ResponseEntity<DocumentResponse> uploadDocument(
+    @Operation(summary = "Upload un document",
+               description = "Téléverse un document pour signature (auteur : identité du jeton d'accès, sinon uploadedBy)")
+    public CompletableFuture<ResponseEntity<DocumentResponse>> uploadDocument(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "uploadedBy", defaultValue = "system") String uploadedBy
+            @RequestParam(value = "uploadedBy", defaultValue = "system") String uploadedBy,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest
     ) {
+        if (file.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        
+        String author = AuthenticatedClient.current().map(AuthenticatedClient::identity).orElse(uploadedBy);
+        // Empreinte du contenu : une clé réutilisée pour un autre fichier de même nom et taille est refusée
+        Map<String, Object> fingerprint;
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().build();
-            }
-            
-            DocumentResponse response = documentService.uploadDocument(file, uploadedBy);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            
-        } catch (Exception e) {
-            log.error("Erreur lors de l'upload du document", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            fingerprint = Map.of("name", String.valueOf(file.getOriginalFilename()), "size", file.getSize(),
+                    "author", author, "sha256", sha256(file));
+        } catch (IOException e) {
+            log.error("Lecture du document déposé impossible", e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
+        return idempotencyService.execute(idempotencyKey, "upload", fingerprint, DOCUMENT, () -> {
+            try {
+                DocumentResponse response = documentService.uploadDocument(file, author);
+                auditLog.record(AuditEvent.of(AuditAction.UPLOAD, response.getId(), httpRequest, response.getName()));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CREATED).body(response));
+            } catch (Exception e) {
+                log.error("Erreur lors de l'upload du document", e);
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            }
+        });
     }
     
     @PostMapping("/sign")
     @Operation(summary = "Signer un document", description = "Applique une signature électronique sur un document")
-    public ResponseEntity<DocumentResponse> signDocument(
+    public CompletableFuture<ResponseEntity<DocumentResponse>> signDocument(
             @Valid @RequestBody SignDocumentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest
+    ) {
+        Optional<AuthenticatedClient> client = AuthenticatedClient.current();
+        if (client.isEmpty() && jwtRequired && request.getSignatureToken() == null) {
+            // Sans jeton d'accès, seul un signataire muni d'un lien de workflow peut signer
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        // L'identité du signataire vient du jeton d'accès quand il la porte : un autre email est refusé
+        String clientEmail = client.map(AuthenticatedClient::email).orElse(null);
+        if (clientEmail != null && !clientEmail.equalsIgnoreCase(request.getSignerEmail())) {
+            log.warn("Signature refusée : email du signataire différent de celui du jeton d'accès");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        client.map(AuthenticatedClient::name).ifPresent(request::setSignerName);
+        
+        String ipAddress = httpRequest.getRemoteAddr();
+        String userAgent = httpRequest.getHeader("User-Agent");
+        AuditEvent signed = AuditEvent.of(AuditAction.SIGN, request.getDocumentId(), httpRequest,
+                request.getSignatureType() + " " + request.getSignerEmail());
+        
+        // Une signature répétée (délai dépassé côté client) rejoue la première réponse
+        return idempotencyService.execute(idempotencyKey, "sign", request, DOCUMENT, () -> {
+            try {
+                return bulkheads.signing(() -> documentService.signDocument(request, clientEmail, ipAddress, userAgent))
+                        .thenApply(response -> {
+                            auditLog.record(signed);
+                            return ResponseEntity.ok(response);
+                        })
+                        .exceptionally(error -> {
+                            Throwable cause = Bulkheads.cause(error);
+                            if (cause instanceof IllegalArgumentException || cause instanceof IllegalStateException) {
+                                log.error("Erreur de validation lors de la signature", cause);
+                                return ResponseEntity.badRequest().build();
+                            }
+                            log.error("Erreur lors de la signature du document", cause);
+                            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                        });
+            } catch (TaskRejectedException e) {
+                log.warn("Signature refusée, cloison de signature saturée (document {})", request.getDocumentId());
+                return CompletableFuture.completedFuture(bulkheads.tooManyRequests());
+            }
+        });
+    }
+    
+    @GetMapping("/{documentId}")
+    @Operation(summary = "Récupérer un document", 
+               description = "Obtient les informations d'un document (include=signatures,workflows pour les détails)")
+    public ResponseEntity<DocumentResponse> getDocument(
+            @PathVariable Long documentId,
+            @RequestParam(value = "include", required = false) Set<String> include,
             HttpServletRequest httpRequest
     ) {
         try {
-            String ipAddress = httpRequest.getRemoteAddr();
-            String userAgent = httpRequest.getHeader("User-Agent");
-            
-            DocumentResponse response = documentService.signDocument(request, ipAddress, userAgent);
+            DocumentResponse response = documentService.getDocument(
+                    documentId, include != null ? include : Set.of());
+            auditLog.record(AuditEvent.of(AuditAction.VIEW, documentId, httpRequest, null));
             return ResponseEntity.ok(response);
-            
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            log.error("Erreur de validation lors de la signature", e);
-            return ResponseEntity.badRequest().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping(value = "/{documentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Flux des changements de statut", 
+               description = "Server-Sent Events : état courant puis chaque transition du document")
+    public ResponseEntity<SseEmitter> streamDocumentEvents(@PathVariable Long documentId) {
+        try {
+            return ResponseEntity.ok(documentEventService.subscribe(documentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
-            log.error("Erreur lors de la signature du document", e);
+            log.error("Erreur lors de l'abonnement aux événements", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
-    @GetMapping("/{documentId}")
-    @Operation(summary = "Récupérer un document", description = "Obtient les informations d'un document")
-    public ResponseEntity<DocumentResponse> getDocument(@PathVariable Long documentId) {
+    @GetMapping("/{documentId}/events/poll")
+    @Operation(summary = "Attendre un changement de statut (long-polling)", 
+               description = "Répond dès que le statut diffère de knownStatus, sinon 304 après timeoutMs")
+    public DeferredResult<ResponseEntity<DocumentResponse>> pollDocumentStatus(
+            @PathVariable Long documentId,
+            @RequestParam(value = "knownStatus", required = false) SignatureStatus knownStatus,
+            @RequestParam(value = "timeoutMs", defaultValue = "30000") long timeoutMs
+    ) {
         try {
-            DocumentResponse response = documentService.getDocument(documentId);
-            return ResponseEntity.ok(response);
+            return documentEventService.poll(documentId, knownStatus, timeoutMs);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
+            DeferredResult<ResponseEntity<DocumentResponse>> notFound = new DeferredResult<>();
+            notFound.setResult(ResponseEntity.notFound().build());
+            return notFound;
         }
     }
     
     @GetMapping("/{documentId}/download")
     @Operation(summary = "Télécharger le document signé", description = "Télécharge le PDF signé")
-    public ResponseEntity<byte[]> downloadSignedDocument(@PathVariable Long documentId) {
+    public ResponseEntity<byte[]> downloadSignedDocument(@PathVariable Long documentId, HttpServletRequest httpRequest) {
         try {
             byte[] pdfBytes = documentService.downloadSignedDocument(documentId);
+            auditLog.record(AuditEvent.of(AuditAction.DOWNLOAD, documentId, httpRequest, null));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -105,22 +231,114 @@ public class DocumentController {
         }
     }
     
-    @PostMapping("/workflow")
-    @Operation(summary = "Créer un workflow de signature", 
-               description = "Définit un processus de signature avec plusieurs signataires")
-    public ResponseEntity<?> createWorkflow(@Valid @RequestBody CreateWorkflowRequest request) {
+    @GetMapping(value = "/{documentId}/evidence", produces = "application/zip")
+    @Operation(summary = "Dossier de preuve", 
+               description = "Archive ZIP produite à la volée : original, révisions signées, certificats, "
+                       + "rapport de vérification, journal d'audit et manifeste des empreintes SHA-256")
+    public ResponseEntity<StreamingResponseBody> downloadEvidence(@PathVariable Long documentId,
+                                                                  HttpServletRequest httpRequest) {
+        EvidencePackageService.Prepared prepared;
         try {
-            var workflows = workflowService.createWorkflow(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(workflows);
+            prepared = evidencePackageService.prepare(documentId);
         } catch (IllegalArgumentException e) {
-            log.error("Erreur de validation", e);
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (TaskRejectedException e) {
+            log.warn("Dossier de preuve refusé, cloison de vérification saturée");
+            return bulkheads.tooManyRequests();
+        }
+        auditLog.record(AuditEvent.of(AuditAction.EVIDENCE_EXPORT, documentId, httpRequest, null));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "evidence-" + documentId + ".zip");
+        
+        StreamingResponseBody body = out -> evidencePackageService.write(prepared, out);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+    
+    @GetMapping(value = "/{documentId}/pages/{pageNumber}.png", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(summary = "Aperçu d'une page",
+               description = "Rendu PNG d'une page (à partir de 0) de la version signée si elle existe, "
+                       + "sinon de l'original (original=true pour forcer l'original)")
+    public CompletableFuture<ResponseEntity<byte[]>> renderPage(
+            @PathVariable Long documentId,
+            @PathVariable int pageNumber,
+            @RequestParam(value = "dpi", required = false) Integer dpi,
+            @RequestParam(value = "original", defaultValue = "false") boolean original,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest httpRequest
+    ) {
+        try {
+            PageRenderService.PageImage page = pageRenderService.locate(documentId, pageNumber, dpi, original);
+            AuditEvent viewed = AuditEvent.of(AuditAction.PAGE_VIEW, documentId, httpRequest, "page " + pageNumber);
+            String eTag = "\"" + page.cacheKey() + "\"";
+            // Revalidation à chaque affichage : la version servie change quand le document est signé
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if (eTag.equals(ifNoneMatch)) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag).cacheControl(cacheControl).build());
+            }
+            
+            return pageRenderService.render(page)
+                    .thenApply(png -> {
+                        auditLog.record(viewed);
+                        return ResponseEntity.ok()
+                                .contentType(MediaType.IMAGE_PNG)
+                                .eTag(eTag)
+                                .cacheControl(cacheControl)
+                                .body(png);
+                    })
+                    .exceptionally(error -> {
+                        Throwable cause = Bulkheads.cause(error);
+                        if (cause instanceof IllegalArgumentException) {
+                            return ResponseEntity.notFound().build();
+                        }
+                        if (cause instanceof TimeoutException) {
+                            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                        }
+                        log.error("Erreur lors du rendu de la page", cause);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                    });
+                    
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        } catch (TaskRejectedException e) {
+            log.warn("Rendu refusé, cloison de rendu saturée (document {}, page {})", documentId, pageNumber);
+            return CompletableFuture.completedFuture(bulkheads.tooManyRequests());
+        } catch (IllegalStateException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
         } catch (Exception e) {
-            log.error("Erreur lors de la création du workflow", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Erreur lors du rendu de la page", e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
     
+    @PostMapping("/workflow")
+    @Operation(summary = "Créer un workflow de signature", 
+               description = "Définit un processus de signature avec plusieurs signataires")
+    public CompletableFuture<ResponseEntity<Object>> createWorkflow(
+            @Valid @RequestBody CreateWorkflowRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest
+    ) {
+        return idempotencyService.execute(idempotencyKey, "workflow", request, WORKFLOWS, () -> {
+            try {
+                var workflows = workflowService.createWorkflow(request);
+                auditLog.record(AuditEvent.of(AuditAction.WORKFLOW_CREATE, request.getDocumentId(), httpRequest,
+                        workflows.size() + " signataire(s)"));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CREATED).body(workflows));
+            } catch (IllegalArgumentException e) {
+                log.error("Erreur de validation", e);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+            } catch (Exception e) {
+                log.error("Erreur lors de la création du workflow", e);
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            }
+        });
+    }
+    
     @GetMapping("/{documentId}/workflow")
     @Operation(summary = "Obtenir le workflow d'un document", 
                description = "Liste les étapes de signature d'un document")
@@ -138,10 +356,14 @@ public class DocumentController {
     @Operation(summary = "Rejeter une signature", description = "Permet à un signataire de rejeter sa signature")
     public ResponseEntity<?> rejectSignature(
             @PathVariable String token,
-            @RequestParam String reason
+            @RequestParam String reason,
+            HttpServletRequest httpRequest
     ) {
         try {
+            Long documentId = signatureTokenService.validateToken(token).documentId();
             var workflow = workflowService.rejectSignature(token, reason);
+            auditLog.record(AuditEvent.of(AuditAction.REJECT, documentId, httpRequest,
+                    "workflow " + workflow.getId() + " " + workflow.getSignerEmail() + " : " + reason));
             return ResponseEntity.ok(workflow);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -154,15 +376,41 @@ public class DocumentController {
     @GetMapping("/{documentId}/verify")
     @Operation(summary = "Vérifier les signatures", 
                description = "Valide l'authenticité de toutes les signatures d'un document")
-    public ResponseEntity<VerificationResponse> verifyDocument(@PathVariable Long documentId) {
+    public CompletableFuture<ResponseEntity<VerificationResponse>> verifyDocument(
+            @PathVariable Long documentId,
+            HttpServletRequest httpRequest
+    ) {
+        AuditEvent verified = AuditEvent.of(AuditAction.VERIFY, documentId, httpRequest, null);
         try {
-            VerificationResponse response = verificationService.verifyDocument(documentId);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            log.error("Erreur lors de la vérification", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return bulkheads.verification(() -> verificationService.verifyDocument(documentId))
+                    .thenApply(response -> {
+                        auditLog.record(verified);
+                        return ResponseEntity.ok(response);
+                    })
+                    .exceptionally(error -> {
+                        Throwable cause = Bulkheads.cause(error);
+                        if (cause instanceof IllegalArgumentException) {
+                            return ResponseEntity.notFound().build();
+                        }
+                        log.error("Erreur lors de la vérification", cause);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                    });
+        } catch (TaskRejectedException e) {
+            log.warn("Vérification refusée, cloison de vérification saturée (document {})", documentId);
+            return CompletableFuture.completedFuture(bulkheads.tooManyRequests());
+        }
+    }
+    
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
         }
+        return HexFormat.of().formatHex(digest.digest());
     }
 }
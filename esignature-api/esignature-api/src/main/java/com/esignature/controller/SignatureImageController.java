@@ -0,0 +1,60 @@
+package com.esignature.controller;
+
+import com.esignature.model.dto.SignatureImageResponse;
+import com.esignature.security.AuthenticatedClient;
+import com.esignature.service.SignatureImageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/signature-images")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Images de signature", description = "Registre des signatures manuscrites réutilisables")
+public class SignatureImageController {
+    
+    private final SignatureImageService signatureImageService;
+    
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Enregistrer une image de signature",
+            description = "Enregistre une image PNG/JPEG une fois ; elle est ensuite référencée par signatureImageId "
+                    + "(propriétaire : email du jeton d'accès, sinon ownerEmail)")
+    public ResponseEntity<SignatureImageResponse> registerImage(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "ownerEmail", required = false) String ownerEmail
+    ) {
+        try {
+            String owner = AuthenticatedClient.current().map(AuthenticatedClient::email).orElse(ownerEmail);
+            if (file.isEmpty() || owner == null || owner.isBlank()) {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            SignatureImageResponse response = signatureImageService.registerImage(file, owner);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Image de signature refusée", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'enregistrement de l'image de signature", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/{imageId}")
+    @Operation(summary = "Informations d'une image de signature")
+    public ResponseEntity<SignatureImageResponse> getImage(@PathVariable Long imageId) {
+        try {
+            return ResponseEntity.ok(signatureImageService.getImage(imageId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.esignature.controller;
+
+import com.esignature.audit.AuditAction;
+import com.esignature.audit.AuditEvent;
+import com.esignature.audit.AuditLog;
+import com.esignature.model.dto.UploadSessionResponse;
+import com.esignature.security.AuthenticatedClient;
+import com.esignature.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/documents/uploads")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Dépôts fractionnés", description = "Dépôt reprenable de gros documents, morceau par morceau")
+public class UploadSessionController {
+    
+    /** Position attendue du prochain morceau */
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+    
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+    
+    private final UploadSessionService uploadSessionService;
+    private final AuditLog auditLog;
+    
+    @PostMapping
+    @Operation(summary = "Ouvrir un dépôt fractionné",
+               description = "Annonce le fichier (nom, taille, SHA-256 facultatif) avant l'envoi des morceaux")
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @RequestParam("fileName") String fileName,
+            @RequestParam("totalSize") long totalSize,
+            @RequestParam(value = "contentType", defaultValue = "application/pdf") String contentType,
+            @RequestParam(value = "uploadedBy", defaultValue = "system") String uploadedBy,
+            @RequestParam(value = "sha256", required = false) String sha256
+    ) {
+        try {
+            String author = AuthenticatedClient.current().map(AuthenticatedClient::identity).orElse(uploadedBy);
+            UploadSessionResponse response = uploadSessionService.createSession(
+                    fileName, contentType, totalSize, author, sha256);
+            return ResponseEntity.created(URI.create("/documents/uploads/" + response.getId()))
+                    .header(UPLOAD_OFFSET, "0")
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'ouverture du dépôt fractionné", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "État d'un dépôt fractionné",
+               description = "Position à partir de laquelle reprendre l'envoi (aussi disponible en HEAD)")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String uploadId) {
+        try {
+            UploadSessionResponse response = uploadSessionService.getSession(uploadId);
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PutMapping("/{uploadId}")
+    @Operation(summary = "Envoyer un morceau",
+               description = "Corps brut avec Content-Range: bytes début-fin/total ; le début doit être la position "
+                       + "courante (409 avec la position attendue sinon). Le dernier morceau crée le document.")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestHeader(HttpHeaders.CONTENT_RANGE) String contentRange,
+            HttpServletRequest httpRequest
+    ) {
+        Matcher range = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!range.matches()) {
+            return ResponseEntity.badRequest().build();
+        }
+    
+        try {
+            long start = Long.parseLong(range.group(1));
+            long end = Long.parseLong(range.group(2));
+            Long total = "*".equals(range.group(3)) ? null : Long.parseLong(range.group(3));
+    
+            UploadSessionResponse response = uploadSessionService.writeChunk(
+                    uploadId, start, end - start + 1, total, httpRequest.getInputStream());
+            if (response.getDocumentId() != null) {
+                auditLog.record(AuditEvent.of(AuditAction.UPLOAD, response.getDocumentId(), httpRequest,
+                        response.getFileName()));
+            }
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                    .body(response);
+    
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Morceau refusé pour le dépôt {} : {}", uploadId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            // Position inattendue, envoi concurrent ou dépôt terminé : le client reprend à la position renvoyée
+            log.info("Morceau en conflit pour le dépôt {} : {}", uploadId, e.getMessage());
+            UploadSessionResponse current = uploadSessionService.getSession(uploadId);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET, String.valueOf(current.getOffset()))
+                    .body(current);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'écriture d'un morceau du dépôt {}", uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Abandonner un dépôt fractionné", description = "Supprime les morceaux déjà reçus")
+    public ResponseEntity<Void> abortSession(@PathVariable String uploadId) {
+        try {
+            uploadSessionService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'abandon du dépôt {}", uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
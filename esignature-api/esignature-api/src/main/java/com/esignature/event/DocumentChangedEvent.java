@@ -0,0 +1,18 @@
+package com.esignature.event;
+
+/**
+ * Événement publié lorsqu'un document change (signature, rejet, expiration...)
+ *
+ * @param documentId identifiant du document modifié
+ * @param remote     true si la modification provient d'une autre instance du cluster
+ */
+public record DocumentChangedEvent(Long documentId, boolean remote) {
+    
+    public static DocumentChangedEvent local(Long documentId) {
+        return new DocumentChangedEvent(documentId, false);
+    }
+    
+    public static DocumentChangedEvent remote(Long documentId) {
+        return new DocumentChangedEvent(documentId, true);
+    }
+}
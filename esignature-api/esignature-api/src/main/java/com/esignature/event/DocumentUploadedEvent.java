@@ -0,0 +1,9 @@
+package com.esignature.event;
+
+/**
+ * Événement publié au dépôt d'un document, déclenche son contrôle après commit
+ *
+ * @param documentId identifiant du document déposé
+ */
+public record DocumentUploadedEvent(Long documentId) {
+}
@@ -0,0 +1,113 @@
+package com.esignature.metrics;
+
+import com.esignature.model.enums.SignatureType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques du pipeline de signature : une série de temps par étape et un compteur par résultat
+ *
+ * Étapes : file.read, keystore.unlock, pdf.load, image.embed, cms.sign, pdf.save, storage.write, db.commit
+ */
+@Component
+public class SigningMetrics {
+    
+    public static final String STAGE_FILE_READ = "file.read";
+    public static final String STAGE_KEYSTORE_UNLOCK = "keystore.unlock";
+    public static final String STAGE_PDF_LOAD = "pdf.load";
+    public static final String STAGE_IMAGE_EMBED = "image.embed";
+    public static final String STAGE_CMS_SIGN = "cms.sign";
+    public static final String STAGE_PDF_SAVE = "pdf.save";
+    public static final String STAGE_STORAGE_WRITE = "storage.write";
+    public static final String STAGE_DB_COMMIT = "db.commit";
+    
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_FAILURE = "failure";
+    
+    private final MeterRegistry registry;
+    
+    public SigningMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * Chronométrer une étape du pipeline
+     */
+    public <T> T time(String stage, SignatureType type, StageAction<T> action) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return action.run();
+        } finally {
+            record(stage, type, System.nanoTime() - start);
+        }
+    }
+    
+    public void record(String stage, SignatureType type, long durationNanos) {
+        stageTimer(stage, type).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Compter une demande de signature terminée (succès, refus de validation, erreur)
+     */
+    public void signatureCompleted(SignatureType type, String outcome) {
+        Counter.builder("esignature.signatures")
+                .description("Demandes de signature par type et résultat")
+                .tag("type", typeTag(type))
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+    
+    /**
+     * Chronométrer le commit de la transaction courante (flush JPA inclus) et compter
+     * la signature comme réussie ou échouée selon son issue
+     */
+    public void trackCommit(SignatureType type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            signatureCompleted(type, OUTCOME_SUCCESS);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = System.nanoTime();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (commitStart == 0) {
+                    return;
+                }
+                record(STAGE_DB_COMMIT, type, System.nanoTime() - commitStart);
+                signatureCompleted(type, status == STATUS_COMMITTED ? OUTCOME_SUCCESS : OUTCOME_FAILURE);
+            }
+        });
+    }
+    
+    private Timer stageTimer(String stage, SignatureType type) {
+        return Timer.builder("esignature.signing.stage")
+                .description("Durée de chaque étape du pipeline de signature")
+                .tag("stage", stage)
+                .tag("type", typeTag(type))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+    
+    private static String typeTag(SignatureType type) {
+        return type != null ? type.name() : "UNKNOWN";
+    }
+    
+    @FunctionalInterface
+    public interface StageAction<T> {
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,76 @@
+package com.esignature.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Volume occupé par les répertoires de stockage, recalculé périodiquement
+ * (le parcours disque n'est jamais fait au moment du scrape)
+ */
+@Component
+@Slf4j
+public class StorageMetrics {
+    
+    private final Path originalLocation;
+    private final Path signedLocation;
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong signedBytes = new AtomicLong();
+    
+    public StorageMetrics(
+            MeterRegistry registry,
+            @Value("${storage.location}") String storageLocation,
+            @Value("${storage.signed-location}") String signedStorageLocation
+    ) {
+        this.originalLocation = Paths.get(storageLocation);
+        this.signedLocation = Paths.get(signedStorageLocation);
+        
+        Gauge.builder("esignature.storage.bytes", originalBytes, AtomicLong::get)
+                .description("Octets stockés par emplacement")
+                .tag("location", "original")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("esignature.storage.bytes", signedBytes, AtomicLong::get)
+                .description("Octets stockés par emplacement")
+                .tag("location", "signed")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+    
+    @Scheduled(fixedDelayString = "${metrics.storage.refresh-ms:60000}", initialDelay = 5000)
+    public void refresh() {
+        originalBytes.set(directorySize(originalLocation));
+        signedBytes.set(directorySize(signedLocation));
+    }
+    
+    private long directorySize(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .mapToLong(file -> {
+                        try {
+                            return Files.size(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .sum();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Impossible de mesurer le répertoire {}", directory, e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.esignature.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifeste d'un import en masse (manifest.json ou manifest.csv, première entrée de l'archive)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportManifest {
+    
+    // Valeurs par défaut des documents
+    private String uploadedBy;
+    private Integer expirationDays;
+    
+    @Builder.Default
+    private List<DocumentEntry> documents = new ArrayList<>();
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DocumentEntry {
+        
+        // Chemin de l'entrée dans l'archive
+        private String file;
+        
+        private String name;
+        private String uploadedBy;
+        private String sha256;
+        private Integer expirationDays;
+        
+        @Builder.Default
+        private List<CreateWorkflowRequest.WorkflowSignerDto> signers = new ArrayList<>();
+    }
+}
@@ -0,0 +1,48 @@
+package com.esignature.model.dto;
+
+import com.esignature.model.enums.ImportEntryStatus;
+import com.esignature.model.enums.PreflightStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResponse {
+    private int total;
+    private int imported;
+    private int rejected;
+    private int failed;
+    private int skipped;
+    private int workflows;
+    private long durationMs;
+    
+    // Archive tronquée ou illisible : seules les entrées lues avant l'erreur sont importées
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    
+    private List<EntryResult> entries;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EntryResult {
+        private String file;
+        private ImportEntryStatus status;
+        private Long documentId;
+        private Long size;
+        private String sha256;
+        private PreflightStatus preflightStatus;
+        private Integer pageCount;
+        private String error;
+        // Jetons de signature à transmettre aux signataires
+        private List<WorkflowResponse> workflows;
+    }
+}
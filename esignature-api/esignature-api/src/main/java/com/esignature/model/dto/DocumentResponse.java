@@ -1,7 +1,7 @@
 package com.esignature.model.dto;
 
+import com.esignature.model.enums.PreflightStatus;
 import com.esignature.model.enums.SignatureStatus;
-import com.esignature.model.enums.SignatureType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,36 +24,10 @@ public class DocumentResponse {
     private LocalDateTime createdAt;
     private LocalDateTime signedAt;
     private LocalDateTime expiresAt;
+    private PreflightStatus preflightStatus;
+    private String preflightError;
+    private Integer pageCount;
     private List<SignatureResponse> signatures;
     private List<WorkflowResponse> workflows;
     private String downloadUrl;
 }
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-class SignatureResponse {
-    private Long id;
-    private String signerName;
-    private String signerEmail;
-    private SignatureType signatureType;
-    private LocalDateTime signedAt;
-    private String certificateSerialNumber;
-    private String certificateIssuer;
-}
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-class WorkflowResponse {
-    private Long id;
-    private String signerName;
-    private String signerEmail;
-    private Integer signOrder;
-    private SignatureType requiredSignatureType;
-    private SignatureStatus status;
-    private LocalDateTime signedAt;
-    private LocalDateTime expiresAt;
-}
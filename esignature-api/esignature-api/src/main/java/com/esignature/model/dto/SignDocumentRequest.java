@@ -1,14 +1,18 @@
 package com.esignature.model.dto;
 
 import com.esignature.model.enums.SignatureType;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,7 +32,8 @@ public class SignDocumentRequest {
     @NotNull(message = "Le type de signature est requis")
     private SignatureType signatureType;
     
-    // Pour signature simple
+    // Pour signature simple : image enregistrée (voir /signature-images) ou image en base64
+    private Long signatureImageId;
     private String signatureImageBase64;
     
     // Pour signature avancée/qualifiée
@@ -42,6 +47,15 @@ public class SignDocumentRequest {
     private Float width;
     private Float height;
     
+    // Position par nom de champ ou texte d'ancrage, à la place des coordonnées (voir SignaturePlacement)
+    private String fieldName;
+    private String anchorText;
+    
+    // Plusieurs emplacements appliqués en une seule passe (remplacent la position unique)
+    @Valid
+    @Size(max = 500, message = "500 emplacements maximum")
+    private List<SignaturePlacement> placements;
+    
     // Token pour workflow
     private String signatureToken;
 }
@@ -0,0 +1,22 @@
+package com.esignature.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignatureImageResponse {
+    private Long id;
+    private String name;
+    private String ownerEmail;
+    private Integer width;
+    private Integer height;
+    private Long fileSize;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,50 @@
+package com.esignature.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Emplacement d'une signature ou d'un paraphe sur le PDF
+ *
+ * Désigné par des coordonnées, par le nom d'un champ du formulaire ou par un texte d'ancrage du document.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignaturePlacement {
+    
+    // Page (0 = première) ; ignorée si allPages est vrai
+    private Integer pageNumber;
+    
+    // Répéter sur toutes les pages (paraphes)
+    private Boolean allPages;
+    
+    // Coordonnées (points PDF, origine en bas à gauche) ; inutiles avec fieldName ou anchorText
+    private Float xPosition;
+    private Float yPosition;
+    
+    private Float width;
+    private Float height;
+    
+    // Champ du formulaire : sa page et son rectangle ; un champ de signature non signé reçoit la signature
+    private String fieldName;
+    
+    // Texte d'ancrage (ex. "Signature :") : l'emplacement commence à la fin du texte, sur sa ligne de base
+    private String anchorText;
+    
+    // Occurrence du texte d'ancrage (0 = première) ; avec allPages, toutes les occurrences
+    private Integer anchorOccurrence;
+    
+    // Décalage par rapport à la fin du texte d'ancrage
+    private Float offsetX;
+    private Float offsetY;
+    
+    // Image propre à cet emplacement (ex. paraphe), sinon l'image de la requête
+    private Long signatureImageId;
+    
+    // Emplacement du champ de signature cryptographique (avancée/qualifiée) ; par défaut le dernier
+    private Boolean signatureField;
+}
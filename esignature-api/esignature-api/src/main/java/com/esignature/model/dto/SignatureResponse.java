@@ -0,0 +1,23 @@
+package com.esignature.model.dto;
+
+import com.esignature.model.enums.SignatureType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignatureResponse {
+    private Long id;
+    private String signerName;
+    private String signerEmail;
+    private SignatureType signatureType;
+    private LocalDateTime signedAt;
+    private String certificateSerialNumber;
+    private String certificateIssuer;
+}
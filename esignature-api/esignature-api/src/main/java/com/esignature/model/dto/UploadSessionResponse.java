@@ -0,0 +1,24 @@
+package com.esignature.model.dto;
+
+import com.esignature.model.enums.UploadSessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String id;
+    private String fileName;
+    private Long totalSize;
+    private Long offset;
+    private UploadSessionStatus status;
+    private String sha256;
+    private Long documentId;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,43 @@
+package com.esignature.model.dto;
+
+import com.esignature.model.enums.SignatureStatus;
+import com.esignature.model.enums.SignatureType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowResponse {
+    private Long id;
+    private String signerName;
+    private String signerEmail;
+    private Integer signOrder;
+    private SignatureType requiredSignatureType;
+    private SignatureStatus status;
+    private LocalDateTime signedAt;
+    private LocalDateTime expiresAt;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String rejectionReason;
+    
+    // Renseigné uniquement à la création du workflow
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String signatureToken;
+    
+    /**
+     * Projection JPQL (expression constructeur) : le jeton n'est jamais relu depuis la base
+     */
+    public WorkflowResponse(Long id, String signerName, String signerEmail, Integer signOrder,
+                            SignatureType requiredSignatureType, SignatureStatus status,
+                            LocalDateTime signedAt, LocalDateTime expiresAt, String rejectionReason) {
+        this(id, signerName, signerEmail, signOrder, requiredSignatureType, status,
+                signedAt, expiresAt, rejectionReason, null);
+    }
+}
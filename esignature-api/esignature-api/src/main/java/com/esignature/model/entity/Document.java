@@ -1,11 +1,14 @@
 package com.esignature.model.entity;
 
+import com.esignature.model.enums.PreflightStatus;
 import com.esignature.model.enums.SignatureStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -26,18 +29,27 @@ public class Document {
     @Column(nullable = false)
     private String name;
     
-    @Column(nullable = false)
+    // Modifié uniquement par DocumentRepository.swapOptimizedOriginal
+    @Column(nullable = false, updatable = false)
     private String originalFilePath;
     
     @Column
     private String signedFilePath;
     
-    @Column(nullable = false)
+    // Index des champs et du texte (placement par nom de champ ou texte d'ancrage)
+    @Column(updatable = false)
+    private String layoutIndexPath;
+    
+    @Column(nullable = false, updatable = false)
     private String mimeType;
     
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Long fileSize;
     
+    // Taille du fichier tel que déposé, si l'original a été optimisé
+    @Column(updatable = false)
+    private Long uploadedFileSize;
+    
     @Column(nullable = false)
     private String uploadedBy;
     
@@ -54,12 +66,44 @@ public class Document {
     @Column
     private LocalDateTime expiresAt;
     
+    // Contrôle du dépôt : validité du PDF et métadonnées structurelles. Ces colonnes (et les précédentes
+    // marquées non modifiables) ne sont écrites après l'insertion que par DocumentRepository.recordPreflight :
+    // l'enregistrement d'un document chargé avant la fin du contrôle ne peut pas écraser son résultat.
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private PreflightStatus preflightStatus;
+    
+    @Column(updatable = false)
+    private String preflightError;
+    
+    @Column(updatable = false)
+    private Integer pageCount;
+    
+    @Column(updatable = false)
+    private Boolean encrypted;
+    
+    @Column(updatable = false)
+    private Boolean linearized;
+    
+    @Column(updatable = false)
+    private Integer signatureFieldCount;
+    
+    @Column(updatable = false)
+    private Integer existingSignatureCount;
+    
+    @Column(updatable = false)
+    private LocalDateTime preflightAt;
+    
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Signature> signatures = new ArrayList<>();
     
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<SignatureWorkflow> workflows = new ArrayList<>();
     
     @PrePersist
@@ -68,5 +112,8 @@ public class Document {
         if (status == null) {
             status = SignatureStatus.PENDING;
         }
+        if (preflightStatus == null) {
+            preflightStatus = PreflightStatus.PENDING;
+        }
     }
 }
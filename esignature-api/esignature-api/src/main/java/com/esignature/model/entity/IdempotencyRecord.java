@@ -0,0 +1,64 @@
+package com.esignature.model.entity;
+
+import com.esignature.model.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Requête idempotente (en-tête Idempotency-Key) : réservée par la première exécution, puis réponse
+ * enregistrée et rejouée, quelle que soit l'instance qui reçoit la requête répétée
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    /** Empreinte SHA-256 du client, de l'opération et de la clé fournie */
+    @Id
+    @Column(length = 64)
+    private String id;
+    
+    @Column(nullable = false)
+    private String operation;
+    
+    /** Empreinte de la requête : une même clé réutilisée pour une autre requête est refusée */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyStatus status;
+    
+    @Column
+    private Integer responseStatus;
+    
+    /** Corps de la réponse (JSON) */
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    /** Versionnée : la réservation est toujours une insertion, jamais une fusion avec une clé existante */
+    @Version
+    private Long version;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = IdempotencyStatus.IN_PROGRESS;
+        }
+    }
+}
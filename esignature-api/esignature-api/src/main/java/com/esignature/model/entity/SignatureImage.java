@@ -0,0 +1,52 @@
+package com.esignature.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image de signature manuscrite enregistrée une fois puis référencée par son identifiant
+ */
+@Entity
+@Table(name = "signature_images")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignatureImage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(nullable = false)
+    private String ownerEmail;
+    
+    @Column(nullable = false)
+    private Integer width;
+    
+    @Column(nullable = false)
+    private Integer height;
+    
+    /** Flux PDF pré-convertis (voir PreparedSignatureImage) */
+    @Column(nullable = false)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private Long fileSize;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
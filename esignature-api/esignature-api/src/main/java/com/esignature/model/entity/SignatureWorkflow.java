@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -24,6 +26,8 @@ public class SignatureWorkflow {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "document_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Document document;
     
     @Column(nullable = false)
@@ -43,7 +47,7 @@ public class SignatureWorkflow {
     @Column(nullable = false)
     private SignatureStatus status;
     
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false, unique = true, length = 512)
     private String signatureToken;
     
     @Column
@@ -55,8 +59,10 @@ public class SignatureWorkflow {
     @Column
     private LocalDateTime expiresAt;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "signature_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Signature signature;
     
     @Column(columnDefinition = "TEXT")
@@ -0,0 +1,87 @@
+package com.esignature.model.entity;
+
+import com.esignature.model.enums.UploadSessionStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dépôt fractionné reprenable : le fichier est reçu par morceaux écrits à leur position dans un fichier
+ * temporaire, puis transformé en document une fois complet
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    
+    /** Identifiant aléatoire (UUID), utilisé dans l'URL du dépôt */
+    @Id
+    private String id;
+    
+    @Column(nullable = false)
+    private String fileName;
+    
+    @Column(nullable = false)
+    private String contentType;
+    
+    @Column(nullable = false)
+    private String uploadedBy;
+    
+    @Column(nullable = false)
+    private Long totalSize;
+    
+    /** Octets reçus et écrits sur disque : position attendue du prochain morceau */
+    @Column(nullable = false)
+    private Long receivedBytes;
+    
+    @Column(nullable = false)
+    private String tempFilePath;
+    
+    /** Envoi en cours : jeton de l'écrivain et fin de sa réservation (un seul écrivain, toutes instances confondues) */
+    @Column(length = 36)
+    private String writerToken;
+    
+    @Column
+    private LocalDateTime writerUntil;
+    
+    /** Empreinte SHA-256 annoncée par le client, vérifiée à la fin du dépôt */
+    @Column(length = 64)
+    private String expectedSha256;
+    
+    @Column(length = 64)
+    private String sha256;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadSessionStatus status;
+    
+    @Column
+    private Long documentId;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime updatedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = UploadSessionStatus.OPEN;
+        }
+        if (receivedBytes == null) {
+            receivedBytes = 0L;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.esignature.model.enums;
+
+/**
+ * État d'une requête idempotente
+ */
+public enum IdempotencyStatus {
+    /**
+     * Première exécution en cours
+     */
+    IN_PROGRESS,
+    
+    /**
+     * Réponse enregistrée, rejouée aux requêtes répétées
+     */
+    COMPLETED
+}
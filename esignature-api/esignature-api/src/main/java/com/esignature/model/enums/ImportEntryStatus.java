@@ -0,0 +1,26 @@
+package com.esignature.model.enums;
+
+/**
+ * Résultat d'une entrée d'un import en masse
+ */
+public enum ImportEntryStatus {
+    /**
+     * Document créé et contrôlé (avec ses workflows éventuels)
+     */
+    IMPORTED,
+    
+    /**
+     * Document créé mais refusé au contrôle
+     */
+    REJECTED,
+    
+    /**
+     * Entrée illisible, trop grande, empreinte différente ou erreur d'enregistrement : aucun document créé
+     */
+    FAILED,
+    
+    /**
+     * Entrée ignorée (répertoire, fichier non PDF, limite d'entrées atteinte)
+     */
+    SKIPPED
+}
@@ -0,0 +1,21 @@
+package com.esignature.model.enums;
+
+/**
+ * État du contrôle d'un document déposé
+ */
+public enum PreflightStatus {
+    /**
+     * Contrôle en attente
+     */
+    PENDING,
+    
+    /**
+     * PDF valide, métadonnées structurelles enregistrées
+     */
+    VALID,
+    
+    /**
+     * Fichier refusé (pas un PDF, illisible, protégé ou trop volumineux)
+     */
+    REJECTED
+}
@@ -0,0 +1,31 @@
+package com.esignature.model.enums;
+
+/**
+ * État d'un dépôt fractionné
+ */
+public enum UploadSessionStatus {
+    /**
+     * Morceaux en cours de réception
+     */
+    OPEN,
+    
+    /**
+     * Fichier complet, document créé
+     */
+    COMPLETED,
+    
+    /**
+     * Fichier complet mais empreinte différente de celle annoncée
+     */
+    FAILED,
+    
+    /**
+     * Abandonné par le client
+     */
+    ABORTED,
+    
+    /**
+     * Sans activité au-delà du délai de conservation
+     */
+    EXPIRED
+}
@@ -0,0 +1,52 @@
+package com.esignature.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seaux de jetons de l'instance : l'heure d'arrivée théorique de chaque client, mise à jour par compute
+ * (verrou de l'entrée seulement, la table est segmentée par ConcurrentHashMap). La purge passe par la même
+ * opération atomique : un seau ne peut pas être retiré pendant une consommation.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Map<String, Long> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryConsume(String key, int cost, int capacity, double refillPerSecond) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        long burst = interval * capacity;
+        long increment = interval * cost;
+        long[] waitMillis = new long[1];
+
+        buckets.compute(key, (k, theoreticalArrival) -> {
+            long now = System.nanoTime();
+            long next = Math.max(theoreticalArrival == null ? now : theoreticalArrival, now) + increment;
+            if (next - now > burst) {
+                waitMillis[0] = TimeUnit.NANOSECONDS.toMillis(next - now - burst) + 1;
+                return theoreticalArrival;
+            }
+            return next;
+        });
+        return waitMillis[0];
+    }
+
+    /**
+     * Oublier les clients dont le seau est de nouveau plein
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.cleanup-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (String key : buckets.keySet()) {
+            buckets.computeIfPresent(key,
+                    (k, theoreticalArrival) -> theoreticalArrival - now <= 0 ? null : theoreticalArrival);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
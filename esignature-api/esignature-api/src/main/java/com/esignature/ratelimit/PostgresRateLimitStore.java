@@ -0,0 +1,59 @@
+package com.esignature.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Seaux de jetons partagés entre instances, dans une table PostgreSQL non journalisée
+ *
+ * Chaque consommation est une seule instruction (INSERT ... ON CONFLICT DO UPDATE ... WHERE) évaluée sur
+ * l'horloge de la base : deux instances ne peuvent pas accorder les mêmes jetons. Si la base est
+ * indisponible, la requête est acceptée (la limite ne doit pas rendre l'API indisponible).
+ */
+@Slf4j
+public class PostgresRateLimitStore implements RateLimitStore {
+
+    private static final String NOW_MICROS = "(extract(epoch from clock_timestamp()) * 1000000)::bigint";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String consumeSql;
+    private final String waitSql;
+
+    public PostgresRateLimitStore(JdbcTemplate jdbcTemplate, String table) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.execute("CREATE UNLOGGED TABLE IF NOT EXISTS " + table
+                + " (bucket_key varchar(255) PRIMARY KEY, tat bigint NOT NULL)");
+        // Paramètres : clé, incrément, incrément, incrément, rafale
+        this.consumeSql = "WITH clock AS (SELECT " + NOW_MICROS + " AS now) "
+                + "INSERT INTO " + table + " AS b (bucket_key, tat) SELECT ?, now + ? FROM clock "
+                + "ON CONFLICT (bucket_key) DO UPDATE "
+                + "SET tat = GREATEST(b.tat, (SELECT now FROM clock)) + ? "
+                + "WHERE GREATEST(b.tat, (SELECT now FROM clock)) + ? - (SELECT now FROM clock) <= ? "
+                + "RETURNING b.tat";
+        // Paramètres : incrément, rafale, clé
+        this.waitSql = "SELECT GREATEST(tat, " + NOW_MICROS + ") + ? - ? - " + NOW_MICROS
+                + " FROM " + table + " WHERE bucket_key = ?";
+    }
+
+    @Override
+    public long tryConsume(String key, int cost, int capacity, double refillPerSecond) {
+        long interval = (long) (1_000_000 / refillPerSecond);
+        long burst = interval * capacity;
+        long increment = interval * cost;
+        try {
+            List<Long> accepted = jdbcTemplate.queryForList(consumeSql, Long.class,
+                    key, increment, increment, increment, burst);
+            if (!accepted.isEmpty()) {
+                return 0;
+            }
+            List<Long> wait = jdbcTemplate.queryForList(waitSql, Long.class, increment, burst, key);
+            return wait.isEmpty() ? 1 : Math.max(1, wait.get(0) / 1000 + 1);
+        } catch (DataAccessException e) {
+            log.warn("Limitation de débit partagée indisponible, requête acceptée : {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.esignature.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Choix du stockage des seaux de jetons : propre à l'instance (par défaut) ou partagé via PostgreSQL
+ * (ratelimit.store=postgres) quand plusieurs instances servent les mêmes clients
+ */
+@Configuration
+@Slf4j
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "ratelimit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore() {
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ratelimit.store", havingValue = "postgres")
+    public RateLimitStore postgresRateLimitStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${ratelimit.table:rate_limit_buckets}") String table
+    ) {
+        log.info("Limitation de débit partagée entre instances (table {})", table);
+        return new PostgresRateLimitStore(jdbcTemplate, table);
+    }
+}
@@ -0,0 +1,207 @@
+package com.esignature.ratelimit;
+
+import com.esignature.security.AuthenticatedClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limitation de débit et quota de traitements simultanés par client
+ *
+ * Le client est le locataire du jeton d'accès, à défaut son sujet, à défaut l'adresse IP. Chaque requête consomme des jetons de son
+ * seau selon son coût (signature, vérification et rendu coûtent plus qu'une lecture) ; les traitements
+ * lourds occupent en plus une place du quota du client jusqu'à la fin de la réponse, même asynchrone.
+ * Le filtre passe après la chaîne Spring Security, l'utilisateur est donc déjà connu.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitStore store;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int capacity;
+    private final double refillPerSecond;
+    private final int maxConcurrentJobs;
+    private final Map<Operation, Integer> costs;
+
+    private final Map<String, Integer> runningJobs = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(
+            RateLimitStore store,
+            MeterRegistry meterRegistry,
+            @Value("${ratelimit.enabled:true}") boolean enabled,
+            @Value("${ratelimit.capacity:200}") int capacity,
+            @Value("${ratelimit.refill-per-second:50}") double refillPerSecond,
+            @Value("${ratelimit.max-concurrent-jobs:8}") int maxConcurrentJobs,
+            @Value("${ratelimit.cost.read:1}") int readCost,
+            @Value("${ratelimit.cost.upload:5}") int uploadCost,
+            @Value("${ratelimit.cost.render:2}") int renderCost,
+            @Value("${ratelimit.cost.verify:5}") int verifyCost,
+            @Value("${ratelimit.cost.sign:10}") int signCost
+    ) {
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxConcurrentJobs = maxConcurrentJobs;
+        this.costs = Map.of(
+                Operation.READ, Math.min(readCost, capacity),
+                Operation.UPLOAD, Math.min(uploadCost, capacity),
+                Operation.RENDER, Math.min(renderCost, capacity),
+                Operation.VERIFY, Math.min(verifyCost, capacity),
+                Operation.SIGN, Math.min(signCost, capacity));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || Operation.of(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Operation operation = Operation.of(request);
+        String client = clientKey(request);
+
+        long waitMs = store.tryConsume(client, costs.get(operation), capacity, refillPerSecond);
+        if (waitMs > 0) {
+            reject(response, operation, "rate", (waitMs + 999) / 1000);
+            return;
+        }
+        if (!operation.heavy) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Compteur par client pris et rendu par opérations atomiques sur l'entrée, retirée à zéro
+        boolean[] admitted = new boolean[1];
+        runningJobs.compute(client, (k, running) -> {
+            int current = running != null ? running : 0;
+            if (current >= maxConcurrentJobs) {
+                return running;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        if (!admitted[0]) {
+            reject(response, operation, "concurrency", 1);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                runningJobs.computeIfPresent(client, (k, running) -> running > 1 ? running - 1 : null);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Réponse asynchrone (cloisons) : la place est rendue quand le traitement se termine
+                request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * Client de la requête : locataire, sinon utilisateur authentifié, sinon adresse IP
+     */
+    private String clientKey(HttpServletRequest request) {
+        AuthenticatedClient client = AuthenticatedClient.current().orElse(null);
+        if (client != null && client.tenant() != null) {
+            return "tenant:" + client.tenant();
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "client:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, Operation operation, String reason, long retryAfterSeconds) {
+        meterRegistry.counter("esignature.ratelimit.rejected",
+                "operation", operation.name().toLowerCase(), "reason", reason).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+    }
+
+    /**
+     * Opérations limitées et leur poids ; les autres chemins (actuator, documentation) ne sont pas limités
+     */
+    enum Operation {
+        READ(false), UPLOAD(false), RENDER(true), VERIFY(true), SIGN(true);
+
+        private final boolean heavy;
+
+        Operation(boolean heavy) {
+            this.heavy = heavy;
+        }
+
+        static Operation of(HttpServletRequest request) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            String method = request.getMethod();
+            if (!path.startsWith("/documents") && !path.startsWith("/signature-images")) {
+                return null;
+            }
+            if ("POST".equals(method) && path.equals("/documents/sign")) {
+                return SIGN;
+            }
+            if (path.startsWith("/documents/") && (path.endsWith("/verify") || path.endsWith("/evidence"))) {
+                return VERIFY;
+            }
+            if (path.contains("/pages/")) {
+                return RENDER;
+            }
+            if (("POST".equals(method) || "PUT".equals(method))
+                    && (path.equals("/documents/upload") || path.startsWith("/documents/uploads")
+                    || path.equals("/documents/imports"))) {
+                return UPLOAD;
+            }
+            return READ;
+        }
+    }
+
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
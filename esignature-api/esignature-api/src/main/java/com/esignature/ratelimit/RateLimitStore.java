@@ -0,0 +1,21 @@
+package com.esignature.ratelimit;
+
+/**
+ * Seaux de jetons par client
+ *
+ * Les seaux suivent l'algorithme GCRA : un seul horodatage par client (instant théorique où le seau
+ * redevient plein), ce qui permet une mise à jour atomique sans verrou, en mémoire comme en base.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Consommer des jetons du seau d'un client
+     *
+     * @param key      client (ou locataire)
+     * @param cost     jetons demandés
+     * @param capacity taille du seau (rafale maximale)
+     * @param refillPerSecond jetons rendus par seconde
+     * @return 0 si la requête est acceptée, sinon le délai en millisecondes avant d'avoir assez de jetons
+     */
+    long tryConsume(String key, int cost, int capacity, double refillPerSecond);
+}
@@ -1,16 +1,53 @@
 package com.esignature.repository;
 
 import com.esignature.model.entity.Document;
+import com.esignature.model.enums.PreflightStatus;
 import com.esignature.model.enums.SignatureStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByUploadedBy(String uploadedBy);
     List<Document> findByStatus(SignatureStatus status);
     List<Document> findByExpiresAtBefore(LocalDateTime dateTime);
+    
+    @Query("select d.id from Document d where d.preflightStatus = :status")
+    List<Long> findIdsByPreflightStatus(PreflightStatus status);
+    
+    @Query("select d.originalFilePath from Document d where d.id = :id")
+    Optional<String> findOriginalFilePathById(Long id);
+    
+    /** Enregistrer le résultat du contrôle sans toucher aux colonnes écrites par la signature */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.preflightStatus = :#{#result.preflightStatus}, "
+            + "d.preflightError = :#{#result.preflightError}, d.preflightAt = :#{#result.preflightAt}, "
+            + "d.mimeType = :#{#result.mimeType}, d.pageCount = :#{#result.pageCount}, "
+            + "d.encrypted = :#{#result.encrypted}, d.linearized = :#{#result.linearized}, "
+            + "d.signatureFieldCount = :#{#result.signatureFieldCount}, "
+            + "d.existingSignatureCount = :#{#result.existingSignatureCount}, "
+            + "d.layoutIndexPath = :#{#result.layoutIndexPath} "
+            + "WHERE d.id = :#{#result.id} AND d.preflightStatus = com.esignature.model.enums.PreflightStatus.PENDING")
+    int recordPreflight(Document result);
+    
+    /** Remplacer l'original par sa version optimisée tant que le document n'a reçu aucune signature */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.originalFilePath = :optimizedPath, d.fileSize = :optimizedSize, "
+            + "d.uploadedFileSize = :uploadedSize WHERE d.id = :id AND d.originalFilePath = :originalPath "
+            + "AND d.signedFilePath IS NULL AND d.status = com.esignature.model.enums.SignatureStatus.PENDING")
+    int swapOptimizedOriginal(Long id, String originalPath, String optimizedPath, Long optimizedSize,
+                              Long uploadedSize);
+    
+    @EntityGraph(attributePaths = "signatures")
+    Optional<Document> findWithSignaturesById(Long id);
 }
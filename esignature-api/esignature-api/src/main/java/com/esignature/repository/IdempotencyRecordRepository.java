@@ -0,0 +1,27 @@
+package com.esignature.repository;
+
+import com.esignature.model.entity.IdempotencyRecord;
+import com.esignature.model.enums.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /** Reprendre une exécution abandonnée (instance arrêtée en cours de traitement) */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now "
+            + "WHERE r.id = :id AND r.status = :status AND r.createdAt < :staleBefore")
+    int takeOver(String id, IdempotencyStatus status, LocalDateTime now, LocalDateTime staleBefore);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
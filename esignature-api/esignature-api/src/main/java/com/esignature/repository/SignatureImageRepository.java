@@ -0,0 +1,12 @@
+package com.esignature.repository;
+
+import com.esignature.model.entity.SignatureImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SignatureImageRepository extends JpaRepository<SignatureImage, Long> {
+    List<SignatureImage> findByOwnerEmail(String ownerEmail);
+}
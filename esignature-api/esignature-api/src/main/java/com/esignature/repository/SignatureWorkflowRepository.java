@@ -1,8 +1,12 @@
 package com.esignature.repository;
 
+import com.esignature.model.dto.WorkflowResponse;
 import com.esignature.model.entity.SignatureWorkflow;
 import com.esignature.model.enums.SignatureStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +18,13 @@ public interface SignatureWorkflowRepository extends JpaRepository<SignatureWork
     Optional<SignatureWorkflow> findBySignatureToken(String token);
     List<SignatureWorkflow> findByDocumentIdAndStatus(Long documentId, SignatureStatus status);
     List<SignatureWorkflow> findBySignerEmailAndStatus(String email, SignatureStatus status);
+    
+    @EntityGraph(attributePaths = "document")
+    Optional<SignatureWorkflow> findWithDocumentById(Long id);
+    
+    @Query("select new com.esignature.model.dto.WorkflowResponse(" +
+           "w.id, w.signerName, w.signerEmail, w.signOrder, w.requiredSignatureType, w.status, " +
+           "w.signedAt, w.expiresAt, w.rejectionReason) " +
+           "from SignatureWorkflow w where w.document.id = :documentId order by w.signOrder")
+    List<WorkflowResponse> findResponsesByDocumentId(@Param("documentId") Long documentId);
 }
@@ -0,0 +1,42 @@
+package com.esignature.repository;
+
+import com.esignature.model.entity.UploadSession;
+import com.esignature.model.enums.UploadSessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByStatusAndExpiresAtBefore(UploadSessionStatus status, LocalDateTime dateTime);
+    
+    /** Réserver l'écriture du morceau commençant à la position reçue, si aucun autre envoi n'est en cours */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.writerToken = :token, s.writerUntil = :until "
+            + "WHERE s.id = :id AND s.receivedBytes = :start "
+            + "AND s.status = com.esignature.model.enums.UploadSessionStatus.OPEN "
+            + "AND (s.writerUntil IS NULL OR s.writerUntil < :now)")
+    int claimWriter(String id, long start, String token, LocalDateTime now, LocalDateTime until);
+    
+    /** Enregistrer la position atteinte et libérer la réservation, si elle est toujours détenue */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :end, s.writerToken = NULL, s.writerUntil = NULL, "
+            + "s.updatedAt = :now, s.expiresAt = :expiresAt "
+            + "WHERE s.id = :id AND s.writerToken = :token AND s.receivedBytes = :start "
+            + "AND s.status = com.esignature.model.enums.UploadSessionStatus.OPEN")
+    int advance(String id, String token, long start, long end, LocalDateTime now, LocalDateTime expiresAt);
+    
+    /** Libérer la réservation sans avancer (écriture disque en échec) */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.writerToken = NULL, s.writerUntil = NULL "
+            + "WHERE s.id = :id AND s.writerToken = :token")
+    int releaseWriter(String id, String token);
+}
@@ -0,0 +1,45 @@
+package com.esignature.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Client authentifié par un jeton d'accès : sujet, locataire et identité du signataire (facultatifs)
+ */
+public record AuthenticatedClient(
+        String subject,
+        String tenant,
+        String name,
+        String email,
+        List<String> roles,
+        Instant expiresAt
+) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+
+    /**
+     * Identité enregistrée comme auteur (dépôts, images) : email s'il est connu, sinon le sujet
+     */
+    public String identity() {
+        return email != null ? email : subject;
+    }
+
+    /**
+     * Client de la requête en cours, vide en accès anonyme
+     */
+    public static Optional<AuthenticatedClient> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedClient client) {
+            return Optional.of(client);
+        }
+        return Optional.empty();
+    }
+}
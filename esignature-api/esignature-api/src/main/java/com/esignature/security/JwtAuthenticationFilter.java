@@ -0,0 +1,66 @@
+package com.esignature.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authentification sans état par jeton d'accès (Authorization: Bearer ...)
+ *
+ * Sans jeton, la requête continue en anonyme et les règles de SecurityConfig décident ; un jeton présent
+ * mais invalide ou expiré est refusé immédiatement (401).
+ *
+ * Le contexte est aussi enregistré dans les attributs de la requête : les redistributions ASYNC (réponses
+ * CompletableFuture des cloisons) et ERROR, que ce filtre ne traite pas une seconde fois, le retrouvent par
+ * SecurityContextHolderFilter au lieu d'être anonymes.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtAuthenticationService jwtAuthenticationService;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedClient client;
+        try {
+            client = jwtAuthenticationService.authenticate(header.substring(BEARER.length()).trim());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.debug("Jeton d'accès refusé : {}", e.getMessage());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                client, null, client.roles().stream().map(role -> new SimpleGrantedAuthority("ROLE_" + role)).toList());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,190 @@
+package com.esignature.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation des jetons d'accès (JWT HS256 ou RS256) sans accès à la base
+ *
+ * Les clés sont lues et préparées une seule fois au démarrage : le secret partagé (jwt.secret) pour HMAC,
+ * la clé publique de l'émetteur (jwt.public-key-location, PEM) pour RSA. Un jeton déjà validé est gardé en
+ * mémoire sous l'empreinte SHA-256 du jeton, au plus jwt.cache.ttl-seconds et jamais au-delà de son
+ * expiration : les requêtes suivantes ne refont ni la vérification cryptographique ni l'analyse JSON.
+ * Les jetons de signature des workflows (même secret, sans sujet) ne sont pas acceptés comme jetons d'accès.
+ */
+@Service
+@Slf4j
+public class JwtAuthenticationService {
+
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLES = "roles";
+
+    private final JwtParser parser;
+    private final String tenantClaim;
+    private final long cacheTtlMillis;
+    private final int cacheMaxEntries;
+    private final Map<String, CachedClient> verified = new ConcurrentHashMap<>();
+
+    public JwtAuthenticationService(
+            ResourceLoader resourceLoader,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.public-key-location:}") String publicKeyLocation,
+            @Value("${jwt.issuer:}") String issuer,
+            @Value("${jwt.tenant-claim:tenant}") String tenantClaim,
+            @Value("${jwt.clock-skew-seconds:30}") long clockSkewSeconds,
+            @Value("${jwt.cache.ttl-seconds:300}") long cacheTtlSeconds,
+            @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries
+    ) throws IOException {
+        SecretKey hmacKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        PublicKey rsaKey = publicKeyLocation.isBlank()
+                ? null : readPublicKey(resourceLoader.getResource(publicKeyLocation));
+
+        JwtParserBuilder builder = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String algorithm = header.getAlgorithm();
+                        if (algorithm != null && algorithm.startsWith("HS")) {
+                            return hmacKey;
+                        }
+                        if (algorithm != null && algorithm.startsWith("RS") && rsaKey != null) {
+                            return rsaKey;
+                        }
+                        throw new UnsupportedJwtException("Algorithme non accepté : " + algorithm);
+                    }
+                })
+                .clockSkewSeconds(clockSkewSeconds);
+        if (!issuer.isBlank()) {
+            builder.requireIssuer(issuer);
+        }
+        this.parser = builder.build();
+        this.tenantClaim = tenantClaim;
+        this.cacheTtlMillis = TimeUnit.SECONDS.toMillis(cacheTtlSeconds);
+        this.cacheMaxEntries = cacheMaxEntries;
+
+        Gauge.builder("esignature.auth.cache.size", verified, Map::size)
+                .description("Jetons d'accès validés gardés en mémoire")
+                .register(meterRegistry);
+        log.info("Jetons d'accès acceptés : HS256{}", rsaKey != null ? ", RS256" : "");
+    }
+
+    /**
+     * Client authentifié par un jeton d'accès
+     *
+     * @throws IllegalArgumentException jeton invalide ou falsifié
+     * @throws IllegalStateException    jeton expiré
+     */
+    public AuthenticatedClient authenticate(String token) {
+        String cacheKey = hash(token);
+        long now = System.currentTimeMillis();
+        CachedClient cached = verified.get(cacheKey);
+        if (cached != null) {
+            if (cached.validUntil() > now) {
+                return cached.client();
+            }
+            verified.remove(cacheKey, cached);
+        }
+
+        AuthenticatedClient client = parse(token);
+        long validUntil = Math.min(now + cacheTtlMillis, client.expiresAt().toEpochMilli());
+        if (verified.size() >= cacheMaxEntries) {
+            evictExpired();
+        }
+        if (verified.size() < cacheMaxEntries) {
+            verified.put(cacheKey, new CachedClient(client, validUntil));
+        }
+        return client;
+    }
+
+    private AuthenticatedClient parse(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (ExpiredJwtException e) {
+            throw new IllegalStateException("Jeton d'accès expiré");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Jeton d'accès invalide");
+        }
+
+        if (claims.getSubject() == null || claims.getSubject().isBlank() || claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Jeton d'accès invalide : sujet et expiration requis");
+        }
+
+        Object roles = claims.get(CLAIM_ROLES);
+        return new AuthenticatedClient(
+                claims.getSubject(),
+                claims.get(tenantClaim, String.class),
+                claims.get(CLAIM_NAME, String.class),
+                claims.get(CLAIM_EMAIL, String.class),
+                roles instanceof List<?> list ? list.stream().map(String::valueOf).toList() : List.of(),
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    /**
+     * Retirer les jetons expirés ou gardés depuis plus de jwt.cache.ttl-seconds
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.cleanup-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(cached -> cached.validUntil() <= now);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PublicKey readPublicKey(Resource resource) throws IOException {
+        String pem = resource.getContentAsString(StandardCharsets.US_ASCII)
+                .replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Clé publique JWT illisible : " + resource, e);
+        }
+    }
+
+    private record CachedClient(AuthenticatedClient client, long validUntil) {
+    }
+}
@@ -0,0 +1,676 @@
+package com.esignature.service;
+
+import com.esignature.config.AsyncConfig;
+import com.esignature.model.dto.BulkImportManifest;
+import com.esignature.model.dto.BulkImportResponse;
+import com.esignature.model.dto.CreateWorkflowRequest;
+import com.esignature.model.dto.WorkflowResponse;
+import com.esignature.model.entity.Document;
+import com.esignature.model.enums.ImportEntryStatus;
+import com.esignature.model.enums.PreflightStatus;
+import com.esignature.model.enums.SignatureStatus;
+import com.esignature.model.enums.SignatureType;
+import com.esignature.repository.DocumentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Import en masse : une archive (ZIP ou tar) de PDF et un manifeste facultatif (auteur, expiration, signataires)
+ *
+ * L'archive est lue directement depuis la requête ; chaque entrée est écrite dans le stockage au fil de l'eau et
+ * hachée pendant la copie. Les documents et leurs workflows sont insérés par lots JDBC (les identifiants générés
+ * empêchent le regroupement des insertions par Hibernate), un lot par transaction, puis chaque document du lot est
+ * contrôlé en parallèle dans un pool dédié pendant la lecture de la suite de l'archive. La réponse donne le
+ * résultat de chaque entrée, une fois tous les contrôles terminés.
+ */
+@Service
+@Slf4j
+public class BulkImportService {
+
+    private static final String PDF_MIME_TYPE = "application/pdf";
+    private static final int MAX_MANIFEST_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private static final String INSERT_DOCUMENT = "INSERT INTO documents (name, original_file_path, mime_type, "
+            + "file_size, uploaded_by, status, created_at, expires_at, preflight_status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_WORKFLOW = "INSERT INTO signature_workflows (document_id, signer_name, "
+            + "signer_email, sign_order, required_signature_type, status, signature_token, notified_at, expires_at, "
+            + "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TOKEN = "UPDATE signature_workflows SET signature_token = ? WHERE id = ?";
+
+    private final StorageService storageService;
+    private final DocumentPreflightService preflightService;
+    private final DocumentRepository documentRepository;
+    private final SignatureTokenService signatureTokenService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TaskExecutor importExecutor;
+    private final MeterRegistry meterRegistry;
+    private final String storageLocation;
+    private final int batchSize;
+    private final int maxEntries;
+    private final long maxEntrySize;
+
+    public BulkImportService(
+            StorageService storageService,
+            DocumentPreflightService preflightService,
+            DocumentRepository documentRepository,
+            SignatureTokenService signatureTokenService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Qualifier(AsyncConfig.IMPORT_EXECUTOR) TaskExecutor importExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${storage.location}") String storageLocation,
+            @Value("${imports.batch-size:500}") int batchSize,
+            @Value("${imports.max-entries:20000}") int maxEntries,
+            @Value("${imports.max-entry-size:52428800}") long maxEntrySize
+    ) {
+        this.storageService = storageService;
+        this.preflightService = preflightService;
+        this.documentRepository = documentRepository;
+        this.signatureTokenService = signatureTokenService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.importExecutor = importExecutor;
+        this.meterRegistry = meterRegistry;
+        this.storageLocation = storageLocation;
+        this.batchSize = batchSize;
+        this.maxEntries = maxEntries;
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Importer une archive ; l'auteur est l'identité du jeton d'accès si elle est connue, sinon celui du
+     * manifeste, sinon uploadedBy. Un manifeste invalide refuse l'import avant tout enregistrement (IAE). Une
+     * archive tronquée ou illisible arrête la lecture : les entrées lues avant sont enregistrées et la réponse
+     * porte l'erreur de l'archive.
+     */
+    public BulkImportResponse importArchive(ImportArchiveReader archive, String identity, String uploadedBy) {
+        long start = System.currentTimeMillis();
+        List<BulkImportResponse.EntryResult> results = new ArrayList<>();
+        List<PendingDocument> batch = new ArrayList<>(batchSize);
+        List<CompletableFuture<Void>> preflights = new ArrayList<>();
+        Map<String, BulkImportManifest.DocumentEntry> specs = new HashMap<>();
+        BulkImportManifest manifest = new BulkImportManifest();
+        String archiveError = null;
+        int files = 0;
+
+        try {
+            ImportArchiveReader.Entry entry;
+            boolean first = true;
+            while ((entry = archive.next()) != null) {
+                String file = normalize(entry.name());
+                if (first && isManifest(file)) {
+                    manifest = readManifest(file, entry.content());
+                    for (BulkImportManifest.DocumentEntry spec : manifest.getDocuments()) {
+                        specs.put(normalize(spec.getFile()), spec);
+                    }
+                    first = false;
+                    continue;
+                }
+                first = false;
+
+                if (isManifest(file)) {
+                    results.add(skipped(file, "Le manifeste doit être la première entrée de l'archive"));
+                    continue;
+                }
+                if (file.isEmpty() || baseName(file).startsWith(".") || file.startsWith("__MACOSX/")) {
+                    continue;
+                }
+                if (!file.toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                    results.add(skipped(file, "Seuls les fichiers PDF sont importés"));
+                    continue;
+                }
+                if (++files > maxEntries) {
+                    results.add(skipped(file, "Limite de " + maxEntries + " fichiers par import atteinte"));
+                    continue;
+                }
+
+                BulkImportManifest.DocumentEntry spec = specs.remove(file);
+                PendingDocument pending = store(file, entry.content(), spec, manifest, identity, uploadedBy);
+                results.add(pending.result());
+                if (pending.result().getStatus() == ImportEntryStatus.FAILED) {
+                    continue;
+                }
+                batch.add(pending);
+                if (batch.size() >= batchSize) {
+                    flush(batch, preflights);
+                }
+            }
+        } catch (IOException e) {
+            archiveError = truncate("Archive tronquée ou illisible : " + e.getMessage());
+            log.warn("Import interrompu après {} entrée(s) : {}", results.size(), e.getMessage());
+        } catch (RuntimeException e) {
+            // Rien n'est renvoyé : fichiers du lot en attente supprimés, contrôles déjà lancés menés à terme
+            batch.forEach(pending -> deleteQuietly(Path.of(pending.filePath())));
+            awaitPreflights(preflights);
+            throw e;
+        }
+        // Entrées complètes lues avant une éventuelle erreur de l'archive
+        flush(batch, preflights);
+
+        // Fichiers annoncés par le manifeste mais absents de l'archive (inconnu si la lecture s'est arrêtée)
+        if (archiveError == null) {
+            specs.keySet().forEach(file -> results.add(failed(file, "Fichier absent de l'archive")));
+        }
+
+        awaitPreflights(preflights);
+        applyPreflightResults(results);
+        BulkImportResponse response = summarize(results, start);
+        response.setError(archiveError);
+        return response;
+    }
+
+    /**
+     * Écrire l'entrée dans le stockage en calculant son empreinte
+     */
+    private PendingDocument store(String file, InputStream content, BulkImportManifest.DocumentEntry spec,
+                                  BulkImportManifest manifest, String identity, String uploadedBy) {
+        BulkImportResponse.EntryResult result = BulkImportResponse.EntryResult.builder().file(file).build();
+        String name = spec != null && spec.getName() != null ? spec.getName() : baseName(file);
+        String author = identity != null ? identity
+                : spec != null && spec.getUploadedBy() != null ? spec.getUploadedBy()
+                : manifest.getUploadedBy() != null ? manifest.getUploadedBy() : uploadedBy;
+        Integer expirationDays = spec != null && spec.getExpirationDays() != null
+                ? spec.getExpirationDays() : manifest.getExpirationDays();
+
+        MessageDigest sha256 = sha256();
+        LimitedInputStream limited = new LimitedInputStream(new DigestInputStream(content, sha256), maxEntrySize);
+        Path filePath = null;
+        try {
+            filePath = storageService.write(storageLocation, UUID.randomUUID() + "_" + safeName(baseName(file)),
+                    limited);
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            if (spec != null && spec.getSha256() != null && !spec.getSha256().equalsIgnoreCase(digest)) {
+                throw new IllegalArgumentException("Empreinte SHA-256 différente de celle du manifeste");
+            }
+            result.setSize(limited.count);
+            result.setSha256(digest);
+            result.setStatus(ImportEntryStatus.IMPORTED);
+        } catch (IllegalArgumentException | IOException e) {
+            deleteQuietly(filePath);
+            filePath = null;
+            result.setStatus(ImportEntryStatus.FAILED);
+            result.setError(truncate(e.getMessage()));
+            log.warn("Entrée {} non importée : {}", file, e.getMessage());
+        }
+        return new PendingDocument(result, filePath != null ? filePath.toString() : null, name, author,
+                expirationDays != null ? LocalDateTime.now().plusDays(expirationDays) : null,
+                spec != null ? spec.getSigners() : List.of());
+    }
+
+    /**
+     * Insérer le lot (documents puis workflows) dans une transaction, puis lancer les contrôles en parallèle
+     */
+    private void flush(List<PendingDocument> batch, List<CompletableFuture<Void>> preflights) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertDocuments(batch);
+                insertWorkflows(batch);
+            });
+        } catch (RuntimeException e) {
+            log.error("Enregistrement d'un lot de {} document(s) importé(s) impossible", batch.size(), e);
+            for (PendingDocument pending : batch) {
+                deleteQuietly(Path.of(pending.filePath()));
+                pending.result().setDocumentId(null);
+                pending.result().setWorkflows(null);
+                pending.result().setStatus(ImportEntryStatus.FAILED);
+                pending.result().setError("Enregistrement impossible");
+            }
+            batch.clear();
+            return;
+        }
+
+        for (PendingDocument pending : batch) {
+            Long documentId = pending.result().getDocumentId();
+            preflights.add(CompletableFuture.runAsync(() -> preflightService.preflight(documentId), importExecutor)
+                    .exceptionally(error -> {
+                        log.error("Contrôle du document importé {} impossible", documentId, error);
+                        return null;
+                    }));
+        }
+        log.info("Lot de {} document(s) importé(s)", batch.size());
+        batch.clear();
+    }
+
+    private void insertDocuments(List<PendingDocument> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_DOCUMENT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingDocument pending = batch.get(i);
+                        ps.setString(1, pending.name());
+                        ps.setString(2, pending.filePath());
+                        ps.setString(3, PDF_MIME_TYPE);
+                        ps.setLong(4, pending.result().getSize());
+                        ps.setString(5, pending.author());
+                        ps.setString(6, SignatureStatus.PENDING.name());
+                        ps.setTimestamp(7, now);
+                        setTimestamp(ps, 8, pending.expiresAt());
+                        ps.setString(9, PreflightStatus.PENDING.name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().setDocumentId(generatedId(generated.get(i)));
+        }
+    }
+
+    /**
+     * Workflows des documents du lot : insertion avec un jeton provisoire, puis jetons signés une fois les
+     * identifiants connus (comme à la création d'un workflow unitaire)
+     */
+    private void insertWorkflows(List<PendingDocument> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingWorkflow> workflows = new ArrayList<>();
+        for (PendingDocument pending : batch) {
+            pending.result().setWorkflows(new ArrayList<>());
+            for (CreateWorkflowRequest.WorkflowSignerDto signer : pending.signers()) {
+                workflows.add(new PendingWorkflow(pending, signer, UUID.randomUUID().toString()));
+            }
+        }
+        if (workflows.isEmpty()) {
+            return;
+        }
+
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_WORKFLOW, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingWorkflow workflow = workflows.get(i);
+                        ps.setLong(1, workflow.document().result().getDocumentId());
+                        ps.setString(2, workflow.signer().getName());
+                        ps.setString(3, workflow.signer().getEmail());
+                        ps.setInt(4, workflow.signer().getSignOrder());
+                        ps.setString(5, workflow.signer().getRequiredSignatureType().name());
+                        ps.setString(6, SignatureStatus.PENDING.name());
+                        ps.setString(7, workflow.provisionalToken());
+                        setTimestamp(ps, 8, workflow.signer().getSignOrder() == 1 ? now : null);
+                        setTimestamp(ps, 9, workflow.document().expiresAt());
+                        ps.setTimestamp(10, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return workflows.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<Object[]> tokens = new ArrayList<>(workflows.size());
+        for (int i = 0; i < workflows.size(); i++) {
+            PendingWorkflow workflow = workflows.get(i);
+            Long workflowId = generatedId(generated.get(i));
+            String token = signatureTokenService.generateToken(workflow.document().result().getDocumentId(),
+                    workflowId, workflow.signer().getSignOrder(), workflow.document().expiresAt());
+            tokens.add(new Object[]{token, workflowId});
+            workflow.document().result().getWorkflows().add(WorkflowResponse.builder()
+                    .id(workflowId)
+                    .signerName(workflow.signer().getName())
+                    .signerEmail(workflow.signer().getEmail())
+                    .signOrder(workflow.signer().getSignOrder())
+                    .requiredSignatureType(workflow.signer().getRequiredSignatureType())
+                    .status(SignatureStatus.PENDING)
+                    .expiresAt(workflow.document().expiresAt())
+                    .signatureToken(token)
+                    .build());
+        }
+        jdbcTemplate.batchUpdate(UPDATE_TOKEN, tokens, new int[]{Types.VARCHAR, Types.BIGINT});
+    }
+
+    private static void awaitPreflights(List<CompletableFuture<Void>> preflights) {
+        CompletableFuture.allOf(preflights.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Statut de contrôle de chaque document créé, relu par lots une fois tous les contrôles terminés
+     */
+    private void applyPreflightResults(List<BulkImportResponse.EntryResult> results) {
+        Map<Long, BulkImportResponse.EntryResult> byDocument = new LinkedHashMap<>();
+        for (BulkImportResponse.EntryResult result : results) {
+            if (result.getDocumentId() != null) {
+                byDocument.put(result.getDocumentId(), result);
+            }
+        }
+        List<Long> ids = new ArrayList<>(byDocument.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            for (Document document : documentRepository.findAllById(
+                    ids.subList(from, Math.min(ids.size(), from + batchSize)))) {
+                BulkImportResponse.EntryResult result = byDocument.get(document.getId());
+                result.setPreflightStatus(document.getPreflightStatus());
+                result.setPageCount(document.getPageCount());
+                if (document.getPreflightStatus() == PreflightStatus.REJECTED) {
+                    result.setStatus(ImportEntryStatus.REJECTED);
+                    result.setError(document.getPreflightError());
+                }
+            }
+        }
+    }
+
+    private BulkImportResponse summarize(List<BulkImportResponse.EntryResult> results, long start) {
+        Map<ImportEntryStatus, Integer> counts = new HashMap<>();
+        int workflows = 0;
+        for (BulkImportResponse.EntryResult result : results) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+            workflows += result.getWorkflows() != null ? result.getWorkflows().size() : 0;
+        }
+        counts.forEach((status, count) -> meterRegistry.counter("esignature.import.entries",
+                "status", status.name().toLowerCase(Locale.ROOT)).increment(count));
+
+        BulkImportResponse response = BulkImportResponse.builder()
+                .total(results.size())
+                .imported(counts.getOrDefault(ImportEntryStatus.IMPORTED, 0))
+                .rejected(counts.getOrDefault(ImportEntryStatus.REJECTED, 0))
+                .failed(counts.getOrDefault(ImportEntryStatus.FAILED, 0))
+                .skipped(counts.getOrDefault(ImportEntryStatus.SKIPPED, 0))
+                .workflows(workflows)
+                .durationMs(System.currentTimeMillis() - start)
+                .entries(results)
+                .build();
+        log.info("Import en masse : {} entrée(s), {} importée(s), {} refusée(s), {} en échec, {} workflow(s) en {} ms",
+                response.getTotal(), response.getImported(), response.getRejected(), response.getFailed(),
+                response.getWorkflows(), response.getDurationMs());
+        return response;
+    }
+
+    /**
+     * Manifeste JSON ({@link BulkImportManifest}) ou CSV : en-tête puis une ligne par signataire (colonnes
+     * file, name, uploadedBy, sha256, expirationDays, signerName, signerEmail, signOrder, signatureType)
+     */
+    private BulkImportManifest readManifest(String file, InputStream content) throws IOException {
+        byte[] bytes = content.readNBytes(MAX_MANIFEST_BYTES + 1);
+        if (bytes.length > MAX_MANIFEST_BYTES) {
+            throw new IllegalArgumentException("Manifeste trop volumineux");
+        }
+
+        BulkImportManifest manifest;
+        if (file.toLowerCase(Locale.ROOT).endsWith(".json")) {
+            try {
+                manifest = objectMapper.readValue(bytes, BulkImportManifest.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Manifeste JSON invalide : " + e.getOriginalMessage());
+            }
+        } else {
+            manifest = parseCsv(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        for (BulkImportManifest.DocumentEntry spec : manifest.getDocuments()) {
+            if (spec.getFile() == null || spec.getFile().isBlank()) {
+                throw new IllegalArgumentException("Manifeste : fichier non renseigné");
+            }
+            for (CreateWorkflowRequest.WorkflowSignerDto signer : spec.getSigners()) {
+                Set<ConstraintViolation<CreateWorkflowRequest.WorkflowSignerDto>> violations =
+                        validator.validate(signer);
+                if (!violations.isEmpty()) {
+                    throw new IllegalArgumentException("Manifeste, " + spec.getFile() + " : "
+                            + violations.iterator().next().getMessage());
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private BulkImportManifest parseCsv(String csv) {
+        String[] lines = csv.split("\r?\n");
+        if (lines.length == 0 || lines[0].isBlank()) {
+            throw new IllegalArgumentException("Manifeste CSV vide");
+        }
+        List<String> header = parseCsvLine(lines[0].replace("\uFEFF", ""));
+        Map<String, BulkImportManifest.DocumentEntry> documents = new LinkedHashMap<>();
+        for (int line = 1; line < lines.length; line++) {
+            if (lines[line].isBlank()) {
+                continue;
+            }
+            List<String> values = parseCsvLine(lines[line]);
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                if (!values.get(i).isBlank()) {
+                    row.put(header.get(i).trim().toLowerCase(Locale.ROOT), values.get(i).trim());
+                }
+            }
+
+            String file = row.get("file");
+            if (file == null) {
+                throw new IllegalArgumentException("Manifeste CSV, ligne " + (line + 1) + " : fichier non renseigné");
+            }
+            BulkImportManifest.DocumentEntry spec = documents.computeIfAbsent(file,
+                    key -> BulkImportManifest.DocumentEntry.builder().file(key).build());
+            spec.setName(row.getOrDefault("name", spec.getName()));
+            spec.setUploadedBy(row.getOrDefault("uploadedby", spec.getUploadedBy()));
+            spec.setSha256(row.getOrDefault("sha256", spec.getSha256()));
+            try {
+                if (row.containsKey("expirationdays")) {
+                    spec.setExpirationDays(Integer.parseInt(row.get("expirationdays")));
+                }
+                if (row.containsKey("signeremail")) {
+                    spec.getSigners().add(CreateWorkflowRequest.WorkflowSignerDto.builder()
+                            .name(row.get("signername"))
+                            .email(row.get("signeremail"))
+                            .signOrder(row.containsKey("signorder") ? Integer.parseInt(row.get("signorder")) : 1)
+                            .requiredSignatureType(SignatureType.valueOf(
+                                    row.getOrDefault("signaturetype", SignatureType.SIMPLE.name())
+                                            .toUpperCase(Locale.ROOT)))
+                            .build());
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Manifeste CSV, ligne " + (line + 1) + " : valeur invalide");
+            }
+        }
+        return BulkImportManifest.builder().documents(new ArrayList<>(documents.values())).build();
+    }
+
+    /**
+     * Ligne CSV (séparateur virgule ou point-virgule, valeurs entre guillemets possibles)
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',' || c == ';') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static boolean isManifest(String file) {
+        return file.equalsIgnoreCase("manifest.json") || file.equalsIgnoreCase("manifest.csv");
+    }
+
+    private static String normalize(String name) {
+        String normalized = name.replace('\\', '/');
+        while (normalized.startsWith("./") || normalized.startsWith("/")) {
+            normalized = normalized.substring(normalized.startsWith("./") ? 2 : 1);
+        }
+        return normalized;
+    }
+
+    private static String baseName(String file) {
+        return file.substring(file.lastIndexOf('/') + 1);
+    }
+
+    private static String safeName(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_");
+    }
+
+    private static Long generatedId(Map<String, Object> keys) {
+        return ((Number) keys.values().iterator().next()).longValue();
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private static BulkImportResponse.EntryResult skipped(String file, String reason) {
+        return BulkImportResponse.EntryResult.builder()
+                .file(file)
+                .status(ImportEntryStatus.SKIPPED)
+                .error(reason)
+                .build();
+    }
+
+    private static BulkImportResponse.EntryResult failed(String file, String reason) {
+        return BulkImportResponse.EntryResult.builder()
+                .file(file)
+                .status(ImportEntryStatus.FAILED)
+                .error(reason)
+                .build();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private void deleteQuietly(Path filePath) {
+        if (filePath == null) {
+            return;
+        }
+        try {
+            storageService.delete(filePath.toString());
+        } catch (IOException e) {
+            log.warn("Suppression de {} impossible : {}", filePath, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Document enregistré dans le stockage, en attente d'insertion
+     */
+    private record PendingDocument(BulkImportResponse.EntryResult result, String filePath, String name, String author,
+                                   LocalDateTime expiresAt, List<CreateWorkflowRequest.WorkflowSignerDto> signers) {
+    }
+
+    private record PendingWorkflow(PendingDocument document, CreateWorkflowRequest.WorkflowSignerDto signer,
+                                   String provisionalToken) {
+    }
+
+    /**
+     * Flux d'une entrée : compte les octets lus et refuse l'entrée au-delà de la taille maximale
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // L'entrée appartient à l'archive
+        }
+
+        private void add(long read) {
+            count += read;
+            if (count > limit) {
+                throw new IllegalArgumentException("Fichier supérieur à " + limit + " octets");
+            }
+        }
+    }
+}
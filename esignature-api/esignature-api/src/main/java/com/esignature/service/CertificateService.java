@@ -6,7 +6,9 @@ import org.springframework.stereotype.Service;
 import java.io.ByteArrayInputStream;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
+import java.util.Base64;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -53,6 +55,20 @@ public class CertificateService {
         return info;
     }
     
+    /**
+     * Chaîne de certificats au format PEM (certificat du signataire en premier)
+     */
+    public String toPem(Certificate[] chain) throws CertificateEncodingException {
+        StringBuilder pem = new StringBuilder();
+        Base64.Encoder encoder = Base64.getMimeEncoder(64, new byte[]{'\n'});
+        for (Certificate certificate : chain) {
+            pem.append("-----BEGIN CERTIFICATE-----\n")
+                    .append(encoder.encodeToString(certificate.getEncoded()))
+                    .append("\n-----END CERTIFICATE-----\n");
+        }
+        return pem.toString();
+    }
+    
     /**
      * Valider un certificat
      */
@@ -0,0 +1,164 @@
+package com.esignature.service;
+
+import com.esignature.event.DocumentChangedEvent;
+import com.esignature.model.dto.DocumentResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache LRU borné des métadonnées de documents (GET /documents/{id})
+ *
+ * Toute invalidation passe par {@link DocumentChangedEvent} et n'est appliquée qu'après le commit de l'écriture.
+ * Un lecteur prend un jeton ({@link #stamp()}) avant de lire la base : sa valeur est refusée si le document a été
+ * invalidé depuis, ce qui empêche une lecture lente de réinstaller une version antérieure au commit. Les entrées
+ * expirent après cache.documents.ttl-seconds, filet de sécurité si une invalidation d'une autre instance est
+ * perdue. Le cache garde une copie de la réponse et renvoie une copie à chaque lecture. Les autres instances sont
+ * prévenues via {@link PostgresCacheInvalidationListener}.
+ */
+@Component
+@Slf4j
+public class DocumentCache {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final LongSupplier clock;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<Long, Entry> entries;
+    // Dernière invalidation de chaque document (bornée comme le cache)
+    private final Map<Long, Long> invalidations;
+    private long sequence;
+    // Plus récente invalidation oubliée par la table ci-dessus
+    private long forgottenInvalidation;
+
+    @Autowired
+    public DocumentCache(
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry registry,
+            @Value("${cache.documents.max-size:10000}") int maxSize,
+            @Value("${cache.documents.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this(eventPublisher, registry, maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    DocumentCache(ApplicationEventPublisher eventPublisher, MeterRegistry registry, int maxSize, long ttlSeconds,
+                  LongSupplier clock) {
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > DocumentCache.this.maxSize;
+            }
+        };
+        this.invalidations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > DocumentCache.this.maxSize) {
+                    forgottenInvalidation = Math.max(forgottenInvalidation, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("esignature.cache.documents.size", this, DocumentCache::size)
+                .description("Entrées du cache des métadonnées de documents")
+                .register(registry);
+    }
+
+    public synchronized DocumentResponse get(Long documentId) {
+        Entry entry = entries.get(documentId);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt() > ttlNanos) {
+            entries.remove(documentId);
+            return null;
+        }
+        return copy(entry.response());
+    }
+
+    /**
+     * Jeton à prendre avant de lire le document en base, à passer à {@link #put}
+     */
+    public synchronized long stamp() {
+        return sequence;
+    }
+
+    /**
+     * Mettre en cache une valeur lue en base après stamp ; ignorée si le document a été invalidé depuis
+     */
+    public synchronized boolean put(Long documentId, DocumentResponse response, long stamp) {
+        long lastInvalidation = invalidations.getOrDefault(documentId, forgottenInvalidation);
+        if (lastInvalidation > stamp) {
+            log.debug("Valeur obsolète du document {} non mise en cache", documentId);
+            return false;
+        }
+        entries.put(documentId, new Entry(copy(response), clock.getAsLong()));
+        return true;
+    }
+
+    /**
+     * Signaler un document modifié : l'entrée est retirée après commit, sur ce nœud et sur le reste du cluster
+     */
+    public void invalidate(Long documentId) {
+        eventPublisher.publishEvent(DocumentChangedEvent.local(documentId));
+    }
+
+    /**
+     * Retirer l'entrée de ce nœud uniquement
+     */
+    public synchronized void evict(Long documentId) {
+        entries.remove(documentId);
+        invalidations.put(documentId, ++sequence);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        evict(event.documentId());
+    }
+
+    private static DocumentResponse copy(DocumentResponse response) {
+        return DocumentResponse.builder()
+                .id(response.getId())
+                .name(response.getName())
+                .mimeType(response.getMimeType())
+                .fileSize(response.getFileSize())
+                .uploadedBy(response.getUploadedBy())
+                .status(response.getStatus())
+                .createdAt(response.getCreatedAt())
+                .signedAt(response.getSignedAt())
+                .expiresAt(response.getExpiresAt())
+                .preflightStatus(response.getPreflightStatus())
+                .preflightError(response.getPreflightError())
+                .pageCount(response.getPageCount())
+                .signatures(response.getSignatures() != null ? List.copyOf(response.getSignatures()) : null)
+                .workflows(response.getWorkflows() != null ? List.copyOf(response.getWorkflows()) : null)
+                .downloadUrl(response.getDownloadUrl())
+                .build();
+    }
+
+    private record Entry(DocumentResponse response, long storedAt) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.esignature.service;
+
+import com.esignature.event.DocumentChangedEvent;
+import com.esignature.model.dto.DocumentResponse;
+import com.esignature.model.enums.SignatureStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diffusion des changements de statut des documents (SSE et long-polling)
+ *
+ * Les abonnés sont des requêtes asynchrones Servlet : un abonné inactif ne tient ni thread
+ * ni connexion base. Un changement entraîne une seule lecture (via le cache) quel que soit
+ * le nombre d'abonnés.
+ */
+@Service
+@Slf4j
+public class DocumentEventService {
+    
+    private static final String STATUS_EVENT = "status";
+    
+    private final DocumentService documentService;
+    private final long sseTimeoutMillis;
+    private final long maxPollTimeoutMillis;
+    
+    private final Map<Long, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Map<Long, Set<DeferredResult<ResponseEntity<DocumentResponse>>>> pollers = new ConcurrentHashMap<>();
+    
+    public DocumentEventService(
+            DocumentService documentService,
+            MeterRegistry registry,
+            @Value("${events.sse.timeout-ms:1800000}") long sseTimeoutMillis,
+            @Value("${events.poll.max-timeout-ms:60000}") long maxPollTimeoutMillis
+    ) {
+        this.documentService = documentService;
+        this.sseTimeoutMillis = sseTimeoutMillis;
+        this.maxPollTimeoutMillis = maxPollTimeoutMillis;
+        Gauge.builder("esignature.events.subscribers", this, DocumentEventService::subscriberCount)
+                .description("Abonnés SSE et long-polling en attente")
+                .register(registry);
+    }
+    
+    /**
+     * S'abonner au flux SSE d'un document ; l'état courant est envoyé immédiatement. L'abonnement est enregistré
+     * avant la lecture de l'état : un changement publié entre les deux est envoyé par {@link #onDocumentChanged},
+     * jamais avant l'état initial (envois synchronisés sur l'emitter)
+     */
+    public SseEmitter subscribe(Long documentId) throws IOException {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        Set<SseEmitter> documentEmitters = emitters.computeIfAbsent(documentId, id -> ConcurrentHashMap.newKeySet());
+        documentEmitters.add(emitter);
+        
+        Runnable remove = () -> removeEmitter(documentId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        
+        synchronized (emitter) {
+            try {
+                DocumentResponse current = documentService.getDocument(documentId);
+                emitter.send(SseEmitter.event().name(STATUS_EVENT).data(current));
+            } catch (IOException | RuntimeException e) {
+                remove.run();
+                throw e;
+            }
+        }
+        return emitter;
+    }
+    
+    /**
+     * Long-polling : répond dès que le statut diffère de celui connu du client,
+     * sinon attend un changement ou l'expiration du délai (304)
+     */
+    public DeferredResult<ResponseEntity<DocumentResponse>> poll(
+            Long documentId, SignatureStatus knownStatus, long timeoutMillis) {
+        
+        long timeout = Math.min(Math.max(timeoutMillis, 0), maxPollTimeoutMillis);
+        DeferredResult<ResponseEntity<DocumentResponse>> result =
+                new DeferredResult<>(timeout, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        
+        DocumentResponse current = documentService.getDocument(documentId);
+        if (knownStatus == null || current.getStatus() != knownStatus) {
+            result.setResult(ResponseEntity.ok(current));
+            return result;
+        }
+        
+        Set<DeferredResult<ResponseEntity<DocumentResponse>>> documentPollers =
+                pollers.computeIfAbsent(documentId, id -> ConcurrentHashMap.newKeySet());
+        documentPollers.add(result);
+        result.onCompletion(() -> removePoller(documentId, result));
+        
+        // Le changement a pu survenir entre la lecture et l'enregistrement
+        DocumentResponse recheck = documentService.getDocument(documentId);
+        if (recheck.getStatus() != knownStatus) {
+            result.setResult(ResponseEntity.ok(recheck));
+        }
+        return result;
+    }
+    
+    /**
+     * Pousser le nouvel état aux abonnés, après le commit et l'invalidation du cache
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        Long documentId = event.documentId();
+        Set<SseEmitter> documentEmitters = emitters.get(documentId);
+        Set<DeferredResult<ResponseEntity<DocumentResponse>>> documentPollers = pollers.remove(documentId);
+        
+        if ((documentEmitters == null || documentEmitters.isEmpty()) && documentPollers == null) {
+            return;
+        }
+        
+        DocumentResponse current;
+        try {
+            current = documentService.getDocument(documentId);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        
+        if (documentPollers != null) {
+            documentPollers.forEach(result -> result.setResult(ResponseEntity.ok(current)));
+        }
+        
+        if (documentEmitters != null) {
+            for (SseEmitter emitter : documentEmitters) {
+                try {
+                    synchronized (emitter) {
+                        emitter.send(SseEmitter.event().name(STATUS_EVENT).data(current));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    removeEmitter(documentId, emitter);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Commentaire périodique pour détecter les clients déconnectés et traverser les proxys
+     */
+    @Scheduled(fixedDelayString = "${events.sse.heartbeat-ms:30000}")
+    public void heartbeat() {
+        emitters.forEach((documentId, documentEmitters) -> {
+            for (SseEmitter emitter : documentEmitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    removeEmitter(documentId, emitter);
+                }
+            }
+        });
+    }
+    
+    public int subscriberCount() {
+        return emitters.values().stream().mapToInt(Set::size).sum()
+                + pollers.values().stream().mapToInt(Set::size).sum();
+    }
+    
+    private void removeEmitter(Long documentId, SseEmitter emitter) {
+        emitters.computeIfPresent(documentId, (id, set) -> {
+            set.remove(emitter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    private void removePoller(Long documentId, DeferredResult<ResponseEntity<DocumentResponse>> result) {
+        pollers.computeIfPresent(documentId, (id, set) -> {
+            set.remove(result);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,262 @@
+package com.esignature.service;
+
+import com.esignature.config.AsyncConfig;
+import com.esignature.event.DocumentUploadedEvent;
+import com.esignature.model.entity.Document;
+import com.esignature.model.enums.PreflightStatus;
+import com.esignature.repository.DocumentRepository;
+import com.esignature.tracing.DocumentTracing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrôle des documents déposés, en arrière-plan après le commit du dépôt
+ *
+ * Le fichier est validé (en-tête, chargement, nombre de pages) puis ses métadonnées structurelles sont
+ * enregistrées sur le document : pages, champs et signatures existants, chiffrement, linéarisation. Le même
+ * chargement produit l'index de positions (boîtes des pages, champs, texte), réutilisé à la signature, et,
+ * si elle est activée, l'optimisation de l'original ({@link PdfOptimizer}) avant toute signature. Le PDF est
+ * lu à la demande depuis le fichier (jamais chargé en entier en mémoire) ; l'optimisation, qui réécrit le
+ * fichier en mémoire, est limitée aux fichiers de moins de preflight.optimize-max-bytes. Un fichier refusé
+ * l'est dès ce contrôle, et non au moment de la signature : y compris un PDF que l'analyse ne peut pas charger,
+ * qui sinon resterait en attente et serait recontrôlé à chaque démarrage.
+ *
+ * Le contrôle travaille sur une copie détachée du document et n'enregistre que ses propres colonnes
+ * ({@link DocumentRepository#recordPreflight}) : une signature enregistrée pendant l'analyse est conservée.
+ * Un document encore en attente de contrôle peut être signé : la signature charge elle-même le PDF et échoue
+ * s'il est illisible ; seul un document refusé est bloqué.
+ */
+@Service
+@Slf4j
+public class DocumentPreflightService {
+    
+    private static final String PDF_MIME_TYPE = "application/pdf";
+    private static final int HEADER_WINDOW = 1024;
+    private static final int MAX_ERROR_LENGTH = 255;
+    
+    private final DocumentRepository documentRepository;
+    private final StorageService storageService;
+    private final PageLayoutIndexService pageLayoutIndexService;
+    private final DocumentCache documentCache;
+    private final DocumentTracing documentTracing;
+    private final DocumentPreflightService self;
+    private final MeterRegistry meterRegistry;
+    private final int maxPages;
+    private final boolean optimize;
+    private final long optimizeMaxBytes;
+    
+    public DocumentPreflightService(
+            DocumentRepository documentRepository,
+            StorageService storageService,
+            PageLayoutIndexService pageLayoutIndexService,
+            DocumentCache documentCache,
+            DocumentTracing documentTracing,
+            @Lazy DocumentPreflightService self,
+            MeterRegistry meterRegistry,
+            @Value("${preflight.max-pages:5000}") int maxPages,
+            @Value("${preflight.optimize:false}") boolean optimize,
+            @Value("${preflight.optimize-max-bytes:67108864}") long optimizeMaxBytes
+    ) {
+        this.documentRepository = documentRepository;
+        this.storageService = storageService;
+        this.pageLayoutIndexService = pageLayoutIndexService;
+        this.documentCache = documentCache;
+        this.documentTracing = documentTracing;
+        this.self = self;
+        this.meterRegistry = meterRegistry;
+        this.maxPages = maxPages;
+        this.optimize = optimize;
+        this.optimizeMaxBytes = optimizeMaxBytes;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Async(AsyncConfig.PREFLIGHT_EXECUTOR)
+    public void onDocumentUploaded(DocumentUploadedEvent event) {
+        preflight(event.documentId());
+    }
+    
+    /**
+     * Reprendre les contrôles interrompus par un arrêt de l'application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingPreflights() {
+        List<Long> pending = documentRepository.findIdsByPreflightStatus(PreflightStatus.PENDING);
+        if (!pending.isEmpty()) {
+            log.info("Reprise du contrôle de {} document(s) en attente", pending.size());
+            pending.forEach(documentId -> self.onDocumentUploaded(new DocumentUploadedEvent(documentId)));
+        }
+    }
+    
+    /**
+     * Contrôler un document et enregistrer le résultat
+     */
+    public void preflight(Long documentId) {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || document.getPreflightStatus() != PreflightStatus.PENDING) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try (DocumentTracing.Scope ignored = documentTracing.open(documentId)) {
+            try {
+                inspect(document);
+                document.setPreflightStatus(PreflightStatus.VALID);
+                log.info("Document {} contrôlé : {} pages, {} champ(s) de signature, chiffré={}, linéarisé={}",
+                        documentId, document.getPageCount(), document.getSignatureFieldCount(),
+                        document.getEncrypted(), document.getLinearized());
+            } catch (IllegalArgumentException e) {
+                reject(document, e.getMessage());
+            } catch (OutOfMemoryError e) {
+                reject(document, "PDF trop volumineux pour être analysé");
+            } catch (IOException e) {
+                // Erreur de stockage : le document reste en attente et sera recontrôlé au prochain démarrage
+                log.error("Contrôle du document {} impossible", documentId, e);
+                return;
+            }
+            
+            document.setPreflightAt(LocalDateTime.now());
+            if (documentRepository.recordPreflight(document) == 0) {
+                log.debug("Contrôle du document {} déjà enregistré", documentId);
+                return;
+            }
+            documentCache.invalidate(documentId);
+        } finally {
+            Timer.builder("esignature.preflight.duration")
+                    .description("Durée du contrôle des documents déposés")
+                    .tag("outcome", String.valueOf(document.getPreflightStatus()).toLowerCase())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private void reject(Document document, String error) {
+        document.setPreflightStatus(PreflightStatus.REJECTED);
+        document.setPreflightError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        log.warn("Document {} refusé au contrôle : {}", document.getId(), error);
+    }
+    
+    private void inspect(Document document) throws IOException {
+        String filePath = document.getOriginalFilePath();
+        byte[] header;
+        try (InputStream in = storageService.openStream(filePath)) {
+            header = in.readNBytes(HEADER_WINDOW);
+        }
+        if (!headerContains(header, "%PDF-")) {
+            throw new IllegalArgumentException("Le fichier n'est pas un PDF");
+        }
+        long fileSize = storageService.attributes(filePath).size();
+        
+        // Le fichier est lu à la demande : seuls les objets parcourus par l'analyse sont chargés
+        RandomAccessRead source = storageService.openRandomAccess(filePath);
+        PDDocument pdf;
+        try {
+            pdf = Loader.loadPDF(source);
+        } catch (InvalidPasswordException e) {
+            source.close();
+            throw new IllegalArgumentException("PDF protégé par mot de passe");
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw new IllegalArgumentException("PDF illisible : " + e.getMessage());
+        }
+        
+        try (pdf) {
+            int pageCount = pdf.getNumberOfPages();
+            if (pageCount == 0) {
+                throw new IllegalArgumentException("PDF sans page");
+            }
+            if (pageCount > maxPages) {
+                throw new IllegalArgumentException(
+                        "PDF trop volumineux (" + pageCount + " pages, max " + maxPages + ")");
+            }
+            
+            // Le type est déduit du contenu et non plus de l'en-tête envoyé par le client
+            document.setMimeType(PDF_MIME_TYPE);
+            document.setPageCount(pageCount);
+            document.setEncrypted(pdf.isEncrypted());
+            // Le dictionnaire de linéarisation est le premier objet du fichier (1024 premiers octets)
+            document.setLinearized(headerContains(header, "/Linearized"));
+            document.setSignatureFieldCount(pdf.getSignatureFields().size());
+            document.setExistingSignatureCount(pdf.getSignatureDictionaries().size());
+            
+            PageLayoutIndex index;
+            try {
+                index = PageLayoutIndex.build(pdf);
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalArgumentException("Contenu des pages illisible : " + e.getMessage());
+            }
+            String fileName = Path.of(filePath).getFileName().toString();
+            document.setLayoutIndexPath(pageLayoutIndexService.save(index, fileName).toString());
+            
+            // Optimisation avant la première signature : réécrire un original signé invaliderait la signature.
+            // Les positions de l'index restent valables (rendu inchangé).
+            if (optimize && !pdf.isEncrypted() && document.getExistingSignatureCount() == 0) {
+                if (fileSize > optimizeMaxBytes) {
+                    log.info("Document {} non optimisé : {} octets (max {})", document.getId(), fileSize,
+                            optimizeMaxBytes);
+                } else {
+                    optimizeOriginal(document, pdf, fileSize);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Remplacer l'original par sa version optimisée si elle est plus petite
+     *
+     * La version optimisée est écrite à côté de l'original, puis le document est basculé dessus par une mise à
+     * jour conditionnelle (aucune signature, original inchangé) : une signature concurrente garde l'original
+     * qu'elle a lu et l'optimisation est alors abandonnée.
+     */
+    private void optimizeOriginal(Document document, PDDocument pdf, long originalSize) throws IOException {
+        PdfOptimizer.Result result = PdfOptimizer.optimize(pdf, originalSize);
+        if (result.savedBytes() <= 0) {
+            return;
+        }
+        
+        Path original = Path.of(document.getOriginalFilePath());
+        Path optimized = storageService.write(original.getParent().toString(),
+                "optimized_" + original.getFileName(), result.content());
+        int swapped = documentRepository.swapOptimizedOriginal(document.getId(), original.toString(),
+                optimized.toString(), (long) result.content().length, originalSize);
+        if (swapped == 0) {
+            storageService.delete(optimized.toString());
+            log.info("Optimisation du document {} abandonnée : signé pendant le contrôle", document.getId());
+            return;
+        }
+        storageService.delete(original.toString());
+        
+        document.setOriginalFilePath(optimized.toString());
+        document.setUploadedFileSize(originalSize);
+        document.setFileSize((long) result.content().length);
+        meterRegistry.counter("esignature.preflight.saved.bytes").increment(result.savedBytes());
+        log.info("Document {} optimisé : {} -> {} octets ({} image(s) et {} police(s) dédoublonnées, "
+                        + "{} flux compressés)", document.getId(), originalSize, result.content().length,
+                result.deduplicatedImages(), result.deduplicatedFonts(), result.compressedStreams());
+    }
+    
+    private static boolean headerContains(byte[] content, String marker) {
+        String header = new String(content, 0, Math.min(content.length, HEADER_WINDOW), StandardCharsets.ISO_8859_1);
+        return header.contains(marker);
+    }
+}
@@ -1,25 +1,31 @@
 package com.esignature.service;
 
+import com.esignature.event.DocumentUploadedEvent;
+import com.esignature.metrics.SigningMetrics;
 import com.esignature.model.dto.*;
 import com.esignature.model.entity.Document;
 import com.esignature.model.entity.Signature;
 import com.esignature.model.entity.SignatureWorkflow;
+import com.esignature.model.enums.PreflightStatus;
 import com.esignature.model.enums.SignatureStatus;
 import com.esignature.model.enums.SignatureType;
 import com.esignature.repository.DocumentRepository;
 import com.esignature.repository.SignatureRepository;
 import com.esignature.repository.SignatureWorkflowRepository;
+import com.esignature.tracing.DocumentTracing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -34,6 +40,18 @@ public class DocumentService {
     private final SignatureWorkflowRepository workflowRepository;
     private final PdfSignatureService pdfSignatureService;
     private final CertificateService certificateService;
+    private final SignatureTokenService signatureTokenService;
+    private final WorkflowService workflowService;
+    private final DocumentCache documentCache;
+    private final SigningMetrics signingMetrics;
+    private final StorageService storageService;
+    private final SignatureImageService signatureImageService;
+    private final DocumentTracing documentTracing;
+    private final PageLayoutIndexService pageLayoutIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public static final String INCLUDE_SIGNATURES = "signatures";
+    public static final String INCLUDE_WORKFLOWS = "workflows";
     
     @Value("${storage.location}")
     private String storageLocation;
@@ -46,47 +64,87 @@ public class DocumentService {
      */
     @Transactional
     public DocumentResponse uploadDocument(MultipartFile file, String uploadedBy) throws IOException {
-        // Créer le répertoire si nécessaire
-        Path uploadPath = Paths.get(storageLocation);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-        
         // Générer un nom de fichier unique
         String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(fileName);
         
         // Sauvegarder le fichier
-        Files.write(filePath, file.getBytes());
+        Path filePath = storageService.write(storageLocation, fileName, file.getBytes());
         
-        // Créer l'entité document
+        return registerDocument(file.getOriginalFilename(), file.getContentType(), file.getSize(), filePath,
+                uploadedBy);
+    }
+    
+    /**
+     * Créer le document d'un fichier déjà enregistré dans le stockage (dépôt direct ou fractionné)
+     */
+    @Transactional
+    public DocumentResponse registerDocument(String name, String mimeType, long fileSize, Path filePath,
+                                             String uploadedBy) {
         Document document = Document.builder()
-                .name(file.getOriginalFilename())
+                .name(name)
                 .originalFilePath(filePath.toString())
-                .mimeType(file.getContentType())
-                .fileSize(file.getSize())
+                .mimeType(mimeType)
+                .fileSize(fileSize)
                 .uploadedBy(uploadedBy)
                 .status(SignatureStatus.PENDING)
                 .build();
         
         document = documentRepository.save(document);
+        documentTracing.tagCurrent(document.getId());
+        
+        // Contrôle du PDF et extraction des métadonnées en arrière-plan, après commit
+        eventPublisher.publishEvent(new DocumentUploadedEvent(document.getId()));
         
         return mapToDocumentResponse(document);
     }
     
     /**
-     * Signer un document
+     * Signer un document ; authenticatedEmail est l'email porté par le jeton d'accès (null si aucun)
      */
     @Transactional
-    public DocumentResponse signDocument(SignDocumentRequest request, String ipAddress, String userAgent) 
-            throws Exception {
+    public DocumentResponse signDocument(SignDocumentRequest request, String authenticatedEmail, String ipAddress,
+                                         String userAgent) throws Exception {
+        
+        SignatureType signatureType = request.getSignatureType();
+        try (DocumentTracing.Scope ignored = documentTracing.open(request.getDocumentId())) {
+            DocumentResponse response = applySignature(request, authenticatedEmail, ipAddress, userAgent);
+            signingMetrics.trackCommit(signatureType);
+            return response;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            signingMetrics.signatureCompleted(signatureType, SigningMetrics.OUTCOME_REJECTED);
+            throw e;
+        } catch (Exception e) {
+            signingMetrics.signatureCompleted(signatureType, SigningMetrics.OUTCOME_FAILURE);
+            throw e;
+        }
+    }
+    
+    private DocumentResponse applySignature(SignDocumentRequest request, String authenticatedEmail, String ipAddress,
+                                            String userAgent) throws Exception {
+        
+        // Valider le jeton avant tout accès base : lien falsifié, expiré ou révoqué rejeté immédiatement
+        SignatureTokenService.TokenClaims tokenClaims = null;
+        if (request.getSignatureToken() != null) {
+            tokenClaims = signatureTokenService.validateToken(request.getSignatureToken());
+            
+            if (!tokenClaims.documentId().equals(request.getDocumentId())) {
+                throw new IllegalArgumentException("Token de signature invalide pour ce document");
+            }
+        }
         
         Document document = documentRepository.findById(request.getDocumentId())
                 .orElseThrow(() -> new IllegalArgumentException("Document non trouvé"));
         
+        // Fichier refusé au contrôle du dépôt : inutile de le charger. Un contrôle encore en attente ne bloque pas
+        // la signature, qui charge elle-même le PDF et échoue s'il est illisible.
+        if (document.getPreflightStatus() == PreflightStatus.REJECTED) {
+            throw new IllegalStateException("Document refusé au contrôle du dépôt : " + document.getPreflightError());
+        }
+        
         // Vérifier le workflow si un token est fourni
-        if (request.getSignatureToken() != null) {
-            SignatureWorkflow workflow = workflowRepository.findBySignatureToken(request.getSignatureToken())
+        SignatureWorkflow workflow = null;
+        if (tokenClaims != null) {
+            workflow = workflowRepository.findById(tokenClaims.workflowId())
                     .orElseThrow(() -> new IllegalArgumentException("Token de signature invalide"));
             
             if (workflow.getStatus() != SignatureStatus.PENDING) {
@@ -94,14 +152,31 @@ public class DocumentService {
             }
             
             if (workflow.getExpiresAt() != null && workflow.getExpiresAt().isBefore(LocalDateTime.now())) {
-                workflow.setStatus(SignatureStatus.EXPIRED);
-                workflowRepository.save(workflow);
+                // Transaction distincte : l'exception ci-dessous annule celle de la signature
+                workflowService.expireWorkflow(workflow.getId());
                 throw new IllegalStateException("Le lien de signature a expiré");
             }
         }
         
+        // Identité vérifiée : signataire du workflow, sinon email du jeton d'accès ; l'email de la requête doit
+        // lui correspondre. Sans identité vérifiée, les images enregistrées (propres à leur auteur) sont refusées.
+        String verifiedEmail = workflow != null ? workflow.getSignerEmail() : authenticatedEmail;
+        if (verifiedEmail != null) {
+            if (!verifiedEmail.equalsIgnoreCase(request.getSignerEmail())) {
+                throw new IllegalArgumentException(
+                        "Email du signataire différent de celui du workflow ou du jeton d'accès");
+            }
+            request.setSignerEmail(verifiedEmail);
+        } else if (usesRegisteredImage(request)) {
+            throw new IllegalArgumentException(
+                    "Image de signature enregistrée : jeton d'accès ou lien de workflow requis");
+        }
+        
         // Lire le document original
-        byte[] pdfBytes = Files.readAllBytes(Paths.get(document.getOriginalFilePath()));
+        Long documentId = document.getId();
+        String originalFilePath = document.getOriginalFilePath();
+        byte[] pdfBytes = signingMetrics.time(SigningMetrics.STAGE_FILE_READ, request.getSignatureType(),
+                () -> readOriginal(documentId, originalFilePath));
         byte[] signedPdfBytes;
         
         // Créer l'entité signature
@@ -119,30 +194,36 @@ public class DocumentService {
                 .userAgent(userAgent)
                 .build();
         
-        // Appliquer la signature selon le type
-        switch (request.getSignatureType()) {
-            case SIMPLE:
-                signedPdfBytes = signWithSimpleSignature(pdfBytes, request, signature);
-                break;
-                
-            case ADVANCED:
-            case QUALIFIED:
-                signedPdfBytes = signWithCertificate(pdfBytes, request, signature);
-                break;
-                
-            default:
-                throw new IllegalArgumentException("Type de signature non supporté");
+        // Appliquer la signature selon le type (plusieurs emplacements : une seule passe sur le PDF)
+        if (request.getPlacements() != null && !request.getPlacements().isEmpty()) {
+            signedPdfBytes = signWithPlacements(pdfBytes, request, request.getPlacements(), signature);
+        } else if (request.getFieldName() != null || request.getAnchorText() != null) {
+            signedPdfBytes = signWithPlacements(pdfBytes, request, List.of(SignaturePlacement.builder()
+                    .fieldName(request.getFieldName())
+                    .anchorText(request.getAnchorText())
+                    .width(request.getWidth())
+                    .height(request.getHeight())
+                    .build()), signature);
+        } else {
+            switch (request.getSignatureType()) {
+                case SIMPLE:
+                    signedPdfBytes = signWithSimpleSignature(pdfBytes, request, signature);
+                    break;
+                    
+                case ADVANCED:
+                case QUALIFIED:
+                    signedPdfBytes = signWithCertificate(pdfBytes, request, signature);
+                    break;
+                    
+                default:
+                    throw new IllegalArgumentException("Type de signature non supporté");
+            }
         }
         
         // Sauvegarder le PDF signé
-        Path signedPath = Paths.get(signedStorageLocation);
-        if (!Files.exists(signedPath)) {
-            Files.createDirectories(signedPath);
-        }
-        
         String signedFileName = "signed_" + UUID.randomUUID() + "_" + document.getName();
-        Path signedFilePath = signedPath.resolve(signedFileName);
-        Files.write(signedFilePath, signedPdfBytes);
+        Path signedFilePath = signingMetrics.time(SigningMetrics.STAGE_STORAGE_WRITE, request.getSignatureType(),
+                () -> storageService.write(signedStorageLocation, signedFileName, signedPdfBytes));
         
         document.setSignedFilePath(signedFilePath.toString());
         document.setSignedAt(LocalDateTime.now());
@@ -155,18 +236,53 @@ public class DocumentService {
         document = documentRepository.save(document);
         
         // Mettre à jour le workflow si applicable
-        if (request.getSignatureToken() != null) {
-            updateWorkflowStatus(request.getSignatureToken(), signature);
+        if (workflow != null) {
+            updateWorkflowStatus(workflow, signature);
         }
         
+        documentCache.invalidate(document.getId());
+        
         return mapToDocumentResponse(document);
     }
     
+    private static boolean usesRegisteredImage(SignDocumentRequest request) {
+        return request.getSignatureImageId() != null || request.getPlacements() != null
+                && request.getPlacements().stream().anyMatch(placement -> placement.getSignatureImageId() != null);
+    }
+    
+    /**
+     * Lire l'original ; s'il vient d'être remplacé par sa version optimisée, relire son chemin en base
+     */
+    private byte[] readOriginal(Long documentId, String originalFilePath) throws IOException {
+        try {
+            return storageService.read(originalFilePath);
+        } catch (NoSuchFileException e) {
+            String currentPath = documentRepository.findOriginalFilePathById(documentId).orElseThrow(() -> e);
+            if (currentPath.equals(originalFilePath)) {
+                throw e;
+            }
+            return storageService.read(currentPath);
+        }
+    }
+    
     private byte[] signWithSimpleSignature(
             byte[] pdfBytes,
             SignDocumentRequest request,
             Signature signature
-    ) throws IOException {
+    ) throws Exception {
+        
+        int pageNumber = request.getPageNumber() != null ? request.getPageNumber() : 0;
+        float x = request.getXPosition() != null ? request.getXPosition() : 100f;
+        float y = request.getYPosition() != null ? request.getYPosition() : 100f;
+        float width = request.getWidth() != null ? request.getWidth() : 150f;
+        float height = request.getHeight() != null ? request.getHeight() : 50f;
+        
+        // Image enregistrée : flux PDF déjà prêts, servis depuis le cache
+        if (request.getSignatureImageId() != null) {
+            PreparedSignatureImage image = signatureImageService.getPreparedImage(
+                    request.getSignatureImageId(), request.getSignerEmail());
+            return pdfSignatureService.signPdfWithImage(pdfBytes, image, pageNumber, x, y, width, height);
+        }
         
         if (request.getSignatureImageBase64() == null) {
             throw new IllegalArgumentException("Image de signature requise pour signature simple");
@@ -174,32 +290,242 @@ public class DocumentService {
         
         byte[] imageBytes = Base64.getDecoder().decode(request.getSignatureImageBase64());
         
-        return pdfSignatureService.signPdfWithImage(
-                pdfBytes,
-                imageBytes,
+        return pdfSignatureService.signPdfWithImage(pdfBytes, imageBytes, pageNumber, x, y, width, height);
+    }
+    
+    private byte[] signWithCertificate(
+            byte[] pdfBytes,
+            SignDocumentRequest request,
+            Signature signature
+    ) throws Exception {
+        
+        // Image de signature enregistrée, affichée dans l'apparence du champ
+        PreparedSignatureImage logo = request.getSignatureImageId() != null
+                ? signatureImageService.getPreparedImage(request.getSignatureImageId(), request.getSignerEmail())
+                : null;
+        
+        PdfSignatureService.CertificateSigning certificate = certificateSigning(
+                request,
+                signature,
+                logo,
                 request.getPageNumber() != null ? request.getPageNumber() : 0,
                 request.getXPosition() != null ? request.getXPosition() : 100f,
                 request.getYPosition() != null ? request.getYPosition() : 100f,
-                request.getWidth() != null ? request.getWidth() : 150f,
-                request.getHeight() != null ? request.getHeight() : 50f
+                request.getWidth() != null ? request.getWidth() : 200f,
+                request.getHeight() != null ? request.getHeight() : 80f,
+                null
         );
+        
+        return pdfSignatureService.signPdf(pdfBytes, request.getSignatureType(), List.of(), certificate);
     }
     
-    private byte[] signWithCertificate(
+    /**
+     * Appliquer tous les emplacements (paraphes, signatures, champ cryptographique) en un seul
+     * chargement/enregistrement du PDF
+     */
+    private byte[] signWithPlacements(
             byte[] pdfBytes,
             SignDocumentRequest request,
+            List<SignaturePlacement> placements,
             Signature signature
     ) throws Exception {
         
+        boolean cryptographic = request.getSignatureType() != SignatureType.SIMPLE;
+        
+        // Champ de la signature cryptographique : l'emplacement marqué, sinon le dernier
+        SignaturePlacement fieldPlacement = null;
+        if (cryptographic) {
+            fieldPlacement = placements.stream()
+                    .filter(placement -> Boolean.TRUE.equals(placement.getSignatureField()))
+                    .findFirst()
+                    .orElse(placements.get(placements.size() - 1));
+            if (Boolean.TRUE.equals(fieldPlacement.getAllPages())) {
+                throw new IllegalArgumentException("Le champ de signature doit être placé sur une seule page");
+            }
+        }
+        
+        // Index des champs et du texte, lu seulement si un emplacement en a besoin
+        PageLayoutIndex layoutIndex = null;
+        if (placements.stream().anyMatch(placement -> placement.getFieldName() != null
+                || placement.getAnchorText() != null)) {
+            layoutIndex = pageLayoutIndexService.getIndex(signature.getDocument(), pdfBytes);
+        }
+        
+        // Chaque image n'est préparée qu'une fois, quel que soit le nombre d'emplacements
+        PreparedSignatureImage defaultImage = defaultSignatureImage(request);
+        Map<Long, PreparedSignatureImage> images = new HashMap<>();
+        List<PdfSignatureService.ImageStamp> stamps = new ArrayList<>();
+        PreparedSignatureImage fieldImage = null;
+        PlacementPosition fieldPosition = null;
+        PlacementPosition firstPosition = null;
+        
+        for (SignaturePlacement placement : placements) {
+            PreparedSignatureImage image = defaultImage;
+            if (placement.getSignatureImageId() != null) {
+                image = images.get(placement.getSignatureImageId());
+                if (image == null) {
+                    image = signatureImageService.getPreparedImage(
+                            placement.getSignatureImageId(), request.getSignerEmail());
+                    images.put(placement.getSignatureImageId(), image);
+                }
+            }
+            
+            List<PlacementPosition> positions = resolvePlacement(placement, layoutIndex);
+            if (firstPosition == null) {
+                firstPosition = positions.get(0);
+            }
+            
+            if (placement == fieldPlacement) {
+                if (positions.size() > 1) {
+                    throw new IllegalArgumentException("Le champ de signature doit être placé sur une seule page");
+                }
+                fieldImage = image;
+                fieldPosition = positions.get(0);
+                continue;
+            }
+            if (image == null) {
+                throw new IllegalArgumentException("Image de signature requise pour chaque emplacement");
+            }
+            
+            for (PlacementPosition position : positions) {
+                stamps.add(new PdfSignatureService.ImageStamp(
+                        image,
+                        position.allPages() ? PdfSignatureService.ImageStamp.ALL_PAGES : position.pageNumber(),
+                        position.x(),
+                        position.y(),
+                        position.width() != null ? position.width() : 150f,
+                        position.height() != null ? position.height() : 50f
+                ));
+            }
+        }
+        
+        // Position enregistrée : celle du champ cryptographique, sinon du premier emplacement
+        PlacementPosition main = fieldPosition != null ? fieldPosition : firstPosition;
+        signature.setPageNumber(main.pageNumber());
+        signature.setXPosition(main.x());
+        signature.setYPosition(main.y());
+        signature.setWidth(main.width());
+        signature.setHeight(main.height());
+        
+        PdfSignatureService.CertificateSigning certificate = null;
+        if (cryptographic) {
+            certificate = certificateSigning(
+                    request,
+                    signature,
+                    fieldImage,
+                    fieldPosition.pageNumber(),
+                    fieldPosition.x(),
+                    fieldPosition.y(),
+                    fieldPosition.width() != null ? fieldPosition.width() : 200f,
+                    fieldPosition.height() != null ? fieldPosition.height() : 80f,
+                    fieldPosition.signatureFieldName()
+            );
+        }
+        
+        return pdfSignatureService.signPdf(pdfBytes, request.getSignatureType(), stamps, certificate);
+    }
+    
+    /**
+     * Résoudre un emplacement en position(s) sur les pages : coordonnées fournies, rectangle d'un champ
+     * du formulaire ou occurrence(s) d'un texte d'ancrage, lus dans l'index du document
+     */
+    private List<PlacementPosition> resolvePlacement(SignaturePlacement placement, PageLayoutIndex layoutIndex) {
+        if (placement.getFieldName() != null) {
+            PageLayoutIndex.FieldPosition field = layoutIndex.field(placement.getFieldName())
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Champ introuvable dans le document : " + placement.getFieldName()));
+            if (field.signed()) {
+                throw new IllegalStateException("Le champ de signature " + field.name() + " est déjà signé");
+            }
+            return List.of(new PlacementPosition(field.page(), false, field.x(), field.y(), field.width(),
+                    field.height(), field.signature() ? field.name() : null));
+        }
+        
+        if (placement.getAnchorText() != null) {
+            List<PageLayoutIndex.TextAnchor> anchors = layoutIndex.findAnchors(placement.getAnchorText());
+            if (anchors.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Texte d'ancrage introuvable dans le document : " + placement.getAnchorText());
+            }
+            if (!Boolean.TRUE.equals(placement.getAllPages())) {
+                int occurrence = placement.getAnchorOccurrence() != null ? placement.getAnchorOccurrence() : 0;
+                if (occurrence < 0 || occurrence >= anchors.size()) {
+                    throw new IllegalArgumentException("Occurrence " + occurrence + " du texte d'ancrage absente ("
+                            + anchors.size() + " trouvée(s))");
+                }
+                anchors = List.of(anchors.get(occurrence));
+            }
+            
+            float offsetX = placement.getOffsetX() != null ? placement.getOffsetX() : 0f;
+            float offsetY = placement.getOffsetY() != null ? placement.getOffsetY() : 0f;
+            return anchors.stream()
+                    .map(anchor -> new PlacementPosition(anchor.page(), false, anchor.x() + anchor.width() + offsetX,
+                            anchor.baseline() + offsetY, placement.getWidth(), placement.getHeight(), null))
+                    .toList();
+        }
+        
+        if (placement.getXPosition() == null || placement.getYPosition() == null) {
+            throw new IllegalArgumentException(
+                    "Position, nom de champ ou texte d'ancrage requis pour chaque emplacement");
+        }
+        return List.of(new PlacementPosition(placementPage(placement), Boolean.TRUE.equals(placement.getAllPages()),
+                placement.getXPosition(), placement.getYPosition(), placement.getWidth(), placement.getHeight(),
+                null));
+    }
+    
+    /**
+     * Position résolue d'un emplacement ; signatureFieldName désigne un champ de signature existant à remplir
+     */
+    private record PlacementPosition(
+            int pageNumber,
+            boolean allPages,
+            float x,
+            float y,
+            Float width,
+            Float height,
+            String signatureFieldName
+    ) {
+    }
+    
+    private int placementPage(SignaturePlacement placement) {
+        return placement.getPageNumber() != null ? placement.getPageNumber() : 0;
+    }
+    
+    /**
+     * Image de la requête (enregistrée ou en base64), préparée une seule fois ; null si absente
+     */
+    private PreparedSignatureImage defaultSignatureImage(SignDocumentRequest request) throws IOException {
+        if (request.getSignatureImageId() != null) {
+            return signatureImageService.getPreparedImage(request.getSignatureImageId(), request.getSignerEmail());
+        }
+        if (request.getSignatureImageBase64() != null) {
+            return signatureImageService.prepareImage(Base64.getDecoder().decode(request.getSignatureImageBase64()));
+        }
+        return null;
+    }
+    
+    /**
+     * Déverrouiller le certificat du signataire et renseigner ses informations sur la signature
+     */
+    private PdfSignatureService.CertificateSigning certificateSigning(
+            SignDocumentRequest request,
+            Signature signature,
+            PreparedSignatureImage logo,
+            int pageNumber,
+            float x,
+            float y,
+            float width,
+            float height,
+            String fieldName
+    ) throws Exception {
+        
         if (request.getCertificateBase64() == null) {
             throw new IllegalArgumentException("Certificat requis pour signature avancée/qualifiée");
         }
         
         byte[] certBytes = Base64.getDecoder().decode(request.getCertificateBase64());
-        KeyStore keyStore = certificateService.loadKeyStore(
-                certBytes,
-                request.getCertificatePassword()
-        );
+        KeyStore keyStore = signingMetrics.time(SigningMetrics.STAGE_KEYSTORE_UNLOCK, request.getSignatureType(),
+                () -> certificateService.loadKeyStore(certBytes, request.getCertificatePassword()));
         
         String alias = certificateService.getFirstAlias(keyStore);
         
@@ -207,19 +533,22 @@ public class DocumentService {
         var certInfo = certificateService.extractCertificateInfo(keyStore, alias);
         signature.setCertificateSerialNumber(certInfo.get("serialNumber"));
         signature.setCertificateIssuer(certInfo.get("issuer"));
+        Certificate[] chain = keyStore.getCertificateChain(alias);
+        signature.setCertificateData(certificateService.toPem(
+                chain != null ? chain : new Certificate[]{keyStore.getCertificate(alias)}));
         
-        return pdfSignatureService.signPdfWithCertificate(
-                pdfBytes,
+        return new PdfSignatureService.CertificateSigning(
                 keyStore,
                 alias,
                 request.getCertificatePassword().toCharArray(),
-                request.getSignatureType(),
                 request.getSignerName(),
-                request.getPageNumber() != null ? request.getPageNumber() : 0,
-                request.getXPosition() != null ? request.getXPosition() : 100f,
-                request.getYPosition() != null ? request.getYPosition() : 100f,
-                request.getWidth() != null ? request.getWidth() : 200f,
-                request.getHeight() != null ? request.getHeight() : 80f
+                logo,
+                pageNumber,
+                x,
+                y,
+                width,
+                height,
+                fieldName
         );
     }
     
@@ -240,15 +569,15 @@ public class DocumentService {
         }
     }
     
-    private void updateWorkflowStatus(String token, Signature signature) {
-        SignatureWorkflow workflow = workflowRepository.findBySignatureToken(token)
-                .orElseThrow(() -> new IllegalArgumentException("Workflow non trouvé"));
-        
+    private void updateWorkflowStatus(SignatureWorkflow workflow, Signature signature) {
         workflow.setStatus(SignatureStatus.SIGNED);
         workflow.setSignedAt(LocalDateTime.now());
         workflow.setSignature(signature);
         workflowRepository.save(workflow);
         
+        // Un jeton ne sert qu'une fois
+        signatureTokenService.revoke(workflow.getId(), workflow.getExpiresAt());
+        
         // Notifier le signataire suivant si applicable
         notifyNextSigner(workflow.getDocument().getId(), workflow.getSignOrder());
     }
@@ -268,12 +597,53 @@ public class DocumentService {
     }
     
     /**
-     * Récupérer un document par ID
+     * Récupérer un document par ID (servi depuis le cache des métadonnées)
      */
     public DocumentResponse getDocument(Long documentId) {
+        DocumentResponse cached = documentCache.get(documentId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // Jeton pris avant la lecture : une invalidation commitée pendant la lecture rejette la mise en cache
+        long stamp = documentCache.stamp();
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("Document non trouvé"));
-        return mapToDocumentResponse(document);
+        DocumentResponse response = mapToDocumentResponse(document);
+        documentCache.put(documentId, response, stamp);
+        return response;
+    }
+    
+    /**
+     * Récupérer un document avec ses signatures et/ou workflows ("signatures", "workflows").
+     * Au plus deux requêtes : document + signatures en jointure, puis projection des workflows.
+     */
+    public DocumentResponse getDocument(Long documentId, Set<String> include) {
+        if (include.isEmpty()) {
+            return getDocument(documentId);
+        }
+        
+        boolean withSignatures = include.contains(INCLUDE_SIGNATURES);
+        boolean withWorkflows = include.contains(INCLUDE_WORKFLOWS);
+        
+        Document document = (withSignatures
+                ? documentRepository.findWithSignaturesById(documentId)
+                : documentRepository.findById(documentId))
+                .orElseThrow(() -> new IllegalArgumentException("Document non trouvé"));
+        
+        DocumentResponse response = mapToDocumentResponse(document);
+        
+        if (withSignatures) {
+            response.setSignatures(document.getSignatures().stream()
+                    .map(this::mapToSignatureResponse)
+                    .toList());
+        }
+        
+        if (withWorkflows) {
+            response.setWorkflows(workflowRepository.findResponsesByDocumentId(documentId));
+        }
+        
+        return response;
     }
     
     /**
@@ -287,7 +657,7 @@ public class DocumentService {
             throw new IllegalStateException("Document pas encore signé");
         }
         
-        return Files.readAllBytes(Paths.get(document.getSignedFilePath()));
+        return storageService.read(document.getSignedFilePath());
     }
     
     /**
@@ -304,8 +674,23 @@ public class DocumentService {
                 .createdAt(document.getCreatedAt())
                 .signedAt(document.getSignedAt())
                 .expiresAt(document.getExpiresAt())
+                .preflightStatus(document.getPreflightStatus())
+                .preflightError(document.getPreflightError())
+                .pageCount(document.getPageCount())
                 .downloadUrl(document.getSignedFilePath() != null ? 
                         "/documents/" + document.getId() + "/download" : null)
                 .build();
     }
+    
+    private SignatureResponse mapToSignatureResponse(Signature signature) {
+        return SignatureResponse.builder()
+                .id(signature.getId())
+                .signerName(signature.getSignerName())
+                .signerEmail(signature.getSignerEmail())
+                .signatureType(signature.getSignatureType())
+                .signedAt(signature.getSignedAt())
+                .certificateSerialNumber(signature.getCertificateSerialNumber())
+                .certificateIssuer(signature.getCertificateIssuer())
+                .build();
+    }
 }
@@ -0,0 +1,359 @@
+package com.esignature.service;
+
+import com.esignature.audit.AuditCheckpoint;
+import com.esignature.audit.AuditLog;
+import com.esignature.concurrency.Bulkheads;
+import com.esignature.model.dto.VerificationResponse;
+import com.esignature.model.entity.Document;
+import com.esignature.model.entity.Signature;
+import com.esignature.repository.DocumentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Dossier de preuve d'un document : archive ZIP produite à la volée dans le flux de la réponse
+ *
+ * L'archive contient l'original, le PDF signé et chacune de ses révisions (le fichier tel qu'il était juste
+ * après chaque signature), les chaînes de certificats, le rapport de vérification, les entrées du journal
+ * d'audit et, en dernier, un manifeste donnant la taille et l'empreinte SHA-256 de chaque fichier. Les PDF sont
+ * lus une seule fois et ajoutés sans compression ; l'archive n'est jamais conservée en entier. La vérification
+ * des signatures s'exécute dans sa cloison pendant la copie des PDF.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EvidencePackageService {
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final DocumentRepository documentRepository;
+    private final StorageService storageService;
+    private final CertificateService certificateService;
+    private final VerificationService verificationService;
+    private final Bulkheads bulkheads;
+    private final AuditLog auditLog;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Charger le document et ses signatures, et lancer la vérification dans sa cloison, avant de commencer la
+     * réponse (document inconnu : IAE, cloison saturée : TaskRejectedException)
+     */
+    public Prepared prepare(Long documentId) {
+        Document document = documentRepository.findWithSignaturesById(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("Document non trouvé"));
+        return new Prepared(document, bulkheads.verification(() -> verificationService.verifyDocument(documentId)));
+    }
+
+    /**
+     * Écrire l'archive du document dans out
+     */
+    public void write(Prepared prepared, OutputStream out) throws IOException {
+        Document document = prepared.document();
+        long start = System.currentTimeMillis();
+        String fileName = safeName(document.getName());
+        List<ManifestFile> files = new ArrayList<>();
+        List<Revision> revisions = new ArrayList<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        addUncompressed(zip, "original/" + fileName, document.getOriginalFilePath(), -1, files);
+
+        if (document.getSignedFilePath() != null) {
+            String signedPath = document.getSignedFilePath();
+            long signedSize = storageService.attributes(signedPath).size();
+            List<PdfRevision> pdfRevisions = revisions(signedPath);
+            for (int i = 0; i < pdfRevisions.size(); i++) {
+                PdfRevision revision = pdfRevisions.get(i);
+                int number = i + 1;
+                // La dernière révision est le fichier signé lui-même
+                String file = revision.end() < signedSize ? "revisions/revision-" + number + ".pdf" : "signed/" + fileName;
+                if (revision.end() < signedSize) {
+                    addUncompressed(zip, file, signedPath, revision.end(), files);
+                }
+                String certificates = null;
+                if (revision.certificates() != null) {
+                    certificates = "certificates/revision-" + number + ".pem";
+                    String pem = revision.certificates();
+                    addGenerated(zip, certificates, entry -> entry.write(pem.getBytes(StandardCharsets.UTF_8)), files);
+                }
+                revisions.add(new Revision(number, file, revision.name(), revision.signDate(), revision.subFilter(),
+                        revision.byteRange(), certificates));
+            }
+            addUncompressed(zip, "signed/" + fileName, signedPath, signedSize, files);
+        }
+
+        List<Map<String, Object>> signatures = new ArrayList<>();
+        for (Signature signature : sortedSignatures(document)) {
+            String certificates = null;
+            if (signature.getCertificateData() != null) {
+                certificates = "certificates/signature-" + signature.getId() + ".pem";
+                String pem = signature.getCertificateData();
+                addGenerated(zip, certificates, entry -> entry.write(pem.getBytes(StandardCharsets.UTF_8)), files);
+            }
+            signatures.add(signatureEntry(signature, certificates));
+        }
+
+        VerificationResponse verification;
+        try {
+            verification = prepared.verification().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrompu pendant la vérification");
+        } catch (ExecutionException e) {
+            throw new IOException("Vérification du document " + document.getId() + " impossible",
+                    Bulkheads.cause(e));
+        }
+        addGenerated(zip, "verification.json", entry -> objectMapper.writeValue(entry, verification), files);
+
+        List<AuditCheckpoint> checkpoints = new ArrayList<>();
+        addGenerated(zip, "audit/entries.log",
+                entry -> checkpoints.addAll(auditLog.copyEntries(document.getId(), entry)), files);
+        addGenerated(zip, "audit/checkpoints.json", entry -> objectMapper.writeValue(entry, checkpoints), files);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("documentId", document.getId());
+        manifest.put("name", document.getName());
+        manifest.put("status", document.getStatus());
+        manifest.put("uploadedBy", document.getUploadedBy());
+        manifest.put("createdAt", document.getCreatedAt());
+        manifest.put("signedAt", document.getSignedAt());
+        manifest.put("generatedAt", Instant.now().toString());
+        manifest.put("hashAlgorithm", "SHA-256");
+        manifest.put("files", files);
+        manifest.put("revisions", revisions);
+        manifest.put("signatures", signatures);
+        zip.putNextEntry(new ZipEntry("manifest.json"));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new EntryOutputStream(zip), manifest);
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+
+        log.info("Dossier de preuve du document {} : {} fichier(s), {} révision(s) en {} ms", document.getId(),
+                files.size(), revisions.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Ajouter length octets d'un fichier stocké (tout le fichier si length < 0) sans compression, en une seule
+     * lecture : ZipOutputStream exige taille et CRC avant une entrée STORED, ce qui imposerait une première
+     * lecture ; l'entrée est donc écrite en DEFLATED de niveau 0 (blocs non compressés, quelques octets par bloc)
+     * avec un descripteur de données, CRC et empreinte étant calculés pendant la copie
+     */
+    private void addUncompressed(ZipOutputStream zip, String name, String filePath, long length,
+                                 List<ManifestFile> files) throws IOException {
+        try (FileChannel channel = storageService.openChannel(filePath)) {
+            long size = length < 0 ? channel.size() : Math.min(length, channel.size());
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            zip.putNextEntry(new ZipEntry(name));
+            EntryOutputStream entry = new EntryOutputStream(zip);
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER);
+            for (long position = 0; position < size; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), size - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Fichier tronqué pendant l'export : " + filePath);
+                }
+                entry.write(buffer.array(), 0, read);
+                position += read;
+            }
+            zip.closeEntry();
+            zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+            files.add(new ManifestFile(name, entry.count, HexFormat.of().formatHex(entry.sha256.digest())));
+        }
+    }
+
+    /**
+     * Ajouter un fichier produit au fil de l'eau (compressé), dont la taille et l'empreinte sont calculées pendant
+     * l'écriture
+     */
+    private void addGenerated(ZipOutputStream zip, String name, EntryWriter writer, List<ManifestFile> files)
+            throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        EntryOutputStream entry = new EntryOutputStream(zip);
+        writer.write(entry);
+        zip.closeEntry();
+        files.add(new ManifestFile(name, entry.count, HexFormat.of().formatHex(entry.sha256.digest())));
+    }
+
+    /**
+     * Signatures du PDF signé, dans l'ordre du fichier : chaque révision s'arrête à la fin de la plage signée
+     */
+    private List<PdfRevision> revisions(String signedPath) throws IOException {
+        RandomAccessRead source = storageService.openRandomAccess(signedPath);
+        PDDocument pdf;
+        try {
+            pdf = Loader.loadPDF(source);
+        } catch (IOException e) {
+            source.close();
+            log.warn("Révisions illisibles pour {} : {}", signedPath, e.getMessage());
+            return List.of();
+        }
+
+        List<PdfRevision> revisions = new ArrayList<>();
+        try (pdf) {
+            for (PDSignature signature : pdf.getSignatureDictionaries()) {
+                int[] byteRange = signature.getByteRange();
+                if (byteRange == null || byteRange.length != 4) {
+                    continue;
+                }
+                revisions.add(new PdfRevision(
+                        (long) byteRange[2] + byteRange[3],
+                        byteRange,
+                        signature.getName(),
+                        signature.getSignDate() != null ? signature.getSignDate().toInstant().toString() : null,
+                        signature.getSubFilter(),
+                        certificates(signature.getContents())));
+            }
+        }
+        revisions.sort(Comparator.comparingLong(PdfRevision::end));
+        return revisions;
+    }
+
+    /**
+     * Certificats embarqués dans le conteneur CMS d'une signature, au format PEM
+     */
+    private String certificates(byte[] contents) {
+        if (contents == null || contents.length == 0) {
+            return null;
+        }
+        try {
+            JcaX509CertificateConverter converter = new JcaX509CertificateConverter();
+            List<Certificate> chain = new ArrayList<>();
+            for (X509CertificateHolder holder : new CMSSignedData(contents).getCertificates().getMatches(null)) {
+                chain.add(converter.getCertificate(holder));
+            }
+            return chain.isEmpty() ? null : certificateService.toPem(chain.toArray(new Certificate[0]));
+        } catch (CMSException | CertificateException e) {
+            log.debug("Conteneur de signature sans certificat lisible : {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<Signature> sortedSignatures(Document document) {
+        List<Signature> signatures = new ArrayList<>(document.getSignatures());
+        signatures.sort(Comparator.comparing(Signature::getSignedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Signature::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return signatures;
+    }
+
+    private static Map<String, Object> signatureEntry(Signature signature, String certificates) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", signature.getId());
+        entry.put("signerName", signature.getSignerName());
+        entry.put("signerEmail", signature.getSignerEmail());
+        entry.put("signatureType", signature.getSignatureType());
+        entry.put("signedAt", signature.getSignedAt());
+        entry.put("ipAddress", signature.getIpAddress());
+        entry.put("userAgent", signature.getUserAgent());
+        entry.put("certificateSerialNumber", signature.getCertificateSerialNumber());
+        entry.put("certificateIssuer", signature.getCertificateIssuer());
+        entry.put("certificates", certificates);
+        return entry;
+    }
+
+    private static String safeName(String name) {
+        String cleaned = name == null ? "" : name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        return cleaned.isEmpty() || cleaned.startsWith(".") ? "document.pdf" : cleaned;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(EntryOutputStream entry) throws IOException;
+    }
+
+    /**
+     * Flux d'une entrée de l'archive : compte et hache ce qui passe, sans fermer l'archive
+     */
+    private static final class EntryOutputStream extends FilterOutputStream {
+
+        private final MessageDigest sha256 = sha256();
+        private long count;
+
+        EntryOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            sha256.update((byte) b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            sha256.update(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private record PdfRevision(long end, int[] byteRange, String name, String signDate, String subFilter,
+                               String certificates) {
+    }
+
+    /**
+     * Document chargé et vérification en cours, avant l'écriture de l'archive
+     */
+    public record Prepared(Document document, CompletableFuture<VerificationResponse> verification) {
+    }
+
+    /**
+     * Révision du PDF signé décrite dans le manifeste
+     */
+    public record Revision(int number, String file, String name, String signDate, String subFilter, int[] byteRange,
+                           String certificates) {
+    }
+
+    /**
+     * Fichier de l'archive : chemin, taille et empreinte SHA-256
+     */
+    public record ManifestFile(String name, long size, String sha256) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.esignature.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compression Flate des flux PDF pré-calculés (images de signature, modèles d'apparence)
+ */
+final class FlateStreams {
+
+    private FlateStreams() {
+    }
+
+    /**
+     * Compresser au niveau maximal : le résultat est calculé une fois puis recopié tel quel dans chaque PDF
+     */
+    static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+}
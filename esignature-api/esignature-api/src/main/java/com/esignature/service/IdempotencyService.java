@@ -0,0 +1,340 @@
+package com.esignature.service;
+
+import com.esignature.config.AsyncConfig;
+import com.esignature.model.entity.IdempotencyRecord;
+import com.esignature.model.enums.IdempotencyStatus;
+import com.esignature.repository.IdempotencyRecordRepository;
+import com.esignature.security.AuthenticatedClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Requêtes idempotentes (en-tête Idempotency-Key) : dépôt, signature, création de workflow
+ *
+ * La première requête réserve la clé en base puis s'exécute ; sa réponse (2xx seulement) est enregistrée et
+ * rejouée aux requêtes répétées avec la même clé, sans refaire le traitement. Une répétition reçue pendant
+ * l'exécution attend son résultat : sur la même instance via le résultat en cours gardé en mémoire, sur une
+ * autre instance en relisant la réservation. Les clés sont propres à chaque client ; une clé réutilisée pour
+ * une requête différente est refusée (422). Une réponse en erreur libère la clé pour un nouvel essai.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AsyncTaskExecutor pollExecutor;
+    private final Duration ttl;
+    private final long localTtlMillis;
+    private final Duration inProgressTimeout;
+    private final long waitMs;
+    private final long pollMs;
+
+    // Résultats en cours ou récents de cette instance, par clé
+    private final Map<String, LocalEntry> entries = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            IdempotencyRecordRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Qualifier(AsyncConfig.IDEMPOTENCY_EXECUTOR) AsyncTaskExecutor pollExecutor,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.local-ttl-seconds:600}") long localTtlSeconds,
+            @Value("${idempotency.in-progress-timeout-seconds:120}") long inProgressTimeoutSeconds,
+            @Value("${idempotency.wait-ms:30000}") long waitMs,
+            @Value("${idempotency.poll-ms:200}") long pollMs
+    ) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.pollExecutor = pollExecutor;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.localTtlMillis = TimeUnit.SECONDS.toMillis(localTtlSeconds);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+        this.waitMs = waitMs;
+        this.pollMs = pollMs;
+    }
+
+    /**
+     * Exécuter une opération au plus une fois par clé
+     *
+     * @param idempotencyKey clé fournie par le client, null pour une exécution sans idempotence
+     * @param operation      opération (la même clé peut servir à des opérations différentes)
+     * @param request        contenu de la requête, comparé lors des répétitions
+     * @param bodyType       type du corps de la réponse, pour la rejouer depuis la base
+     * @param action         traitement ; seules ses réponses 2xx sont enregistrées
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> execute(
+            String idempotencyKey,
+            String operation,
+            Object request,
+            TypeReference<?> bodyType,
+            Supplier<CompletableFuture<ResponseEntity<T>>> action
+    ) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        String id = sha256(clientScope() + ":" + operation + ":" + idempotencyKey);
+        String requestHash = requestHash(request);
+
+        LocalEntry created = new LocalEntry(requestHash, new CompletableFuture<>(),
+                System.currentTimeMillis() + localTtlMillis);
+        LocalEntry existing = entries.putIfAbsent(id, created);
+        while (existing != null && existing.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(id, existing);
+            existing = entries.putIfAbsent(id, created);
+        }
+        if (existing != null) {
+            if (!existing.requestHash().equals(requestHash)) {
+                return record(operation, "mismatch", CompletableFuture.completedFuture(keyReused()));
+            }
+            // Même requête en cours ou déjà traitée sur cette instance
+            record(operation, "replay", null);
+            return existing.<T>typed().thenApply(IdempotencyService::replayed);
+        }
+
+        try {
+            return reserveAndRun(id, operation, requestHash, bodyType, action, created);
+        } catch (RuntimeException e) {
+            release(id, created);
+            created.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> reserveAndRun(
+            String id,
+            String operation,
+            String requestHash,
+            TypeReference<?> bodyType,
+            Supplier<CompletableFuture<ResponseEntity<T>>> action,
+            LocalEntry created
+    ) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean reserved;
+        try {
+            repository.saveAndFlush(IdempotencyRecord.builder()
+                    .id(id)
+                    .operation(operation)
+                    .requestHash(requestHash)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+            reserved = true;
+        } catch (DataIntegrityViolationException e) {
+            reserved = false;
+        }
+
+        if (!reserved) {
+            // Clé déjà réservée : réponse enregistrée, exécution en cours ailleurs ou abandonnée
+            IdempotencyRecord stored = repository.findById(id).orElse(null);
+            if (stored != null && !stored.getRequestHash().equals(requestHash)) {
+                entries.remove(id, created);
+                created.response().complete(keyReused());
+                return record(operation, "mismatch", CompletableFuture.completedFuture(keyReused()));
+            }
+            if (stored != null && stored.getStatus() == IdempotencyStatus.COMPLETED) {
+                ResponseEntity<T> response = fromRecord(stored, bodyType);
+                created.response().complete(response);
+                return record(operation, "replay", CompletableFuture.completedFuture(response));
+            }
+            boolean abandoned = stored != null && repository.takeOver(id, IdempotencyStatus.IN_PROGRESS,
+                    now, now.minus(inProgressTimeout)) == 1;
+            if (!abandoned) {
+                record(operation, "wait", null);
+                CompletableFuture<ResponseEntity<T>> awaited =
+                        awaitOtherInstance(id, bodyType, System.currentTimeMillis() + waitMs);
+                awaited.whenComplete((response, error) -> {
+                    if (error != null || !response.getStatusCode().is2xxSuccessful()) {
+                        entries.remove(id, created);
+                    }
+                    if (error != null) {
+                        created.response().completeExceptionally(error);
+                    } else {
+                        created.response().complete(response);
+                    }
+                });
+                return awaited;
+            }
+            log.info("Exécution idempotente {} reprise après abandon ({})", id, operation);
+        }
+
+        record(operation, "execute", null);
+        CompletableFuture<ResponseEntity<T>> result = action.get();
+        result.whenComplete((response, error) -> {
+            if (error == null && response.getStatusCode().is2xxSuccessful()) {
+                store(id, response);
+            } else {
+                release(id, created);
+            }
+            if (error != null) {
+                created.response().completeExceptionally(error);
+            } else {
+                created.response().complete(response);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Attendre, sans bloquer de thread pendant les délais, la réponse d'une exécution en cours sur une autre
+     * instance ; chaque relecture en base s'exécute dans le pool dédié
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> awaitOtherInstance(String id, TypeReference<?> bodyType,
+                                                                        long deadline) {
+        return CompletableFuture
+                .supplyAsync(() -> repository.findById(id),
+                        CompletableFuture.delayedExecutor(pollMs, TimeUnit.MILLISECONDS, pollExecutor))
+                .thenCompose(stored -> {
+                    if (stored.isPresent() && stored.get().getStatus() == IdempotencyStatus.COMPLETED) {
+                        return CompletableFuture.completedFuture(this.<T>fromRecord(stored.get(), bodyType));
+                    }
+                    if (stored.isEmpty() || System.currentTimeMillis() > deadline) {
+                        // Exécution échouée ou trop longue : le client réessaiera avec la même clé
+                        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .<T>build());
+                    }
+                    return awaitOtherInstance(id, bodyType, deadline);
+                });
+    }
+
+    private void store(String id, ResponseEntity<?> response) {
+        try {
+            IdempotencyRecord stored = repository.findById(id)
+                    .orElseThrow(() -> new IllegalStateException("Réservation idempotente disparue"));
+            stored.setStatus(IdempotencyStatus.COMPLETED);
+            stored.setResponseStatus(response.getStatusCode().value());
+            stored.setResponseBody(objectMapper.writeValueAsString(response.getBody()));
+            repository.save(stored);
+        } catch (JsonProcessingException | DataAccessException | IllegalStateException e) {
+            // La réponse reste rejouable sur cette instance jusqu'à l'expiration locale
+            log.warn("Réponse idempotente {} non enregistrée : {}", id, e.getMessage());
+        }
+    }
+
+    private void release(String id, LocalEntry created) {
+        entries.remove(id, created);
+        try {
+            repository.deleteById(id);
+        } catch (DataAccessException e) {
+            log.warn("Clé idempotente {} non libérée : {}", id, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> fromRecord(IdempotencyRecord stored, TypeReference<?> bodyType) {
+        try {
+            T body = stored.getResponseBody() == null ? null
+                    : (T) objectMapper.readValue(stored.getResponseBody(), bodyType);
+            return ResponseEntity.status(stored.getResponseStatus())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Réponse idempotente illisible", e);
+        }
+    }
+
+    private static <T> ResponseEntity<T> replayed(ResponseEntity<T> response) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> {
+                    headers.addAll(response.getHeaders());
+                    headers.set(REPLAYED_HEADER, "true");
+                })
+                .body(response.getBody());
+    }
+
+    private static <T> ResponseEntity<T> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+    }
+
+    private <F> F record(String operation, String outcome, F result) {
+        meterRegistry.counter("esignature.idempotency.requests", "operation", operation, "outcome", outcome)
+                .increment();
+        return result;
+    }
+
+    /**
+     * Clés propres à chaque client : locataire et sujet du jeton d'accès, sinon accès anonyme
+     */
+    private static String clientScope() {
+        Optional<AuthenticatedClient> client = AuthenticatedClient.current();
+        return client.map(c -> (c.tenant() != null ? c.tenant() + "/" : "") + c.subject()).orElse("anonymous");
+    }
+
+    private String requestHash(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Requête non sérialisable", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Purger les clés expirées (mémoire et base)
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now && entry.response().isDone());
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} clé(s) idempotente(s) expirée(s) supprimée(s)", deleted);
+        }
+    }
+
+    private record LocalEntry(String requestHash, CompletableFuture<ResponseEntity<?>> response, long expiresAt) {
+
+        @SuppressWarnings("unchecked")
+        <T> CompletableFuture<ResponseEntity<T>> typed() {
+            return (CompletableFuture<ResponseEntity<T>>) (CompletableFuture<?>) response;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.esignature.service;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Lecture séquentielle d'une archive d'import (ZIP ou tar) directement depuis le flux de la requête
+ *
+ * Chaque entrée est lue au fil de l'eau : le contenu de l'entrée courante n'est disponible que jusqu'à l'appel
+ * suivant de {@link #next()}, rien n'est conservé en mémoire. Seuls les fichiers sont renvoyés (répertoires et
+ * liens ignorés). Le tar accepte les formats ustar, GNU (noms longs) et pax (chemin et taille étendus). Une
+ * archive tronquée ou mal formée lève une IOException.
+ */
+public abstract class ImportArchiveReader {
+
+    /**
+     * Entrée suivante, ou null à la fin de l'archive
+     */
+    public abstract Entry next() throws IOException;
+
+    public static ImportArchiveReader zip(InputStream in) {
+        return new Zip(in);
+    }
+
+    public static ImportArchiveReader tar(InputStream in) {
+        return new Tar(in);
+    }
+
+    /**
+     * Fichier de l'archive : chemin et contenu (le flux n'a pas à être fermé)
+     */
+    public record Entry(String name, InputStream content) {
+    }
+
+    private static final class Zip extends ImportArchiveReader {
+
+        private final ZipInputStream zip;
+
+        Zip(InputStream in) {
+            this.zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Entry next() throws IOException {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    return new Entry(entry.getName(), new NonClosing(zip));
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Tar extends ImportArchiveReader {
+
+        private static final int BLOCK = 512;
+
+        private final InputStream in;
+        private final byte[] header = new byte[BLOCK];
+        private Bounded current;
+
+        Tar(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public Entry next() throws IOException {
+            String longName = null;
+            Long paxSize = null;
+            while (true) {
+                skipCurrent();
+                if (!readBlock()) {
+                    return null;
+                }
+                if (isZeroBlock()) {
+                    return null;
+                }
+
+                long size = paxSize != null ? paxSize : number(124, 12);
+                char type = (char) header[156];
+                String name = longName != null ? longName : name();
+                current = new Bounded(in, size);
+
+                switch (type) {
+                    case 'L' -> {
+                        // Nom GNU long : contenu de cette entrée, pour l'entrée suivante
+                        longName = trimNul(new String(current.readAll(), StandardCharsets.UTF_8));
+                        continue;
+                    }
+                    case 'x' -> {
+                        // En-tête pax de l'entrée suivante
+                        for (String record : new String(current.readAll(), StandardCharsets.UTF_8).split("\n")) {
+                            int space = record.indexOf(' ');
+                            int equals = record.indexOf('=');
+                            if (space < 0 || equals < space) {
+                                continue;
+                            }
+                            String key = record.substring(space + 1, equals);
+                            String value = record.substring(equals + 1);
+                            if (key.equals("path")) {
+                                longName = value;
+                            } else if (key.equals("size")) {
+                                try {
+                                    paxSize = Long.parseLong(value);
+                                } catch (NumberFormatException e) {
+                                    throw new IOException("En-tête pax invalide");
+                                }
+                            }
+                        }
+                        continue;
+                    }
+                    case '0', '\0', '7' -> {
+                        return new Entry(name, current);
+                    }
+                    default -> {
+                        // Répertoire, lien, en-tête pax global : ignoré
+                        longName = null;
+                        paxSize = null;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Fin de l'entrée courante non lue par l'appelant, puis bourrage jusqu'au bloc suivant
+         */
+        private void skipCurrent() throws IOException {
+            if (current == null) {
+                return;
+            }
+            current.skipRemaining();
+            long padding = (BLOCK - current.size % BLOCK) % BLOCK;
+            skipFully(padding);
+            current = null;
+        }
+
+        private boolean readBlock() throws IOException {
+            int read = in.readNBytes(header, 0, BLOCK);
+            if (read == 0) {
+                return false;
+            }
+            if (read < BLOCK) {
+                throw new EOFException("Archive tar tronquée");
+            }
+            return true;
+        }
+
+        private boolean isZeroBlock() {
+            for (byte b : header) {
+                if (b != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String name() {
+            String name = field(0, 100);
+            // ustar : préfixe du chemin séparé du nom
+            if (field(257, 5).equals("ustar")) {
+                String prefix = field(345, 155);
+                if (!prefix.isEmpty()) {
+                    name = prefix + "/" + name;
+                }
+            }
+            return name;
+        }
+
+        private String field(int offset, int length) {
+            return trimNul(new String(header, offset, length, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Nombre octal, ou binaire (base 256) si le premier octet a son bit de poids fort
+         */
+        private long number(int offset, int length) throws IOException {
+            if ((header[offset] & 0x80) != 0) {
+                long value = header[offset] & 0x7f;
+                for (int i = 1; i < length; i++) {
+                    value = (value << 8) | (header[offset + i] & 0xff);
+                }
+                return value;
+            }
+            String octal = field(offset, length).trim();
+            if (octal.isEmpty()) {
+                return 0;
+            }
+            try {
+                return Long.parseLong(octal, 8);
+            } catch (NumberFormatException e) {
+                throw new IOException("En-tête tar invalide");
+            }
+        }
+
+        private void skipFully(long count) throws IOException {
+            while (count > 0) {
+                long skipped = in.skip(count);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        throw new EOFException("Archive tar tronquée");
+                    }
+                    skipped = 1;
+                }
+                count -= skipped;
+            }
+        }
+
+        private static String trimNul(String value) {
+            int end = value.indexOf('\0');
+            return end >= 0 ? value.substring(0, end) : value;
+        }
+    }
+
+    /**
+     * Contenu d'une entrée tar : limité à sa taille, sans fermer l'archive
+     */
+    private static final class Bounded extends FilterInputStream {
+
+        private static final int MAX_HEADER_ENTRY = 1024 * 1024;
+
+        private final long size;
+        private long remaining;
+
+        Bounded(InputStream in, long size) {
+            super(in);
+            this.size = size;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Archive tar tronquée");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(b, off, (int) Math.min(len, remaining));
+            if (read < 0) {
+                throw new EOFException("Archive tar tronquée");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public void close() {
+            // L'archive reste ouverte pour les entrées suivantes
+        }
+
+        byte[] readAll() throws IOException {
+            if (size > MAX_HEADER_ENTRY) {
+                throw new IOException("En-tête tar étendu trop grand");
+            }
+            return readAllBytes();
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (remaining > 0) {
+                long skipped = skip(remaining);
+                if (skipped <= 0 && read(buffer, 0, (int) Math.min(buffer.length, remaining)) < 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Contenu d'une entrée ZIP : la fermeture n'affecte pas l'archive
+     */
+    private static final class NonClosing extends FilterInputStream {
+
+        NonClosing(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // L'archive reste ouverte pour les entrées suivantes
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.esignature.service;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDSignatureField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTerminalField;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Index des positions d'un PDF (boîtes des pages, champs de formulaire et lignes de texte), construit une fois
+ * au contrôle du dépôt
+ *
+ * Les emplacements de signature désignés par nom de champ ou par texte d'ancrage sont résolus par simple
+ * recherche dans cet index : aucune extraction de texte n'est faite au moment de la signature.
+ * Les coordonnées sont exprimées dans l'espace utilisateur de la page (origine en bas à gauche).
+ */
+public record PageLayoutIndex(List<PageBox> pages, List<FieldPosition> fields, List<TextLine> lines) {
+
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Construire l'index d'un document chargé
+     */
+    public static PageLayoutIndex build(PDDocument document) throws IOException {
+        List<PageBox> pages = new ArrayList<>(document.getNumberOfPages());
+        for (PDPage page : document.getPages()) {
+            PDRectangle mediaBox = page.getMediaBox();
+            PDRectangle cropBox = page.getCropBox();
+            pages.add(new PageBox(mediaBox.getWidth(), mediaBox.getHeight(), cropBox.getLowerLeftX(),
+                    cropBox.getLowerLeftY(), cropBox.getWidth(), cropBox.getHeight(), page.getRotation()));
+        }
+        return new PageLayoutIndex(pages, indexFields(document), indexText(document));
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Position d'un champ de formulaire par son nom complet
+     */
+    public Optional<FieldPosition> field(String name) {
+        return fields.stream().filter(field -> field.name().equals(name)).findFirst();
+    }
+
+    /**
+     * Toutes les occurrences d'un texte d'ancrage (insensible à la casse ; les espaces, peu fiables à
+     * l'extraction, sont ignorés)
+     */
+    public List<TextAnchor> findAnchors(String anchorText) {
+        String needle = anchorText.replaceAll("\\s+", "");
+        List<TextAnchor> anchors = new ArrayList<>();
+        if (needle.isEmpty()) {
+            return anchors;
+        }
+
+        for (TextLine line : lines) {
+            // Texte de la ligne sans espaces et mot correspondant à chaque caractère
+            StringBuilder text = new StringBuilder();
+            List<Integer> wordAt = new ArrayList<>();
+            for (int i = 0; i < line.words().size(); i++) {
+                String word = line.words().get(i).text();
+                text.append(word);
+                for (int c = 0; c < word.length(); c++) {
+                    wordAt.add(i);
+                }
+            }
+
+            String haystack = text.toString();
+            for (int start = 0; start + needle.length() <= haystack.length(); start++) {
+                if (!haystack.regionMatches(true, start, needle, 0, needle.length())) {
+                    continue;
+                }
+                Word first = line.words().get(wordAt.get(start));
+                Word last = line.words().get(wordAt.get(start + needle.length() - 1));
+                anchors.add(new TextAnchor(line.page(), first.x(), line.baseline(),
+                        last.x() + last.width() - first.x(), line.height()));
+                start += needle.length() - 1;
+            }
+        }
+        return anchors;
+    }
+
+    /**
+     * Relire un index depuis sa forme stockée
+     */
+    public static PageLayoutIndex fromBytes(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Format d'index de document inconnu");
+            }
+            int pageCount = in.readInt();
+            List<PageBox> pages = new ArrayList<>(pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                pages.add(new PageBox(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat(),
+                        in.readFloat(), in.readFloat(), in.readInt()));
+            }
+
+            int fieldCount = in.readInt();
+            List<FieldPosition> fields = new ArrayList<>(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                fields.add(new FieldPosition(in.readUTF(), in.readInt(), in.readFloat(), in.readFloat(),
+                        in.readFloat(), in.readFloat(), in.readBoolean(), in.readBoolean()));
+            }
+
+            int lineCount = in.readInt();
+            List<TextLine> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                int page = in.readInt();
+                float baseline = in.readFloat();
+                float height = in.readFloat();
+                int wordCount = in.readInt();
+                List<Word> words = new ArrayList<>(wordCount);
+                for (int w = 0; w < wordCount; w++) {
+                    words.add(new Word(in.readUTF(), in.readFloat(), in.readFloat()));
+                }
+                lines.add(new TextLine(page, baseline, height, words));
+            }
+            return new PageLayoutIndex(pages, fields, lines);
+        }
+    }
+
+    /**
+     * Forme stockée : version, boîtes des pages, champs et lignes, compressés Flate
+     */
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(buffer, deflater))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(pages.size());
+            for (PageBox page : pages) {
+                out.writeFloat(page.width());
+                out.writeFloat(page.height());
+                out.writeFloat(page.cropX());
+                out.writeFloat(page.cropY());
+                out.writeFloat(page.cropWidth());
+                out.writeFloat(page.cropHeight());
+                out.writeInt(page.rotation());
+            }
+
+            out.writeInt(fields.size());
+            for (FieldPosition field : fields) {
+                out.writeUTF(field.name());
+                out.writeInt(field.page());
+                out.writeFloat(field.x());
+                out.writeFloat(field.y());
+                out.writeFloat(field.width());
+                out.writeFloat(field.height());
+                out.writeBoolean(field.signature());
+                out.writeBoolean(field.signed());
+            }
+
+            out.writeInt(lines.size());
+            for (TextLine line : lines) {
+                out.writeInt(line.page());
+                out.writeFloat(line.baseline());
+                out.writeFloat(line.height());
+                out.writeInt(line.words().size());
+                for (Word word : line.words()) {
+                    out.writeUTF(word.text());
+                    out.writeFloat(word.x());
+                    out.writeFloat(word.width());
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Champs terminaux du formulaire avec la page et le rectangle de leur premier widget
+     */
+    private static List<FieldPosition> indexFields(PDDocument document) {
+        List<FieldPosition> fields = new ArrayList<>();
+        PDAcroForm acroForm = document.getDocumentCatalog().getAcroForm(null);
+        if (acroForm == null) {
+            return fields;
+        }
+
+        // Page de chaque widget, pour les widgets sans référence /P
+        Map<COSDictionary, Integer> widgetPages = null;
+
+        for (PDField field : acroForm.getFieldTree()) {
+            if (!(field instanceof PDTerminalField terminal) || terminal.getWidgets().isEmpty()) {
+                continue;
+            }
+            PDAnnotationWidget widget = terminal.getWidgets().get(0);
+            PDRectangle rectangle = widget.getRectangle();
+            if (rectangle == null) {
+                continue;
+            }
+
+            int page = -1;
+            PDPage widgetPage = widget.getPage();
+            if (widgetPage != null) {
+                page = document.getPages().indexOf(widgetPage);
+            }
+            if (page < 0) {
+                if (widgetPages == null) {
+                    widgetPages = widgetPages(document);
+                }
+                page = widgetPages.getOrDefault(widget.getCOSObject(), -1);
+            }
+            if (page < 0) {
+                continue;
+            }
+
+            boolean signature = field instanceof PDSignatureField;
+            boolean signed = signature && ((PDSignatureField) field).getSignature() != null;
+            fields.add(new FieldPosition(field.getFullyQualifiedName(), page, rectangle.getLowerLeftX(),
+                    rectangle.getLowerLeftY(), rectangle.getWidth(), rectangle.getHeight(), signature, signed));
+        }
+        return fields;
+    }
+
+    private static Map<COSDictionary, Integer> widgetPages(PDDocument document) {
+        Map<COSDictionary, Integer> pages = new IdentityHashMap<>();
+        for (int page = 0; page < document.getNumberOfPages(); page++) {
+            try {
+                for (PDAnnotation annotation : document.getPage(page).getAnnotations()) {
+                    pages.put(annotation.getCOSObject(), page);
+                }
+            } catch (IOException e) {
+                // Annotations illisibles : les champs de cette page ne sont pas indexés
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Lignes de texte (mots et positions) des pages non pivotées
+     */
+    private static List<TextLine> indexText(PDDocument document) throws IOException {
+        LineCollector collector = new LineCollector();
+        collector.setSortByPosition(true);
+        collector.writeText(document, Writer.nullWriter());
+        return collector.lines;
+    }
+
+    /**
+     * Boîtes d'une page : MediaBox (taille), CropBox (zone visible) et rotation en degrés
+     */
+    public record PageBox(float width, float height, float cropX, float cropY, float cropWidth, float cropHeight,
+                          int rotation) {
+    }
+
+    /**
+     * Champ de formulaire (page, rectangle) ; signed indique un champ de signature déjà signé
+     */
+    public record FieldPosition(String name, int page, float x, float y, float width, float height,
+                                boolean signature, boolean signed) {
+    }
+
+    /**
+     * Occurrence d'un texte d'ancrage : début du texte sur sa ligne de base, largeur et hauteur du texte
+     */
+    public record TextAnchor(int page, float x, float baseline, float width, float height) {
+    }
+
+    public record TextLine(int page, float baseline, float height, List<Word> words) {
+    }
+
+    /**
+     * Mot d'une ligne, sans espaces
+     */
+    public record Word(String text, float x, float width) {
+    }
+
+    /**
+     * Extracteur qui conserve les mots et leur position au lieu d'écrire le texte
+     */
+    private static final class LineCollector extends PDFTextStripper {
+
+        private static final int MAX_WORD_LENGTH = 1024;
+
+        private final List<TextLine> lines = new ArrayList<>();
+        private final List<Word> words = new ArrayList<>();
+        private int page;
+        private boolean indexed;
+        private float cropLeft;
+        private float cropTop;
+        private float baseline;
+        private float height;
+
+        LineCollector() throws IOException {
+        }
+
+        @Override
+        protected void startPage(PDPage pdPage) throws IOException {
+            page = getCurrentPageNo() - 1;
+            // Sur une page pivotée les coordonnées d'affichage ne correspondent plus à l'espace utilisateur
+            indexed = pdPage.getRotation() == 0;
+            PDRectangle cropBox = pdPage.getCropBox();
+            cropLeft = cropBox.getLowerLeftX();
+            cropTop = cropBox.getUpperRightY();
+            super.startPage(pdPage);
+        }
+
+        @Override
+        protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+            if (!indexed || textPositions.isEmpty() || text.isBlank() || text.length() > MAX_WORD_LENGTH) {
+                return;
+            }
+            TextPosition first = textPositions.get(0);
+            TextPosition last = textPositions.get(textPositions.size() - 1);
+            if (words.isEmpty()) {
+                baseline = cropTop - first.getYDirAdj();
+                height = 0;
+            }
+            for (TextPosition position : textPositions) {
+                height = Math.max(height, position.getHeightDir());
+            }
+            float x = cropLeft + first.getXDirAdj();
+            float right = cropLeft + last.getXDirAdj() + last.getWidthDirAdj();
+            words.add(new Word(text.replaceAll("\\s+", ""), x, right - x));
+        }
+
+        @Override
+        protected void writeLineSeparator() throws IOException {
+            flushLine();
+        }
+
+        @Override
+        protected void endPage(PDPage pdPage) throws IOException {
+            flushLine();
+            super.endPage(pdPage);
+        }
+
+        private void flushLine() {
+            if (!words.isEmpty()) {
+                lines.add(new TextLine(page, baseline, height, List.copyOf(words)));
+                words.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.esignature.service;
+
+import com.esignature.model.entity.Document;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Lecture et enregistrement de l'index de positions des documents, stocké à côté du fichier original
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PageLayoutIndexService {
+
+    private static final String INDEX_SUFFIX = ".layout";
+
+    private final StorageService storageService;
+
+    @Value("${storage.location}")
+    private String storageLocation;
+
+    /**
+     * Enregistrer l'index d'un document à côté de son fichier original
+     */
+    public Path save(PageLayoutIndex index, String fileName) throws IOException {
+        return storageService.write(storageLocation, fileName + INDEX_SUFFIX, index.toBytes());
+    }
+
+    /**
+     * Index d'un document ; construit et enregistré à la première utilisation si le contrôle du dépôt ne l'a
+     * pas encore produit (document antérieur, contrôle en attente ou format d'index obsolète)
+     */
+    public PageLayoutIndex getIndex(Document document, byte[] pdfBytes) throws IOException {
+        if (document.getLayoutIndexPath() != null) {
+            try {
+                return PageLayoutIndex.fromBytes(storageService.read(document.getLayoutIndexPath()));
+            } catch (IOException e) {
+                log.info("Index de positions du document {} reconstruit : {}", document.getId(), e.getMessage());
+            }
+        }
+
+        String fileName = Path.of(document.getOriginalFilePath()).getFileName().toString();
+        PageLayoutIndex index;
+        long start = System.nanoTime();
+        try (PDDocument pdf = Loader.loadPDF(pdfBytes)) {
+            index = PageLayoutIndex.build(pdf);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Le document n'est pas un PDF lisible");
+        }
+        log.debug("Index de positions de {} : {} pages, {} champs, {} lignes en {} ms", fileName,
+                index.pageCount(), index.fields().size(), index.lines().size(),
+                (System.nanoTime() - start) / 1_000_000);
+        document.setLayoutIndexPath(save(index, fileName).toString());
+        return index;
+    }
+}
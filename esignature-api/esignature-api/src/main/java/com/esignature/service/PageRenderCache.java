@@ -0,0 +1,170 @@
+package com.esignature.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Cache disque LRU des aperçus de pages, borné en octets
+ *
+ * Les clés dérivent de l'empreinte du contenu du PDF : un fichier réécrit ou une nouvelle version signée
+ * donne de nouvelles clés, les anciennes entrées sortent du cache par éviction. L'ordre d'utilisation est
+ * tenu en mémoire ; au démarrage, les fichiers présents sont repris du plus ancien au plus récent.
+ */
+@Component
+@Slf4j
+public class PageRenderCache {
+
+    private static final String EXTENSION = ".png";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private final StorageService storageService;
+    private final Path location;
+    private final long maxBytes;
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    public PageRenderCache(
+            StorageService storageService,
+            MeterRegistry registry,
+            @Value("${render.cache.location:./render-cache}") String location,
+            @Value("${render.cache.max-bytes:268435456}") long maxBytes
+    ) {
+        this.storageService = storageService;
+        this.location = Paths.get(location);
+        this.maxBytes = maxBytes;
+        load();
+        Gauge.builder("esignature.cache.page-renders.bytes", this, PageRenderCache::bytes)
+                .description("Octets occupés par le cache disque des aperçus de pages")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("esignature.cache.page-renders.size", this, PageRenderCache::size)
+                .description("Entrées du cache disque des aperçus de pages")
+                .register(registry);
+    }
+
+    /**
+     * Aperçu en cache, null s'il n'y est pas (ou plus)
+     */
+    public byte[] get(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            return storageService.read(file(key).toString());
+        } catch (IOException e) {
+            // Évincé entre-temps par un autre thread
+            return null;
+        }
+    }
+
+    /**
+     * Ajouter un aperçu en évinçant les moins récemment utilisés jusqu'à respecter le budget
+     */
+    public void put(String key, byte[] content) throws IOException {
+        if (content.length > maxBytes) {
+            return;
+        }
+
+        Files.createDirectories(location);
+        storageService.replace(file(key).toString(), content);
+
+        List<String> evicted;
+        synchronized (this) {
+            Long previous = entries.put(key, (long) content.length);
+            if (previous != null) {
+                currentBytes -= previous;
+            }
+            currentBytes += content.length;
+            evicted = evictOverBudget();
+        }
+        deleteFiles(evicted);
+    }
+
+    public synchronized long bytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retirer les entrées les moins récemment utilisées jusqu'à respecter le budget (appelé sous verrou)
+     */
+    private List<String> evictOverBudget() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            currentBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    private void deleteFiles(List<String> keys) {
+        for (String key : keys) {
+            try {
+                storageService.delete(file(key).toString());
+            } catch (IOException e) {
+                log.warn("Aperçu {} non supprimé du cache : {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return location.resolve(key + EXTENSION);
+    }
+
+    /**
+     * Reprendre les aperçus déjà sur disque ; les écritures interrompues sont supprimées, et les plus anciens
+     * aperçus aussi si le budget a été réduit depuis leur écriture
+     */
+    private void load() {
+        if (!Files.isDirectory(location)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(location)) {
+            List<Path> cached = new ArrayList<>();
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_EXTENSION)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(EXTENSION)) {
+                    cached.add(file);
+                }
+            }
+            cached.sort(Comparator.comparing(file -> file.toFile().lastModified()));
+            for (Path file : cached) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - EXTENSION.length()), size);
+                currentBytes += size;
+            }
+            List<String> evicted = evictOverBudget();
+            deleteFiles(evicted);
+            log.info("Cache des aperçus : {} entrée(s), {} octets ({} supprimée(s) hors budget)",
+                    entries.size(), currentBytes, evicted.size());
+        } catch (IOException e) {
+            log.warn("Cache des aperçus non relu depuis {} : {}", location, e.getMessage());
+        }
+    }
+}
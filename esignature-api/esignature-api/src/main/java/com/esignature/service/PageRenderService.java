@@ -0,0 +1,262 @@
+package com.esignature.service;
+
+import com.esignature.config.AsyncConfig;
+import com.esignature.model.entity.Document;
+import com.esignature.model.enums.PreflightStatus;
+import com.esignature.repository.DocumentRepository;
+import com.esignature.tracing.DocumentTracing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aperçus PNG des pages d'un document, rendus à la demande page par page
+ *
+ * Le rendu se fait dans une cloison dédiée ({@link AsyncConfig#RENDER_EXECUTOR}) et le résultat est gardé dans
+ * un cache disque ({@link PageRenderCache}) dont la clé est l'empreinte du contenu du PDF, la page et la
+ * résolution. Deux demandes simultanées de la même page partagent le même rendu.
+ */
+@Service
+@Slf4j
+public class PageRenderService {
+
+    private static final int MAX_DIGEST_ENTRIES = 10_000;
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final DocumentRepository documentRepository;
+    private final StorageService storageService;
+    private final PageRenderCache pageRenderCache;
+    private final DocumentTracing documentTracing;
+    private final TaskExecutor renderExecutor;
+    private final MeterRegistry meterRegistry;
+    private final int defaultDpi;
+    private final int minDpi;
+    private final int maxDpi;
+    private final long maxPixels;
+    private final long timeoutMs;
+
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    // Empreintes des fichiers déjà hachés, valides tant que le fichier n'est pas remplacé
+    private final Map<String, FileDigest> digests = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileDigest> eldest) {
+            return size() > MAX_DIGEST_ENTRIES;
+        }
+    };
+
+    public PageRenderService(
+            DocumentRepository documentRepository,
+            StorageService storageService,
+            PageRenderCache pageRenderCache,
+            DocumentTracing documentTracing,
+            @Qualifier(AsyncConfig.RENDER_EXECUTOR) TaskExecutor renderExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${render.default-dpi:72}") int defaultDpi,
+            @Value("${render.min-dpi:18}") int minDpi,
+            @Value("${render.max-dpi:300}") int maxDpi,
+            @Value("${render.max-pixels:16000000}") long maxPixels,
+            @Value("${render.timeout-ms:30000}") long timeoutMs
+    ) {
+        this.documentRepository = documentRepository;
+        this.storageService = storageService;
+        this.pageRenderCache = pageRenderCache;
+        this.documentTracing = documentTracing;
+        this.renderExecutor = renderExecutor;
+        this.meterRegistry = meterRegistry;
+        this.defaultDpi = defaultDpi;
+        this.minDpi = minDpi;
+        this.maxDpi = maxDpi;
+        this.maxPixels = maxPixels;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Identifier l'aperçu demandé sans le rendre : version du fichier (signée si elle existe, sauf demande de
+     * l'original), empreinte du contenu et résolution retenue
+     */
+    public PageImage locate(Long documentId, int pageNumber, Integer dpi, boolean original) throws IOException {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("Document non trouvé"));
+        documentTracing.tagCurrent(documentId);
+
+        if (document.getPreflightStatus() == PreflightStatus.REJECTED) {
+            throw new IllegalStateException("Document refusé au contrôle : " + document.getPreflightError());
+        }
+        if (pageNumber < 0 || (document.getPageCount() != null && pageNumber >= document.getPageCount())) {
+            throw new IllegalArgumentException("Page " + pageNumber + " inexistante");
+        }
+
+        String filePath = original || document.getSignedFilePath() == null
+                ? document.getOriginalFilePath() : document.getSignedFilePath();
+        int resolution = Math.max(minDpi, Math.min(maxDpi, dpi != null ? dpi : defaultDpi));
+        return new PageImage(documentId, filePath, contentDigest(filePath), pageNumber, resolution);
+    }
+
+    /**
+     * Aperçu PNG d'une page, depuis le cache ou rendu dans la cloison de rendu ; le résultat est attendu sans
+     * bloquer le thread de la requête. Refus immédiat (TaskRejectedException) si la cloison est saturée.
+     */
+    public CompletableFuture<byte[]> render(PageImage page) {
+        String key = page.cacheKey();
+        byte[] cached = pageRenderCache.get(key);
+        meterRegistry.counter("esignature.render.cache.requests", "result", cached != null ? "hit" : "miss")
+                .increment();
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return withTimeout(existing);
+        }
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    byte[] png = renderNow(page);
+                    created.complete(png);
+                    pageRenderCache.put(key, png);
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return withTimeout(created);
+    }
+
+    /**
+     * Délai propre à chaque demandeur : le rendu partagé n'est pas interrompu pour les autres
+     */
+    private CompletableFuture<byte[]> withTimeout(CompletableFuture<byte[]> rendering) {
+        return rendering.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private byte[] renderNow(PageImage page) throws IOException {
+        long start = System.nanoTime();
+        try (DocumentTracing.Scope ignored = documentTracing.open(page.documentId())) {
+            RandomAccessRead source = storageService.openRandomAccess(page.filePath());
+            PDDocument pdf;
+            try {
+                // Le fichier est lu à la demande : seuls les objets de la page rendue sont chargés
+                pdf = Loader.loadPDF(source);
+            } catch (IOException e) {
+                source.close();
+                throw new IllegalArgumentException("Le document n'est pas un PDF lisible");
+            }
+
+            try (pdf) {
+                if (page.pageNumber() >= pdf.getNumberOfPages()) {
+                    throw new IllegalArgumentException("Page " + page.pageNumber() + " inexistante");
+                }
+
+                PDRectangle box = pdf.getPage(page.pageNumber()).getCropBox();
+                float scale = page.dpi() / POINTS_PER_INCH;
+                double pixels = (double) box.getWidth() * box.getHeight() * scale * scale;
+                if (pixels > maxPixels) {
+                    // Très grand format : résolution réduite pour rester dans le budget mémoire
+                    scale *= (float) Math.sqrt(maxPixels / pixels);
+                }
+
+                PDFRenderer renderer = new PDFRenderer(pdf);
+                renderer.setSubsamplingAllowed(true);
+                BufferedImage image = renderer.renderImage(page.pageNumber(), scale, ImageType.RGB);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", out);
+                log.debug("Page {} du document {} rendue à {} dpi : {}x{}, {} octets", page.pageNumber(),
+                        page.documentId(), page.dpi(), image.getWidth(), image.getHeight(), out.size());
+                return out.toByteArray();
+            }
+        } finally {
+            Timer.builder("esignature.render.duration")
+                    .description("Durée du rendu des aperçus de pages")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Empreinte SHA-256 du contenu d'un fichier stocké, recalculée seulement si le fichier a été remplacé
+     */
+    private String contentDigest(String filePath) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = storageService.attributes(filePath);
+        } catch (IOException e) {
+            throw new IllegalStateException("Fichier du document introuvable", e);
+        }
+        String version = attributes.fileKey() + ":" + attributes.size() + ":" + attributes.lastModifiedTime();
+
+        synchronized (digests) {
+            FileDigest known = digests.get(filePath);
+            if (known != null && known.version().equals(version)) {
+                return known.digest();
+            }
+        }
+
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // Lecture par blocs : le PDF n'est jamais chargé entièrement en mémoire pour calculer son empreinte
+        try (InputStream in = storageService.openStream(filePath)) {
+            byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                sha256.update(buffer, 0, read);
+            }
+        }
+        String digest = HexFormat.of().formatHex(sha256.digest());
+        synchronized (digests) {
+            digests.put(filePath, new FileDigest(version, digest));
+        }
+        return digest;
+    }
+
+    private record FileDigest(String version, String digest) {
+    }
+
+    /**
+     * Aperçu identifié : document, fichier et empreinte de son contenu, page (à partir de 0) et résolution
+     */
+    public record PageImage(Long documentId, String filePath, String contentDigest, int pageNumber, int dpi) {
+
+        public String cacheKey() {
+            return contentDigest + "-p" + pageNumber + "-" + dpi;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.esignature.service;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Optimisation d'un PDF déposé avant sa première signature
+ *
+ * Les images et programmes de polices identiques (même flux encodé, même dictionnaire) ne sont gardés qu'une
+ * fois, les flux de contenu non compressés sont compressés Flate, et le fichier est réécrit avec flux d'objets
+ * et table xref compressée. La réécriture complète part du trailer : les objets qui ne sont plus référencés
+ * disparaissent. Le rendu des pages est inchangé.
+ */
+public final class PdfOptimizer {
+
+    private static final List<COSName> FONT_FILES = List.of(COSName.FONT_FILE, COSName.FONT_FILE2, COSName.FONT_FILE3);
+    private static final int MAX_DESCRIBE_DEPTH = 8;
+
+    private final Map<String, COSStream> canonicalStreams = new HashMap<>();
+    private final Map<COSStream, String> digests = new IdentityHashMap<>();
+    private final Set<COSDictionary> visitedResources = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int deduplicatedImages;
+    private int deduplicatedFonts;
+    private int compressedStreams;
+
+    private PdfOptimizer() {
+    }
+
+    /**
+     * Optimiser un document chargé et le réécrire ; le document ne doit contenir aucune signature
+     */
+    public static Result optimize(PDDocument document, long originalSize) throws IOException {
+        if (!document.getSignatureDictionaries().isEmpty()) {
+            throw new IllegalStateException("Un document déjà signé ne peut pas être réécrit");
+        }
+
+        PdfOptimizer optimizer = new PdfOptimizer();
+        for (PDPage page : document.getPages()) {
+            optimizer.compressContents(page.getCOSObject().getDictionaryObject(COSName.CONTENTS));
+            if (page.getResources() != null) {
+                optimizer.visitResources(page.getResources().getCOSObject());
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(originalSize, Integer.MAX_VALUE - 8));
+        document.save(out, CompressParameters.DEFAULT_COMPRESSION);
+        return new Result(out.toByteArray(), originalSize, optimizer.deduplicatedImages,
+                optimizer.deduplicatedFonts, optimizer.compressedStreams);
+    }
+
+    private void visitResources(COSDictionary resources) throws IOException {
+        if (resources == null || !visitedResources.add(resources)) {
+            return;
+        }
+
+        COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+        if (xObjects != null) {
+            for (COSName name : new ArrayList<>(xObjects.keySet())) {
+                if (!(xObjects.getDictionaryObject(name) instanceof COSStream xObject)) {
+                    continue;
+                }
+                if (COSName.IMAGE.equals(xObject.getCOSName(COSName.SUBTYPE))) {
+                    COSStream canonical = canonical(xObject);
+                    if (canonical != xObject) {
+                        xObjects.setItem(name, canonical);
+                        deduplicatedImages++;
+                    }
+                } else if (COSName.FORM.equals(xObject.getCOSName(COSName.SUBTYPE))) {
+                    compressContents(xObject);
+                    visitResources(xObject.getCOSDictionary(COSName.RESOURCES));
+                }
+            }
+        }
+
+        COSDictionary fonts = resources.getCOSDictionary(COSName.FONT);
+        if (fonts != null) {
+            for (COSName name : new ArrayList<>(fonts.keySet())) {
+                if (fonts.getDictionaryObject(name) instanceof COSDictionary font) {
+                    visitFont(font);
+                }
+            }
+        }
+    }
+
+    private void visitFont(COSDictionary font) throws IOException {
+        deduplicateFontFiles(font.getCOSDictionary(COSName.FONT_DESC));
+        replaceWithCanonical(font, COSName.TO_UNICODE);
+
+        // Police composite : programme porté par la police descendante
+        COSArray descendants = font.getCOSArray(COSName.DESCENDANT_FONTS);
+        if (descendants != null && descendants.size() > 0
+                && descendants.getObject(0) instanceof COSDictionary descendant) {
+            deduplicateFontFiles(descendant.getCOSDictionary(COSName.FONT_DESC));
+        }
+
+        // Police Type 3 : glyphes décrits avec leurs propres ressources
+        visitResources(font.getCOSDictionary(COSName.RESOURCES));
+    }
+
+    private void deduplicateFontFiles(COSDictionary descriptor) throws IOException {
+        if (descriptor == null) {
+            return;
+        }
+        for (COSName key : FONT_FILES) {
+            if (replaceWithCanonical(descriptor, key)) {
+                deduplicatedFonts++;
+            }
+        }
+    }
+
+    private boolean replaceWithCanonical(COSDictionary dictionary, COSName key) throws IOException {
+        if (!(dictionary.getDictionaryObject(key) instanceof COSStream stream)) {
+            return false;
+        }
+        COSStream canonical = canonical(stream);
+        if (canonical == stream) {
+            return false;
+        }
+        dictionary.setItem(key, canonical);
+        return true;
+    }
+
+    /**
+     * Premier flux rencontré ayant le même contenu encodé et le même dictionnaire
+     */
+    private COSStream canonical(COSStream stream) throws IOException {
+        return canonicalStreams.computeIfAbsent(digest(stream), key -> stream);
+    }
+
+    private String digest(COSStream stream) throws IOException {
+        String cached = digests.get(stream);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Marque provisoire : un flux qui se référence lui-même reste unique
+        digests.put(stream, "cycle:" + System.identityHashCode(stream));
+        MessageDigest sha256 = sha256();
+        try (InputStream in = stream.createRawInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sha256.update(buffer, 0, read);
+            }
+        }
+        sha256.update(describe(stream, 0).getBytes(StandardCharsets.UTF_8));
+        String digest = HexFormat.of().formatHex(sha256.digest());
+        digests.put(stream, digest);
+        return digest;
+    }
+
+    /**
+     * Description canonique d'un objet : les flux imbriqués (SMask, palettes) par leur empreinte ; au-delà d'une
+     * profondeur limitée, par leur identité (deux objets distincts ne sont alors jamais fusionnés)
+     */
+    private String describe(COSBase base, int depth) throws IOException {
+        if (depth > MAX_DESCRIBE_DEPTH) {
+            return "?" + System.identityHashCode(base);
+        }
+        if (base instanceof COSObject object) {
+            return describe(object.getObject(), depth);
+        }
+        if (base instanceof COSStream stream && depth > 0) {
+            return "stream:" + digest(stream);
+        }
+        if (base instanceof COSDictionary dictionary) {
+            Map<String, String> entries = new TreeMap<>();
+            for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet()) {
+                if (!COSName.LENGTH.equals(entry.getKey())) {
+                    entries.put(entry.getKey().getName(), describe(entry.getValue(), depth + 1));
+                }
+            }
+            return entries.toString();
+        }
+        if (base instanceof COSArray array) {
+            StringBuilder description = new StringBuilder("[");
+            for (COSBase item : array) {
+                description.append(describe(item, depth + 1)).append(' ');
+            }
+            return description.append(']').toString();
+        }
+        return String.valueOf(base);
+    }
+
+    /**
+     * Compresser les flux de contenu écrits sans filtre
+     */
+    private void compressContents(COSBase contents) throws IOException {
+        if (contents instanceof COSObject object) {
+            compressContents(object.getObject());
+        } else if (contents instanceof COSArray array) {
+            for (COSBase item : array) {
+                compressContents(item);
+            }
+        } else if (contents instanceof COSStream stream && stream.getDictionaryObject(COSName.FILTER) == null) {
+            byte[] data;
+            try (InputStream in = stream.createInputStream()) {
+                data = in.readAllBytes();
+            }
+            try (OutputStream out = stream.createOutputStream(COSName.FLATE_DECODE)) {
+                out.write(data);
+            }
+            compressedStreams++;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Résultat de l'optimisation : fichier réécrit et opérations effectuées
+     */
+    public record Result(byte[] content, long originalSize, int deduplicatedImages, int deduplicatedFonts,
+                         int compressedStreams) {
+
+        public long savedBytes() {
+            return originalSize - content.length;
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package com.esignature.service;
 
+import com.esignature.metrics.SigningMetrics;
 import com.esignature.model.enums.SignatureType;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceDictionary;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDSignatureField;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
@@ -26,12 +36,19 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class PdfSignatureService {
     
+    private final SigningMetrics signingMetrics;
+    private final SignatureAppearanceTemplates appearanceTemplates = new SignatureAppearanceTemplates();
+    
     /**
      * Signer un PDF avec une signature simple (image)
      */
@@ -44,8 +61,39 @@ public class PdfSignatureService {
             float width,
             float height
     ) throws IOException {
+        return stampImage(pdfBytes, document -> PDImageXObject.createFromByteArray(document, signatureImage, "signature"),
+                pageNumber, x, y, width, height);
+    }
+    
+    /**
+     * Signer un PDF avec une image de signature pré-convertie (aucun décodage ni réencodage)
+     */
+    public byte[] signPdfWithImage(
+            byte[] pdfBytes,
+            PreparedSignatureImage signatureImage,
+            int pageNumber,
+            float x,
+            float y,
+            float width,
+            float height
+    ) throws Exception {
+        return signPdf(pdfBytes, SignatureType.SIMPLE,
+                List.of(new ImageStamp(signatureImage, pageNumber, x, y, width, height)), null);
+    }
+    
+    private byte[] stampImage(
+            byte[] pdfBytes,
+            ImageFactory imageFactory,
+            int pageNumber,
+            float x,
+            float y,
+            float width,
+            float height
+    ) throws IOException {
+        long loadStart = System.nanoTime();
         try (PDDocument document = Loader.loadPDF(pdfBytes);
              ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            signingMetrics.record(SigningMetrics.STAGE_PDF_LOAD, SignatureType.SIMPLE, System.nanoTime() - loadStart);
             
             // Vérifier que la page existe
             if (pageNumber >= document.getNumberOfPages()) {
@@ -55,8 +103,8 @@ public class PdfSignatureService {
             PDPage page = document.getPage(pageNumber);
             
             // Créer l'image de signature
-            PDImageXObject pdImage = PDImageXObject.createFromByteArray(
-                    document, signatureImage, "signature");
+            long embedStart = System.nanoTime();
+            PDImageXObject pdImage = imageFactory.create(document);
             
             // Ajouter l'image sur la page
             try (PDPageContentStream contentStream = new PDPageContentStream(
@@ -64,8 +112,11 @@ public class PdfSignatureService {
                 
                 contentStream.drawImage(pdImage, x, y, width, height);
             }
+            signingMetrics.record(SigningMetrics.STAGE_IMAGE_EMBED, SignatureType.SIMPLE, System.nanoTime() - embedStart);
             
+            long saveStart = System.nanoTime();
             document.save(outputStream);
+            signingMetrics.record(SigningMetrics.STAGE_PDF_SAVE, SignatureType.SIMPLE, System.nanoTime() - saveStart);
             return outputStream.toByteArray();
             
         } catch (Exception e) {
@@ -74,6 +125,14 @@ public class PdfSignatureService {
         }
     }
     
+    /**
+     * Création de l'XObject image dans le document cible
+     */
+    @FunctionalInterface
+    private interface ImageFactory {
+        PDImageXObject create(PDDocument document) throws IOException;
+    }
+    
     /**
      * Signer un PDF avec un certificat numérique (signature avancée/qualifiée)
      */
@@ -90,17 +149,73 @@ public class PdfSignatureService {
             float width,
             float height
     ) throws Exception {
+        return signPdfWithCertificate(pdfBytes, keyStore, keyAlias, keyPassword, signatureType, signerName, null,
+                pageNumber, x, y, width, height);
+    }
+    
+    /**
+     * Signer un PDF avec un certificat numérique, avec une image de signature dans l'apparence visible
+     */
+    public byte[] signPdfWithCertificate(
+            byte[] pdfBytes,
+            KeyStore keyStore,
+            String keyAlias,
+            char[] keyPassword,
+            SignatureType signatureType,
+            String signerName,
+            PreparedSignatureImage logo,
+            int pageNumber,
+            float x,
+            float y,
+            float width,
+            float height
+    ) throws Exception {
         
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+        return signPdf(pdfBytes, signatureType, List.of(), new CertificateSigning(keyStore, keyAlias, keyPassword,
+                signerName, logo, pageNumber, x, y, width, height));
+    }
+    
+    /**
+     * Appliquer en un seul chargement/enregistrement toutes les images (signatures, paraphes)
+     * et, le cas échéant, une signature cryptographique
+     */
+    public byte[] signPdf(
+            byte[] pdfBytes,
+            SignatureType signatureType,
+            List<ImageStamp> stamps,
+            CertificateSigning certificate
+    ) throws Exception {
+        
+        // Charger le document (fermé en sortie, y compris en cas d'erreur)
+        long loadStart = System.nanoTime();
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+             PDDocument document = Loader.loadPDF(pdfBytes)) {
+            
+            signingMetrics.record(SigningMetrics.STAGE_PDF_LOAD, signatureType, System.nanoTime() - loadStart);
             
-            // Charger le document
-            PDDocument document = Loader.loadPDF(pdfBytes);
+            // Images sur les pages : un flux ajouté par page, un XObject par image partagé entre les pages
+            if (!stamps.isEmpty()) {
+                long embedStart = System.nanoTime();
+                drawStamps(document, stamps);
+                signingMetrics.record(SigningMetrics.STAGE_IMAGE_EMBED, signatureType, System.nanoTime() - embedStart);
+            }
+            
+            if (certificate == null) {
+                long saveStart = System.nanoTime();
+                document.save(outputStream);
+                signingMetrics.record(SigningMetrics.STAGE_PDF_SAVE, signatureType, System.nanoTime() - saveStart);
+                return outputStream.toByteArray();
+            }
+            
+            KeyStore keyStore = certificate.keyStore();
+            String keyAlias = certificate.keyAlias();
+            char[] keyPassword = certificate.keyPassword();
             
             // Créer la signature PDF
             PDSignature signature = new PDSignature();
             signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
             signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
-            signature.setName(signerName);
+            signature.setName(certificate.signerName());
             signature.setSignDate(Calendar.getInstance());
             
             // Définir le type de signature
@@ -110,13 +225,12 @@ public class PdfSignatureService {
                 signature.setReason("Signature Électronique Avancée");
             }
             
-            // Ajouter la signature au document
-            document.addSignature(signature);
-            
-            // Créer le gestionnaire de signature
+            // Créer le gestionnaire de signature (appelé pendant saveIncremental)
+            long[] cmsNanos = new long[1];
             SignatureInterface signatureInterface = new SignatureInterface() {
                 @Override
                 public byte[] sign(InputStream content) throws IOException {
+                    long cmsStart = System.nanoTime();
                     try {
                         // Lire le contenu à signer
                         byte[] contentBytes = content.readAllBytes();
@@ -134,7 +248,7 @@ public class PdfSignatureService {
                         JcaCertStore certs = new JcaCertStore(certList);
                         
                         CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
-                        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
+                        ContentSigner signer = new JcaContentSignerBuilder(signatureAlgorithm(privateKey))
                                 .setProvider("BC")
                                 .build(privateKey);
                         
@@ -155,62 +269,192 @@ public class PdfSignatureService {
                         
                     } catch (Exception e) {
                         throw new IOException("Erreur lors de la signature", e);
+                    } finally {
+                        cmsNanos[0] = System.nanoTime() - cmsStart;
                     }
                 }
             };
             
-            // Signer le document
-            document.saveIncremental(outputStream);
+            // Champ de signature existant : addSignature réutilise le champ dont la valeur est cette signature
+            if (certificate.fieldName() != null) {
+                attachToExistingField(document, certificate.fieldName(), signature);
+            }
             
-            // Ajouter un champ visuel de signature si des coordonnées sont fournies
-            if (x >= 0 && y >= 0) {
-                addVisualSignature(document, pageNumber, x, y, width, height, signerName);
+            // Ajouter la signature au document (le contenu CMS est calculé à l'enregistrement)
+            document.addSignature(signature, signatureInterface);
+            
+            // Apparence visible du champ de signature si des coordonnées sont fournies
+            if (certificate.x() >= 0 && certificate.y() >= 0) {
+                PDAppearanceStream appearance = appearanceTemplates.createAppearance(document, certificate.width(),
+                        certificate.height(), certificate.signerName(), signature.getSignDate(), signature.getReason(),
+                        certificate.logo());
+                placeSignatureWidget(document, signature, certificate.pageNumber(), new PDRectangle(
+                        certificate.x(), certificate.y(), certificate.width(), certificate.height()), appearance);
             }
             
-            document.close();
+            // Signer le document (la durée CMS est comptée à part de l'écriture)
+            long saveStart = System.nanoTime();
+            document.saveIncremental(outputStream);
+            long saveNanos = System.nanoTime() - saveStart;
+            signingMetrics.record(SigningMetrics.STAGE_CMS_SIGN, signatureType, cmsNanos[0]);
+            signingMetrics.record(SigningMetrics.STAGE_PDF_SAVE, signatureType, saveNanos - cmsNanos[0]);
             
             return outputStream.toByteArray();
             
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Demande invalide (champ de signature absent, déjà signé...) : transmise telle quelle
+            throw e;
         } catch (Exception e) {
+            if (certificate == null) {
+                log.error("Erreur lors de la signature simple du PDF", e);
+                throw new IOException("Échec de la signature du PDF", e);
+            }
             log.error("Erreur lors de la signature du PDF avec certificat", e);
             throw new Exception("Échec de la signature cryptographique du PDF", e);
         }
     }
     
     /**
-     * Ajouter un champ visuel de signature
+     * Dessiner les images, regroupées par page ; {@link ImageStamp#ALL_PAGES} répète l'image sur chaque page
      */
-    private void addVisualSignature(
-            PDDocument document,
+    private void drawStamps(PDDocument document, List<ImageStamp> stamps) throws IOException {
+        int pageCount = document.getNumberOfPages();
+        Map<Integer, List<ImageStamp>> stampsByPage = new TreeMap<>();
+        for (ImageStamp stamp : stamps) {
+            if (stamp.pageNumber() == ImageStamp.ALL_PAGES) {
+                for (int page = 0; page < pageCount; page++) {
+                    stampsByPage.computeIfAbsent(page, key -> new ArrayList<>()).add(stamp);
+                }
+            } else {
+                int page = Math.min(Math.max(stamp.pageNumber(), 0), pageCount - 1);
+                stampsByPage.computeIfAbsent(page, key -> new ArrayList<>()).add(stamp);
+            }
+        }
+        
+        Map<PreparedSignatureImage, PDImageXObject> xObjects = new IdentityHashMap<>();
+        for (Map.Entry<Integer, List<ImageStamp>> entry : stampsByPage.entrySet()) {
+            PDPage page = document.getPage(entry.getKey());
+            try (PDPageContentStream contentStream = new PDPageContentStream(
+                    document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                for (ImageStamp stamp : entry.getValue()) {
+                    PDImageXObject xObject = xObjects.get(stamp.image());
+                    if (xObject == null) {
+                        xObject = stamp.image().toXObject(document);
+                        xObjects.put(stamp.image(), xObject);
+                    }
+                    contentStream.drawImage(xObject, stamp.x(), stamp.y(), stamp.width(), stamp.height());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Image à apposer (signature ou paraphe)
+     */
+    public record ImageStamp(PreparedSignatureImage image, int pageNumber, float x, float y, float width, float height) {
+        
+        /** Numéro de page signifiant « toutes les pages » (paraphes) */
+        public static final int ALL_PAGES = -1;
+    }
+    
+    /**
+     * Paramètres de la signature cryptographique et de son champ visible
+     */
+    public record CertificateSigning(
+            KeyStore keyStore,
+            String keyAlias,
+            char[] keyPassword,
+            String signerName,
+            PreparedSignatureImage logo,
             int pageNumber,
             float x,
             float y,
             float width,
             float height,
-            String signerName
+            String fieldName
+    ) {
+        
+        /**
+         * Signature dans un nouveau champ
+         */
+        public CertificateSigning(KeyStore keyStore, String keyAlias, char[] keyPassword, String signerName,
+                                  PreparedSignatureImage logo, int pageNumber, float x, float y, float width,
+                                  float height) {
+            this(keyStore, keyAlias, keyPassword, signerName, logo, pageNumber, x, y, width, height, null);
+        }
+    }
+    
+    /**
+     * Lier la signature à un champ de signature vide du formulaire
+     */
+    private void attachToExistingField(PDDocument document, String fieldName, PDSignature signature)
+            throws IOException {
+        PDAcroForm acroForm = document.getDocumentCatalog().getAcroForm(null);
+        PDField field = acroForm != null ? acroForm.getField(fieldName) : null;
+        if (!(field instanceof PDSignatureField signatureField)) {
+            throw new IllegalArgumentException("Champ de signature introuvable : " + fieldName);
+        }
+        if (signatureField.getSignature() != null) {
+            throw new IllegalStateException("Le champ de signature " + fieldName + " est déjà signé");
+        }
+        signatureField.setValue(signature);
+    }
+    
+    /**
+     * Algorithme de signature CMS adapté au type de clé (RSA ou EC)
+     */
+    private String signatureAlgorithm(PrivateKey privateKey) {
+        String keyAlgorithm = privateKey.getAlgorithm();
+        return "EC".equals(keyAlgorithm) || "ECDSA".equals(keyAlgorithm) ? "SHA256withECDSA" : "SHA256withRSA";
+    }
+    
+    /**
+     * Placer le widget du champ de signature sur la page demandée avec son apparence (/AP)
+     *
+     * addSignature crée un widget invisible sur la première page : on le déplace et on lui donne
+     * une taille et une apparence, sans toucher au contenu des pages.
+     */
+    private void placeSignatureWidget(
+            PDDocument document,
+            PDSignature signature,
+            int pageNumber,
+            PDRectangle rectangle,
+            PDAppearanceStream appearance
     ) throws IOException {
+        PDSignatureField field = document.getSignatureFields().stream()
+                .filter(candidate -> candidate.getCOSObject().getDictionaryObject(COSName.V) == signature.getCOSObject())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Champ de signature introuvable"));
+        PDAnnotationWidget widget = field.getWidgets().get(0);
         
         if (pageNumber >= document.getNumberOfPages()) {
             pageNumber = document.getNumberOfPages() - 1;
         }
-        
         PDPage page = document.getPage(pageNumber);
         
-        try (PDPageContentStream contentStream = new PDPageContentStream(
-                document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
-            
-            // Dessiner un rectangle pour la signature
-            contentStream.setNonStrokingColor(0.9f, 0.9f, 1.0f);
-            contentStream.addRect(x, y, width, height);
-            contentStream.fill();
-            
-            // Ajouter le texte
-            contentStream.beginText();
-            contentStream.setNonStrokingColor(0, 0, 0);
-            contentStream.newLineAtOffset(x + 5, y + height - 15);
-            contentStream.showText("Signé par: " + signerName);
-            contentStream.endText();
+        // addSignature rattache aussi le widget d'un champ existant à la première page
+        for (PDPage otherPage : List.of(widget.getPage() != null ? widget.getPage() : page, document.getPage(0))) {
+            if (otherPage.getCOSObject() != page.getCOSObject()) {
+                List<PDAnnotation> annotations = otherPage.getAnnotations();
+                if (annotations.removeIf(annotation -> annotation.getCOSObject() == widget.getCOSObject())) {
+                    otherPage.setAnnotations(annotations);
+                }
+            }
         }
+        
+        List<PDAnnotation> annotations = page.getAnnotations();
+        if (annotations.stream().noneMatch(annotation -> annotation.getCOSObject() == widget.getCOSObject())) {
+            annotations.add(widget);
+            page.setAnnotations(annotations);
+        }
+        
+        widget.setPage(page);
+        widget.setRectangle(rectangle);
+        widget.setPrinted(true);
+        
+        PDAppearanceDictionary appearanceDictionary = new PDAppearanceDictionary();
+        appearanceDictionary.setNormalAppearance(appearance);
+        widget.setAppearance(appearanceDictionary);
     }
     
     /**
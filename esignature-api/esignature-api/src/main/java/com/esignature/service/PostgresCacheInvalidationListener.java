@@ -0,0 +1,140 @@
+package com.esignature.service;
+
+import com.esignature.event.DocumentChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Propagation des changements de documents entre instances via PostgreSQL LISTEN/NOTIFY
+ *
+ * Chaque modification locale est notifiée après commit ("nœud:document") ; les notifications
+ * des autres nœuds sont republiées localement comme {@link DocumentChangedEvent} distants.
+ * La connexion d'écoute est dédiée et ne consomme pas de place dans le pool Hikari.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.documents.cluster-invalidation", havingValue = "postgres")
+@Slf4j
+public class PostgresCacheInvalidationListener {
+    
+    private static final long RECONNECT_DELAY_MS = 5000;
+    private static final int POLL_TIMEOUT_MS = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    private volatile boolean running;
+    private Thread listenerThread;
+    
+    public PostgresCacheInvalidationListener(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${cache.documents.notify-channel:document_changes}") String channel
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.channel = channel;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "pg-cache-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+    
+    /**
+     * Notifier les autres nœuds après commit d'une modification locale
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        try {
+            jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class,
+                    channel, nodeId + ":" + event.documentId());
+        } catch (Exception e) {
+            log.warn("Échec de la notification d'invalidation pour le document {}", event.documentId(), e);
+        }
+    }
+    
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Écoute des invalidations de cache sur le canal {}", channel);
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handleNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Connexion LISTEN perdue, nouvelle tentative dans {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    void handleNotification(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            Long documentId = Long.valueOf(payload.substring(separator + 1));
+            eventPublisher.publishEvent(DocumentChangedEvent.remote(documentId));
+        } catch (NumberFormatException e) {
+            log.warn("Notification d'invalidation ignorée : {}", payload);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.esignature.service;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Image de signature pré-convertie en flux d'image PDF (RGB 8 bits compressé Flate, masque alpha séparé)
+ *
+ * La conversion (décodage PNG/JPEG, séparation de l'alpha, compression) est faite une fois à l'enregistrement ;
+ * l'intégration dans un PDF se contente de recopier les flux déjà compressés, sans décoder ni réencoder.
+ */
+public record PreparedSignatureImage(int width, int height, byte[] colorStream, byte[] alphaStream) {
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Convertir une image PNG/JPEG en flux PDF
+     */
+    public static PreparedSignatureImage fromImage(byte[] imageBytes, int maxDimension) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IllegalArgumentException("Format d'image non supporté (PNG ou JPEG attendu)");
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width > maxDimension || height > maxDimension) {
+            throw new IllegalArgumentException("Image de signature trop grande (max " + maxDimension + " px)");
+        }
+
+        byte[] rgb = new byte[width * height * 3];
+        byte[] alpha = new byte[width * height];
+        boolean opaque = true;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int offset = y * width + x;
+                rgb[offset * 3] = (byte) (pixel >> 16);
+                rgb[offset * 3 + 1] = (byte) (pixel >> 8);
+                rgb[offset * 3 + 2] = (byte) pixel;
+                alpha[offset] = (byte) (pixel >>> 24);
+                opaque &= (pixel >>> 24) == 0xFF;
+            }
+        }
+
+        return new PreparedSignatureImage(width, height, FlateStreams.deflate(rgb),
+                opaque ? null : FlateStreams.deflate(alpha));
+    }
+
+    /**
+     * Relire une image préparée depuis sa forme stockée
+     */
+    public static PreparedSignatureImage fromBytes(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Format d'image de signature inconnu");
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            byte[] colorStream = new byte[in.readInt()];
+            in.readFully(colorStream);
+            int alphaLength = in.readInt();
+            byte[] alphaStream = null;
+            if (alphaLength >= 0) {
+                alphaStream = new byte[alphaLength];
+                in.readFully(alphaStream);
+            }
+            return new PreparedSignatureImage(width, height, colorStream, alphaStream);
+        }
+    }
+
+    /**
+     * Forme stockée : en-tête (version, dimensions, longueurs) suivi des flux compressés
+     */
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) sizeInBytes() + 20);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(colorStream.length);
+            out.write(colorStream);
+            out.writeInt(alphaStream != null ? alphaStream.length : -1);
+            if (alphaStream != null) {
+                out.write(alphaStream);
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Taille des flux compressés, utilisée pour le budget du cache
+     */
+    public long sizeInBytes() {
+        return colorStream.length + (alphaStream != null ? alphaStream.length : 0);
+    }
+
+    /**
+     * Créer l'XObject image dans le document cible à partir des flux déjà compressés
+     */
+    public PDImageXObject toXObject(PDDocument document) throws IOException {
+        COSStream image = imageStream(document, colorStream, COSName.DEVICERGB);
+        if (alphaStream != null) {
+            image.setItem(COSName.SMASK, imageStream(document, alphaStream, COSName.DEVICEGRAY));
+        }
+        return new PDImageXObject(new PDStream(image), null);
+    }
+
+    private COSStream imageStream(PDDocument document, byte[] compressed, COSName colorSpace) throws IOException {
+        COSStream stream = document.getDocument().createCOSStream();
+        stream.setItem(COSName.TYPE, COSName.XOBJECT);
+        stream.setItem(COSName.SUBTYPE, COSName.IMAGE);
+        stream.setInt(COSName.WIDTH, width);
+        stream.setInt(COSName.HEIGHT, height);
+        stream.setInt(COSName.BITS_PER_COMPONENT, 8);
+        stream.setItem(COSName.COLORSPACE, colorSpace);
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        try (OutputStream out = stream.createRawOutputStream()) {
+            out.write(compressed);
+        }
+        return stream;
+    }
+}
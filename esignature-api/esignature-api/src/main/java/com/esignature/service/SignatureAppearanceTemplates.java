@@ -0,0 +1,217 @@
+package com.esignature.service;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDAppearanceContentStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Modèles d'apparence des signatures visibles, compilés une fois par format et réutilisés
+ *
+ * Le fond, la bordure et les libellés forment un flux pré-compressé ; chaque signature ne crée qu'une petite
+ * apparence (form XObject) qui référence ce modèle et y ajoute le logo, le nom, la date et le motif.
+ */
+public class SignatureAppearanceTemplates {
+
+    private static final int MAX_TEMPLATES = 256;
+    private static final String SIGNED_BY_LABEL = "Signé numériquement par";
+    private static final String DATE_LABEL = "Date : ";
+    private static final String REASON_LABEL = "Motif : ";
+    private static final float PADDING = 4f;
+
+    private final Map<TemplateKey, Template> templates = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TemplateKey, Template> eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+    };
+
+    /**
+     * Créer l'apparence d'une signature dans le document cible
+     */
+    public PDAppearanceStream createAppearance(
+            PDDocument document,
+            float width,
+            float height,
+            String signerName,
+            Calendar signDate,
+            String reason,
+            PreparedSignatureImage logo
+    ) throws IOException {
+        Template template = template(width, height, logo != null);
+        PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+        PDAppearanceStream appearance = new PDAppearanceStream(document);
+        appearance.setBBox(new PDRectangle(template.width(), template.height()));
+        appearance.setResources(new PDResources());
+
+        try (PDAppearanceContentStream content = new PDAppearanceContentStream(appearance)) {
+            content.drawForm(template.toFormXObject(document, regular));
+
+            if (logo != null) {
+                // Logo ajusté à sa zone en conservant ses proportions
+                float boxHeight = template.height() - 2 * PADDING;
+                float scale = Math.min(template.logoWidth() / logo.width(), boxHeight / logo.height());
+                float logoHeight = logo.height() * scale;
+                content.drawImage(logo.toXObject(document), PADDING, PADDING + (boxHeight - logoHeight) / 2,
+                        logo.width() * scale, logoHeight);
+            }
+
+            content.beginText();
+            content.setFont(bold, template.fontSize());
+            content.newLineAtOffset(template.textX(), template.lineY(1));
+            content.showText(printable(bold, signerName));
+            content.setFont(regular, template.fontSize());
+            content.newLineAtOffset(template.dateLabelWidth(), template.lineY(2) - template.lineY(1));
+            content.showText(new SimpleDateFormat("dd/MM/yyyy HH:mm").format(signDate.getTime()));
+            content.newLineAtOffset(template.reasonLabelWidth() - template.dateLabelWidth(),
+                    template.lineY(3) - template.lineY(2));
+            content.showText(printable(regular, reason));
+            content.endText();
+        }
+        return appearance;
+    }
+
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    private synchronized Template template(float width, float height, boolean withLogo) throws IOException {
+        TemplateKey key = new TemplateKey(Math.round(width), Math.round(height), withLogo);
+        Template template = templates.get(key);
+        if (template == null) {
+            template = compile(key);
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Compiler le fond, la bordure et les libellés d'un format en flux pré-compressé
+     */
+    private Template compile(TemplateKey key) throws IOException {
+        float width = key.width();
+        float height = key.height();
+        float fontSize = Math.max(4f, Math.min(9f, (height - 2 * PADDING) / 4.6f));
+        float logoWidth = key.withLogo() ? Math.min(width / 3, height * 1.5f) : 0;
+        float textX = PADDING + (logoWidth > 0 ? logoWidth + PADDING : 0);
+        float lineHeight = fontSize * 1.15f;
+        float firstLineY = height - PADDING - fontSize;
+
+        try (PDDocument scratch = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            PDFormXObject form = new PDFormXObject(scratch);
+            form.setBBox(new PDRectangle(width, height));
+            form.setResources(new PDResources());
+
+            try (PDFormContentStream content = new PDFormContentStream(form)) {
+                content.setNonStrokingColor(0.93f, 0.94f, 1.0f);
+                content.addRect(0, 0, width, height);
+                content.fill();
+                content.setStrokingColor(0.3f, 0.35f, 0.6f);
+                content.setLineWidth(0.8f);
+                content.addRect(0.4f, 0.4f, width - 0.8f, height - 0.8f);
+                content.stroke();
+
+                content.beginText();
+                content.setFont(font, fontSize);
+                content.setNonStrokingColor(0.35f, 0.35f, 0.35f);
+                content.newLineAtOffset(textX, firstLineY);
+                content.showText(SIGNED_BY_LABEL);
+                content.newLineAtOffset(0, -2 * lineHeight);
+                content.showText(DATE_LABEL);
+                content.newLineAtOffset(0, -lineHeight);
+                content.showText(REASON_LABEL);
+                content.endText();
+                content.setNonStrokingColor(0f, 0f, 0f);
+            }
+
+            COSName fontName = form.getResources().getFontNames().iterator().next();
+            byte[] decoded;
+            try (var in = form.getContentStream().createInputStream()) {
+                decoded = in.readAllBytes();
+            }
+
+            return new Template(width, height, fontSize, logoWidth, textX, firstLineY, lineHeight,
+                    font.getStringWidth(DATE_LABEL) / 1000 * fontSize,
+                    font.getStringWidth(REASON_LABEL) / 1000 * fontSize,
+                    fontName, FlateStreams.deflate(decoded));
+        }
+    }
+
+    /**
+     * Remplacer les caractères absents de l'encodage WinAnsi des polices standard
+     */
+    private static String printable(PDFont font, String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        text.codePoints().forEach(codePoint -> {
+            String character = new String(Character.toChars(codePoint));
+            try {
+                font.encode(character);
+                result.append(character);
+            } catch (IOException | IllegalArgumentException e) {
+                result.append('?');
+            }
+        });
+        return result.toString();
+    }
+
+    private record TemplateKey(int width, int height, boolean withLogo) {
+    }
+
+    private record Template(
+            float width,
+            float height,
+            float fontSize,
+            float logoWidth,
+            float textX,
+            float firstLineY,
+            float lineHeight,
+            float dateLabelWidth,
+            float reasonLabelWidth,
+            COSName fontName,
+            byte[] compressedContent
+    ) {
+        float lineY(int line) {
+            return firstLineY - line * lineHeight;
+        }
+
+        /**
+         * Recopier le modèle compilé dans le document cible (flux déjà compressé, police standard)
+         */
+        PDFormXObject toFormXObject(PDDocument document, PDFont font) throws IOException {
+            COSStream stream = document.getDocument().createCOSStream();
+            stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+            try (OutputStream out = stream.createRawOutputStream()) {
+                out.write(compressedContent);
+            }
+
+            PDFormXObject form = new PDFormXObject(new PDStream(stream));
+            form.setBBox(new PDRectangle(width, height));
+            PDResources resources = new PDResources();
+            resources.put(fontName, font);
+            form.setResources(resources);
+            return form;
+        }
+    }
+}
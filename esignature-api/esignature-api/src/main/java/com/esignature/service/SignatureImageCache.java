@@ -0,0 +1,74 @@
+package com.esignature.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU des images de signature pré-converties, borné en octets plutôt qu'en nombre d'entrées
+ *
+ * Chaque entrée garde le propriétaire de l'image : un accès servi depuis le cache est contrôlé sans lire la base.
+ */
+@Component
+public class SignatureImageCache {
+    
+    private final long maxBytes;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    
+    public SignatureImageCache(
+            MeterRegistry registry,
+            @Value("${signature-images.cache.max-bytes:33554432}") long maxBytes
+    ) {
+        this.maxBytes = maxBytes;
+        Gauge.builder("esignature.cache.signature-images.bytes", this, SignatureImageCache::bytes)
+                .description("Octets occupés par le cache des images de signature")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("esignature.cache.signature-images.size", this, SignatureImageCache::size)
+                .description("Entrées du cache des images de signature")
+                .register(registry);
+    }
+    
+    public synchronized Entry get(Long imageId) {
+        return entries.get(imageId);
+    }
+    
+    /**
+     * Ajouter une image en évinçant les moins récemment utilisées jusqu'à respecter le budget
+     */
+    public synchronized void put(Long imageId, String ownerEmail, PreparedSignatureImage image) {
+        long size = image.sizeInBytes();
+        if (size > maxBytes) {
+            return;
+        }
+        
+        Entry previous = entries.put(imageId, new Entry(ownerEmail, image));
+        if (previous != null) {
+            currentBytes -= previous.image().sizeInBytes();
+        }
+        currentBytes += size;
+        
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().image().sizeInBytes();
+            eldest.remove();
+        }
+    }
+    
+    public synchronized long bytes() {
+        return currentBytes;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public record Entry(String ownerEmail, PreparedSignatureImage image) {
+    }
+}
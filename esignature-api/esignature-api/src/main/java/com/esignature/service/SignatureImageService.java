@@ -0,0 +1,116 @@
+package com.esignature.service;
+
+import com.esignature.model.dto.SignatureImageResponse;
+import com.esignature.model.entity.SignatureImage;
+import com.esignature.repository.SignatureImageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Registre des images de signature : conversion unique au format PDF, puis réutilisation par identifiant
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SignatureImageService {
+    
+    private final SignatureImageRepository signatureImageRepository;
+    private final StorageService storageService;
+    private final SignatureImageCache signatureImageCache;
+    
+    @Value("${storage.signature-images-location}")
+    private String signatureImagesLocation;
+    
+    @Value("${signature-images.max-dimension:2000}")
+    private int maxDimension;
+    
+    /**
+     * Enregistrer une image de signature (PNG ou JPEG) pré-convertie en flux PDF
+     */
+    @Transactional
+    public SignatureImageResponse registerImage(MultipartFile file, String ownerEmail) throws IOException {
+        PreparedSignatureImage prepared = PreparedSignatureImage.fromImage(file.getBytes(), maxDimension);
+        byte[] stored = prepared.toBytes();
+        
+        String fileName = UUID.randomUUID() + ".sigimg";
+        Path filePath = storageService.write(signatureImagesLocation, fileName, stored);
+        
+        SignatureImage image = SignatureImage.builder()
+                .name(file.getOriginalFilename() != null ? file.getOriginalFilename() : fileName)
+                .ownerEmail(ownerEmail)
+                .width(prepared.width())
+                .height(prepared.height())
+                .filePath(filePath.toString())
+                .fileSize((long) stored.length)
+                .build();
+        
+        image = signatureImageRepository.save(image);
+        signatureImageCache.put(image.getId(), image.getOwnerEmail(), prepared);
+        
+        log.info("Image de signature {} enregistrée pour {} ({}x{}, {} octets)",
+                image.getId(), ownerEmail, prepared.width(), prepared.height(), stored.length);
+        
+        return mapToResponse(image);
+    }
+    
+    /**
+     * Récupérer les informations d'une image de signature
+     */
+    public SignatureImageResponse getImage(Long imageId) {
+        return signatureImageRepository.findById(imageId)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Image de signature non trouvée"));
+    }
+    
+    /**
+     * Image prête à intégrer, servie depuis le cache ; seul son propriétaire peut l'utiliser
+     */
+    public PreparedSignatureImage getPreparedImage(Long imageId, String signerEmail) throws IOException {
+        SignatureImageCache.Entry cached = signatureImageCache.get(imageId);
+        if (cached != null) {
+            checkOwner(cached.ownerEmail(), signerEmail);
+            return cached.image();
+        }
+        
+        SignatureImage image = signatureImageRepository.findById(imageId)
+                .orElseThrow(() -> new IllegalArgumentException("Image de signature non trouvée"));
+        checkOwner(image.getOwnerEmail(), signerEmail);
+        
+        PreparedSignatureImage prepared = PreparedSignatureImage.fromBytes(storageService.read(image.getFilePath()));
+        signatureImageCache.put(imageId, image.getOwnerEmail(), prepared);
+        return prepared;
+    }
+    
+    /**
+     * Préparer une image transmise directement dans la requête (non enregistrée)
+     */
+    public PreparedSignatureImage prepareImage(byte[] imageBytes) throws IOException {
+        return PreparedSignatureImage.fromImage(imageBytes, maxDimension);
+    }
+    
+    private static void checkOwner(String ownerEmail, String signerEmail) {
+        if (!ownerEmail.equalsIgnoreCase(signerEmail)) {
+            throw new IllegalArgumentException("Image de signature non autorisée pour ce signataire");
+        }
+    }
+    
+    private SignatureImageResponse mapToResponse(SignatureImage image) {
+        return SignatureImageResponse.builder()
+                .id(image.getId())
+                .name(image.getName())
+                .ownerEmail(image.getOwnerEmail())
+                .width(image.getWidth())
+                .height(image.getHeight())
+                .fileSize(image.getFileSize())
+                .createdAt(image.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.esignature.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jetons de signature auto-validants (JWT HMAC).
+ *
+ * Le jeton encode le document, le workflow, l'ordre de signature et l'expiration :
+ * un lien invalide, falsifié ou expiré est rejeté sans aucun accès à la base.
+ */
+@Service
+@Slf4j
+public class SignatureTokenService {
+
+    private static final String CLAIM_DOCUMENT = "doc";
+    private static final String CLAIM_WORKFLOW = "wf";
+    private static final String CLAIM_ORDER = "ord";
+
+    private final SecretKey key;
+    private final long defaultValidityMillis;
+
+    /**
+     * Workflows révoqués (annulés, rejetés, signés) -> date d'expiration du jeton.
+     * Une entrée n'a plus d'intérêt une fois le jeton expiré, elle est alors purgée.
+     */
+    private final Map<Long, Instant> revokedWorkflows = new ConcurrentHashMap<>();
+
+    public SignatureTokenService(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration}") long expirationMillis
+    ) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.defaultValidityMillis = expirationMillis;
+    }
+
+    /**
+     * Générer un jeton de signature pour une étape de workflow
+     */
+    public String generateToken(Long documentId, Long workflowId, Integer signOrder, LocalDateTime expiresAt) {
+        Instant expiration = expiresAt != null
+                ? expiresAt.atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now().plusMillis(defaultValidityMillis);
+
+        return Jwts.builder()
+                .claim(CLAIM_DOCUMENT, documentId)
+                .claim(CLAIM_WORKFLOW, workflowId)
+                .claim(CLAIM_ORDER, signOrder)
+                .expiration(Date.from(expiration))
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Valider un jeton sans accès base : signature HMAC, expiration et révocation
+     */
+    public TokenClaims validateToken(String token) {
+        Claims claims;
+        try {
+            claims = Jwts.parser()
+                    .verifyWith(key)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        } catch (ExpiredJwtException e) {
+            throw new IllegalStateException("Le lien de signature a expiré");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token de signature invalide");
+        }
+
+        TokenClaims tokenClaims = new TokenClaims(
+                claims.get(CLAIM_DOCUMENT, Long.class),
+                claims.get(CLAIM_WORKFLOW, Long.class),
+                claims.get(CLAIM_ORDER, Integer.class),
+                claims.getExpiration().toInstant()
+        );
+
+        if (tokenClaims.documentId() == null || tokenClaims.workflowId() == null) {
+            throw new IllegalArgumentException("Token de signature invalide");
+        }
+
+        if (revokedWorkflows.containsKey(tokenClaims.workflowId())) {
+            throw new IllegalStateException("Ce workflow de signature n'est plus valide");
+        }
+
+        return tokenClaims;
+    }
+
+    /**
+     * Révoquer les jetons d'un workflow (rejet, annulation, signature)
+     */
+    public void revoke(Long workflowId, LocalDateTime expiresAt) {
+        Instant expiration = expiresAt != null
+                ? expiresAt.atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now().plusMillis(defaultValidityMillis);
+        revokedWorkflows.put(workflowId, expiration);
+        purgeExpiredRevocations();
+    }
+
+    private void purgeExpiredRevocations() {
+        Instant now = Instant.now();
+        revokedWorkflows.values().removeIf(expiration -> expiration.isBefore(now));
+    }
+
+    /**
+     * Contenu d'un jeton de signature validé
+     */
+    public record TokenClaims(Long documentId, Long workflowId, Integer signOrder, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.esignature.service;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Accès au stockage des fichiers (documents originaux et signés)
+ *
+ * Point de passage unique des lectures/écritures disque, ce qui permet de les tracer et de les mesurer.
+ */
+@Service
+public class StorageService {
+
+    /**
+     * Écrire un fichier dans un répertoire, créé si nécessaire
+     */
+    public Path write(String directory, String fileName, byte[] content) throws IOException {
+        Path directoryPath = Paths.get(directory);
+        if (!Files.exists(directoryPath)) {
+            Files.createDirectories(directoryPath);
+        }
+
+        Path filePath = directoryPath.resolve(fileName);
+        Files.write(filePath, content);
+        return filePath;
+    }
+
+    /**
+     * Écrire un fichier depuis un flux, sans le charger en mémoire ; un fichier partiel est supprimé si la lecture
+     * échoue
+     */
+    public Path write(String directory, String fileName, InputStream content) throws IOException {
+        Path directoryPath = Paths.get(directory);
+        Files.createDirectories(directoryPath);
+
+        Path filePath = directoryPath.resolve(fileName);
+        try {
+            Files.copy(content, filePath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(filePath);
+            throw e;
+        }
+        return filePath;
+    }
+
+    /**
+     * Remplacer le contenu d'un fichier stocké de façon atomique (un lecteur concurrent voit l'ancien
+     * ou le nouveau contenu, jamais un fichier partiel)
+     */
+    public void replace(String filePath, byte[] content) throws IOException {
+        Path target = Paths.get(filePath);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temporary, content);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lire un fichier stocké
+     */
+    public byte[] read(String filePath) throws IOException {
+        return Files.readAllBytes(Paths.get(filePath));
+    }
+
+    /**
+     * Ouvrir un fichier stocké en accès aléatoire (chargement d'un PDF sans le lire entièrement en mémoire)
+     */
+    public RandomAccessRead openRandomAccess(String filePath) throws IOException {
+        return new RandomAccessReadBufferedFile(filePath);
+    }
+
+    /**
+     * Taille, date de modification et identifiant disque d'un fichier stocké
+     */
+    public BasicFileAttributes attributes(String filePath) throws IOException {
+        return Files.readAttributes(Paths.get(filePath), BasicFileAttributes.class);
+    }
+
+    /**
+     * Supprimer un fichier stocké s'il existe
+     */
+    public boolean delete(String filePath) throws IOException {
+        return Files.deleteIfExists(Paths.get(filePath));
+    }
+
+    /**
+     * Ouvrir un fichier en écriture positionnée (morceaux d'un dépôt fractionné), créé s'il n'existe pas
+     */
+    public FileChannel openForWrite(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        Files.createDirectories(path.getParent());
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Lire un fichier stocké en flux
+     */
+    public InputStream openStream(String filePath) throws IOException {
+        return Files.newInputStream(Paths.get(filePath));
+    }
+
+    /**
+     * Ouvrir un fichier stocké en lecture positionnée (projection en mémoire, transfert direct vers un flux)
+     */
+    public FileChannel openChannel(String filePath) throws IOException {
+        return FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+    }
+
+    /**
+     * Déplacer un fichier dans un répertoire de stockage, créé si nécessaire (atomique sur le même volume)
+     */
+    public Path move(String sourcePath, String directory, String fileName) throws IOException {
+        Path directoryPath = Paths.get(directory);
+        Files.createDirectories(directoryPath);
+        Path target = directoryPath.resolve(fileName);
+        try {
+            Files.move(Paths.get(sourcePath), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(Paths.get(sourcePath), target);
+        }
+        return target;
+    }
+}
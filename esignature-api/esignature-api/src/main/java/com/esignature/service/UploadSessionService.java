@@ -0,0 +1,371 @@
+package com.esignature.service;
+
+import com.esignature.model.dto.DocumentResponse;
+import com.esignature.model.dto.UploadSessionResponse;
+import com.esignature.model.entity.UploadSession;
+import com.esignature.model.enums.UploadSessionStatus;
+import com.esignature.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dépôts fractionnés reprenables
+ *
+ * Chaque morceau est lu directement depuis la requête et écrit à sa position dans un fichier temporaire
+ * (sans passer par le multipart ni par la mémoire), l'empreinte SHA-256 étant calculée au fil de l'eau. Le
+ * nombre d'octets reçus n'est enregistré qu'une fois les données forcées sur disque : après une coupure, le
+ * client reprend à cette position sans renvoyer ce qui a déjà été reçu. Le dernier morceau crée le document.
+ *
+ * Un seul envoi à la fois par dépôt, toutes instances confondues : l'écriture est réservée en base (mise à jour
+ * conditionnelle sur la position reçue) et la position n'avance que si la réservation est toujours détenue.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final StorageService storageService;
+    private final DocumentService documentService;
+
+    // Empreinte en cours par dépôt ; recalculée depuis le fichier temporaire après un redémarrage
+    private final Map<String, DigestState> digests = new ConcurrentHashMap<>();
+
+    @Value("${storage.location}")
+    private String storageLocation;
+
+    @Value("${uploads.location:./upload-sessions}")
+    private String uploadsLocation;
+
+    // Le document est ensuite lu en entier pour la signature et la vérification : même ordre que le multipart
+    @Value("${uploads.max-size:104857600}")
+    private long maxSize;
+
+    @Value("${uploads.max-chunk-size:67108864}")
+    private long maxChunkSize;
+
+    @Value("${uploads.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Value("${uploads.writer-lease-seconds:300}")
+    private long writerLeaseSeconds;
+
+    /**
+     * Ouvrir un dépôt fractionné pour un fichier de taille connue
+     */
+    public UploadSessionResponse createSession(String fileName, String contentType, long totalSize,
+                                               String uploadedBy, String expectedSha256) throws IOException {
+        if (totalSize <= 0 || totalSize > maxSize) {
+            throw new IllegalArgumentException("Taille du fichier invalide (max " + maxSize + " octets)");
+        }
+        if (expectedSha256 != null && !expectedSha256.matches("[0-9a-fA-F]{64}")) {
+            throw new IllegalArgumentException("Empreinte SHA-256 invalide");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path tempFile = Paths.get(uploadsLocation, id + ".part");
+        storageService.openForWrite(tempFile.toString()).close();
+
+        UploadSession session = UploadSession.builder()
+                .id(id)
+                .fileName(baseName(fileName))
+                .contentType(contentType)
+                .uploadedBy(uploadedBy)
+                .totalSize(totalSize)
+                .receivedBytes(0L)
+                .tempFilePath(tempFile.toString())
+                .expectedSha256(expectedSha256 != null ? expectedSha256.toLowerCase() : null)
+                .status(UploadSessionStatus.OPEN)
+                .expiresAt(LocalDateTime.now().plusHours(sessionTtlHours))
+                .build();
+        session = uploadSessionRepository.save(session);
+        digests.put(id, new DigestState(sha256(), 0));
+
+        log.info("Dépôt fractionné {} ouvert : {} ({} octets)", id, session.getFileName(), totalSize);
+        return mapToResponse(session);
+    }
+
+    /**
+     * État d'un dépôt : position attendue du prochain morceau
+     */
+    public UploadSessionResponse getSession(String uploadId) {
+        return mapToResponse(findSession(uploadId));
+    }
+
+    /**
+     * Écrire un morceau [start, start + length) ; il doit commencer exactement à la position déjà reçue.
+     * Une lecture interrompue garde la partie reçue, le client reprend à la position renvoyée.
+     */
+    public UploadSessionResponse writeChunk(String uploadId, long start, long length, Long declaredTotal,
+                                            InputStream body) throws IOException {
+        UploadSession session = findSession(uploadId);
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new IllegalStateException("Dépôt " + session.getStatus());
+        }
+        if (declaredTotal != null && declaredTotal.longValue() != session.getTotalSize()) {
+            throw new IllegalArgumentException("Taille totale différente de celle annoncée à l'ouverture");
+        }
+        if (length <= 0 || length > maxChunkSize || start + length > session.getTotalSize()) {
+            throw new IllegalArgumentException("Plage de morceau invalide");
+        }
+        if (start != session.getReceivedBytes()) {
+            throw new IllegalStateException("Position attendue : " + session.getReceivedBytes());
+        }
+
+        String token = claimWriter(session, start);
+        LocalDateTime deadline = LocalDateTime.now().plusSeconds(writerLeaseSeconds);
+        long received;
+        try {
+            received = receive(session, start, length, body, deadline);
+        } catch (IOException | RuntimeException e) {
+            uploadSessionRepository.releaseWriter(uploadId, token);
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(sessionTtlHours);
+        if (uploadSessionRepository.advance(uploadId, token, start, received, now, expiresAt) == 0) {
+            // Réservation expirée et reprise par un autre envoi, ou dépôt clos entre-temps
+            digests.remove(uploadId);
+            throw new IllegalStateException("Dépôt modifié pendant l'envoi du morceau");
+        }
+        session.setReceivedBytes(received);
+        session.setUpdatedAt(now);
+        session.setExpiresAt(expiresAt);
+        if (received < start + length) {
+            log.info("Dépôt {} interrompu à {} / {} octets", uploadId, received, session.getTotalSize());
+        }
+
+        if (received == session.getTotalSize()) {
+            complete(session);
+            session = uploadSessionRepository.save(session);
+        }
+        return mapToResponse(session);
+    }
+
+    /**
+     * Abandonner un dépôt et supprimer les données reçues
+     */
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = findSession(uploadId);
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new IllegalStateException("Dépôt " + session.getStatus());
+        }
+        close(session, UploadSessionStatus.ABORTED);
+        uploadSessionRepository.save(session);
+    }
+
+    /**
+     * Supprimer les dépôts sans activité au-delà du délai de conservation
+     */
+    @Scheduled(fixedDelayString = "${uploads.cleanup-ms:3600000}", initialDelay = 60000)
+    public void expireSessions() {
+        for (UploadSession session : uploadSessionRepository.findByStatusAndExpiresAtBefore(
+                UploadSessionStatus.OPEN, LocalDateTime.now())) {
+            try {
+                close(session, UploadSessionStatus.EXPIRED);
+                uploadSessionRepository.save(session);
+                log.info("Dépôt fractionné {} expiré ({} / {} octets reçus)", session.getId(),
+                        session.getReceivedBytes(), session.getTotalSize());
+            } catch (IOException e) {
+                log.warn("Fichier temporaire du dépôt {} non supprimé : {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recopier le corps de la requête à sa position ; renvoie la position atteinte, données forcées sur disque
+     */
+    private long receive(UploadSession session, long start, long length, InputStream body,
+                         LocalDateTime deadline) throws IOException {
+        DigestState digest = digestAt(session);
+        long position = start;
+        long end = start + length;
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        try (FileChannel channel = storageService.openForWrite(session.getTempFilePath())) {
+            while (position < end) {
+                if (LocalDateTime.now().isAfter(deadline)) {
+                    // Réservation échue : un autre envoi peut reprendre à la position enregistrée
+                    break;
+                }
+                int read;
+                try {
+                    read = body.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+                } catch (IOException e) {
+                    // Connexion coupée : on garde ce qui a été reçu
+                    break;
+                }
+                if (read == -1) {
+                    break;
+                }
+
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                long offset = position;
+                while (chunk.hasRemaining()) {
+                    offset += channel.write(chunk, offset);
+                }
+                digest.sha256().update(buffer, 0, read);
+                position += read;
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Écriture disque en échec : l'empreinte en mémoire ne correspond plus aux octets enregistrés
+            digests.remove(session.getId());
+            throw e;
+        }
+
+        digests.put(session.getId(), new DigestState(digest.sha256(), position));
+        return position;
+    }
+
+    /**
+     * Empreinte des octets déjà reçus, recalculée depuis le fichier temporaire si elle n'est plus en mémoire
+     */
+    private DigestState digestAt(UploadSession session) throws IOException {
+        DigestState state = digests.get(session.getId());
+        if (state != null && state.position() == session.getReceivedBytes()) {
+            return state;
+        }
+
+        MessageDigest sha256 = sha256();
+        long remaining = session.getReceivedBytes();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = storageService.openStream(session.getTempFilePath())) {
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IllegalStateException("Fichier temporaire du dépôt tronqué");
+                }
+                sha256.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return new DigestState(sha256, session.getReceivedBytes());
+    }
+
+    /**
+     * Fichier complet : vérifier l'empreinte annoncée puis créer le document. Si le document ne peut pas être
+     * créé, le fichier déplacé est supprimé et le dépôt passe en échec (le client recommence un dépôt).
+     */
+    private void complete(UploadSession session) throws IOException {
+        String sha256 = HexFormat.of().formatHex(digests.get(session.getId()).sha256().digest());
+        session.setSha256(sha256);
+
+        if (session.getExpectedSha256() != null && !session.getExpectedSha256().equals(sha256)) {
+            close(session, UploadSessionStatus.FAILED);
+            uploadSessionRepository.save(session);
+            throw new IllegalArgumentException("Empreinte SHA-256 différente de celle annoncée");
+        }
+
+        String fileName = UUID.randomUUID() + "_" + session.getFileName();
+        Path filePath = storageService.move(session.getTempFilePath(), storageLocation, fileName);
+        DocumentResponse document;
+        try {
+            document = documentService.registerDocument(session.getFileName(), session.getContentType(),
+                    session.getTotalSize(), filePath, session.getUploadedBy());
+        } catch (RuntimeException e) {
+            storageService.delete(filePath.toString());
+            close(session, UploadSessionStatus.FAILED);
+            uploadSessionRepository.save(session);
+            log.error("Dépôt fractionné {} : création du document impossible", session.getId(), e);
+            throw e;
+        }
+
+        session.setDocumentId(document.getId());
+        session.setStatus(UploadSessionStatus.COMPLETED);
+        digests.remove(session.getId());
+        log.info("Dépôt fractionné {} terminé : document {}", session.getId(), document.getId());
+    }
+
+    private void close(UploadSession session, UploadSessionStatus status) throws IOException {
+        session.setStatus(status);
+        session.setUpdatedAt(LocalDateTime.now());
+        digests.remove(session.getId());
+        storageService.delete(session.getTempFilePath());
+    }
+
+    /**
+     * Réserver l'écriture du morceau ; refusé si la position a avancé ou si un autre envoi est en cours
+     */
+    private String claimWriter(UploadSession session, long start) {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        if (uploadSessionRepository.claimWriter(session.getId(), start, token, now,
+                now.plusSeconds(writerLeaseSeconds)) == 0) {
+            UploadSession current = findSession(session.getId());
+            if (current.getStatus() != UploadSessionStatus.OPEN) {
+                throw new IllegalStateException("Dépôt " + current.getStatus());
+            }
+            if (current.getReceivedBytes() != start) {
+                throw new IllegalStateException("Position attendue : " + current.getReceivedBytes());
+            }
+            throw new IllegalStateException("Un morceau de ce dépôt est déjà en cours d'envoi");
+        }
+        return token;
+    }
+
+    private UploadSession findSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new IllegalArgumentException("Dépôt non trouvé"));
+    }
+
+    /**
+     * Nom du fichier sans chemin (le nom est fourni par le client)
+     */
+    private String baseName(String fileName) {
+        try {
+            Path name = fileName != null ? Paths.get(fileName).getFileName() : null;
+            if (name == null || name.toString().isBlank()) {
+                throw new IllegalArgumentException("Nom de fichier manquant");
+            }
+            return name.toString();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Nom de fichier invalide");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UploadSessionResponse mapToResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .fileName(session.getFileName())
+                .totalSize(session.getTotalSize())
+                .offset(session.getReceivedBytes())
+                .status(session.getStatus())
+                .sha256(session.getSha256())
+                .documentId(session.getDocumentId())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    private record DigestState(MessageDigest sha256, long position) {
+    }
+}
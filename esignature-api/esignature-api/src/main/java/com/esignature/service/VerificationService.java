@@ -10,8 +10,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +22,7 @@ public class VerificationService {
     private final DocumentRepository documentRepository;
     private final SignatureRepository signatureRepository;
     private final PdfSignatureService pdfSignatureService;
+    private final StorageService storageService;
     
     /**
      * Vérifier l'authenticité des signatures d'un document
@@ -41,7 +40,7 @@ public class VerificationService {
         }
         
         // Lire le document signé
-        byte[] pdfBytes = Files.readAllBytes(Paths.get(document.getSignedFilePath()));
+        byte[] pdfBytes = storageService.read(document.getSignedFilePath());
         
         // Vérifier les signatures dans le PDF
         List<PdfSignatureService.SignatureValidation> pdfValidations = 
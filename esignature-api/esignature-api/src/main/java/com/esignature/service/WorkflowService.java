@@ -1,6 +1,7 @@
 package com.esignature.service;
 
 import com.esignature.model.dto.CreateWorkflowRequest;
+import com.esignature.model.dto.WorkflowResponse;
 import com.esignature.model.entity.Document;
 import com.esignature.model.entity.SignatureWorkflow;
 import com.esignature.model.enums.SignatureStatus;
@@ -9,6 +10,7 @@ import com.esignature.repository.SignatureWorkflowRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -22,12 +24,14 @@ public class WorkflowService {
     
     private final DocumentRepository documentRepository;
     private final SignatureWorkflowRepository workflowRepository;
+    private final SignatureTokenService signatureTokenService;
+    private final DocumentCache documentCache;
     
     /**
      * Créer un workflow de signature avec plusieurs signataires
      */
     @Transactional
-    public List<SignatureWorkflow> createWorkflow(CreateWorkflowRequest request) {
+    public List<WorkflowResponse> createWorkflow(CreateWorkflowRequest request) {
         Document document = documentRepository.findById(request.getDocumentId())
                 .orElseThrow(() -> new IllegalArgumentException("Document non trouvé"));
         
@@ -35,6 +39,7 @@ public class WorkflowService {
         if (request.getExpirationDays() != null) {
             document.setExpiresAt(LocalDateTime.now().plusDays(request.getExpirationDays()));
             documentRepository.save(document);
+            documentCache.invalidate(document.getId());
         }
         
         // Créer les workflows pour chaque signataire
@@ -61,6 +66,10 @@ public class WorkflowService {
         // Sauvegarder tous les workflows
         workflows = workflowRepository.saveAll(workflows);
         
+        // Remplacer le jeton provisoire par un jeton signé (l'ID du workflow est maintenant connu)
+        workflows.forEach(w -> w.setSignatureToken(signatureTokenService.generateToken(
+                document.getId(), w.getId(), w.getSignOrder(), w.getExpiresAt())));
+        
         // Notifier le premier signataire (ordre 1)
         workflows.stream()
                 .filter(w -> w.getSignOrder() == 1)
@@ -72,21 +81,29 @@ public class WorkflowService {
                             w.getSignerEmail(), w.getSignatureToken());
                 });
         
-        return workflows;
+        // Le créateur reçoit les jetons pour les transmettre aux signataires
+        return workflows.stream()
+                .map(w -> {
+                    WorkflowResponse response = mapToWorkflowResponse(w);
+                    response.setSignatureToken(w.getSignatureToken());
+                    return response;
+                })
+                .toList();
     }
     
     /**
      * Obtenir les workflows d'un document
      */
-    public List<SignatureWorkflow> getDocumentWorkflows(Long documentId) {
-        return workflowRepository.findByDocumentIdOrderBySignOrder(documentId);
+    public List<WorkflowResponse> getDocumentWorkflows(Long documentId) {
+        return workflowRepository.findResponsesByDocumentId(documentId);
     }
     
     /**
      * Obtenir un workflow par token
      */
     public SignatureWorkflow getWorkflowByToken(String token) {
-        return workflowRepository.findBySignatureToken(token)
+        SignatureTokenService.TokenClaims claims = signatureTokenService.validateToken(token);
+        return workflowRepository.findById(claims.workflowId())
                 .orElseThrow(() -> new IllegalArgumentException("Token de signature invalide"));
     }
     
@@ -94,8 +111,10 @@ public class WorkflowService {
      * Rejeter une signature
      */
     @Transactional
-    public SignatureWorkflow rejectSignature(String token, String reason) {
-        SignatureWorkflow workflow = getWorkflowByToken(token);
+    public WorkflowResponse rejectSignature(String token, String reason) {
+        SignatureTokenService.TokenClaims claims = signatureTokenService.validateToken(token);
+        SignatureWorkflow workflow = workflowRepository.findWithDocumentById(claims.workflowId())
+                .orElseThrow(() -> new IllegalArgumentException("Token de signature invalide"));
         
         if (workflow.getStatus() != SignatureStatus.PENDING) {
             throw new IllegalStateException("Cette signature ne peut plus être rejetée");
@@ -103,19 +122,56 @@ public class WorkflowService {
         
         workflow.setStatus(SignatureStatus.REJECTED);
         workflow.setRejectionReason(reason);
+        signatureTokenService.revoke(workflow.getId(), workflow.getExpiresAt());
         
         // Mettre à jour le document
         Document document = workflow.getDocument();
         document.setStatus(SignatureStatus.REJECTED);
         documentRepository.save(document);
+        documentCache.invalidate(document.getId());
         
-        return workflowRepository.save(workflow);
+        return mapToWorkflowResponse(workflowRepository.save(workflow));
+    }
+    
+    /**
+     * Marquer expiré un workflow en attente, dans sa propre transaction : l'expiration constatée pendant une
+     * signature est conservée (et le cache invalidé après son commit) même si la signature est annulée
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void expireWorkflow(Long workflowId) {
+        workflowRepository.findWithDocumentById(workflowId)
+                .filter(workflow -> workflow.getStatus() == SignatureStatus.PENDING)
+                .ifPresent(workflow -> {
+                    workflow.setStatus(SignatureStatus.EXPIRED);
+                    workflowRepository.save(workflow);
+                    signatureTokenService.revoke(workflow.getId(), workflow.getExpiresAt());
+                    documentCache.invalidate(workflow.getDocument().getId());
+                });
     }
     
     /**
      * Obtenir les signatures en attente pour un utilisateur
      */
-    public List<SignatureWorkflow> getPendingSignatures(String email) {
-        return workflowRepository.findBySignerEmailAndStatus(email, SignatureStatus.PENDING);
+    public List<WorkflowResponse> getPendingSignatures(String email) {
+        return workflowRepository.findBySignerEmailAndStatus(email, SignatureStatus.PENDING).stream()
+                .map(this::mapToWorkflowResponse)
+                .toList();
+    }
+    
+    /**
+     * Mapper vers DTO (n'accède pas à l'association document)
+     */
+    private WorkflowResponse mapToWorkflowResponse(SignatureWorkflow workflow) {
+        return WorkflowResponse.builder()
+                .id(workflow.getId())
+                .signerName(workflow.getSignerName())
+                .signerEmail(workflow.getSignerEmail())
+                .signOrder(workflow.getSignOrder())
+                .requiredSignatureType(workflow.getRequiredSignatureType())
+                .status(workflow.getStatus())
+                .signedAt(workflow.getSignedAt())
+                .expiresAt(workflow.getExpiresAt())
+                .rejectionReason(workflow.getRejectionReason())
+                .build();
     }
 }
@@ -0,0 +1,63 @@
+package com.esignature.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échantillonnage adaptatif des traces racines
+ *
+ * Les {@code tracesPerSecond} premières traces de chaque seconde sont conservées : à faible trafic tout est
+ * tracé, à fort trafic le volume exporté reste borné. Au-delà du quota, une trace est conservée avec la
+ * probabilité plancher pour garder une vue sur les pics.
+ */
+public class AdaptiveSampler implements Sampler {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int tracesPerSecond;
+    private final double floorProbability;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger sampledInWindow = new AtomicInteger();
+
+    public AdaptiveSampler(int tracesPerSecond, double floorProbability) {
+        if (tracesPerSecond < 0 || floorProbability < 0 || floorProbability > 1) {
+            throw new IllegalArgumentException("Paramètres d'échantillonnage invalides");
+        }
+        this.tracesPerSecond = tracesPerSecond;
+        this.floorProbability = floorProbability;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            sampledInWindow.set(0);
+        }
+
+        if (sampledInWindow.get() < tracesPerSecond && sampledInWindow.incrementAndGet() <= tracesPerSecond) {
+            return SamplingResult.recordAndSample();
+        }
+        if (floorProbability > 0 && ThreadLocalRandom.current().nextDouble() < floorProbability) {
+            return SamplingResult.recordAndSample();
+        }
+        return SamplingResult.drop();
+    }
+
+    @Override
+    public String getDescription() {
+        return "AdaptiveSampler{tracesPerSecond=" + tracesPerSecond + ", floorProbability=" + floorProbability + "}";
+    }
+}
@@ -0,0 +1,33 @@
+package com.esignature.tracing;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationFilter;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Recopier l'identifiant du document courant (baggage) sur chaque observation terminée
+ */
+public class DocumentObservationFilter implements ObservationFilter {
+
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    public DocumentObservationFilter(ObjectProvider<Tracer> tracerProvider) {
+        this.tracerProvider = tracerProvider;
+    }
+
+    @Override
+    public Observation.Context map(Observation.Context context) {
+        if (context.getHighCardinalityKeyValue(DocumentTracing.DOCUMENT_ID) != null) {
+            return context;
+        }
+
+        Tracer tracer = tracerProvider.getIfAvailable();
+        String documentId = tracer != null ? tracer.getBaggage(DocumentTracing.DOCUMENT_ID).get() : null;
+        if (documentId != null) {
+            context.addHighCardinalityKeyValue(KeyValue.of(DocumentTracing.DOCUMENT_ID, documentId));
+        }
+        return context;
+    }
+}
@@ -0,0 +1,66 @@
+package com.esignature.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.BaggageInScope;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rattachement de l'identifiant de document aux traces et aux logs
+ *
+ * L'identifiant est porté en baggage : il est recopié sur chaque span enfant (dépôt, stockage, PDF, crypto)
+ * par {@link DocumentObservationFilter} et ajouté au MDC des logs.
+ */
+@Component
+public class DocumentTracing {
+
+    public static final String DOCUMENT_ID = "document.id";
+
+    private static final Scope NOOP_SCOPE = () -> {
+    };
+
+    private final ObservationRegistry observationRegistry;
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    public DocumentTracing(ObservationRegistry observationRegistry, ObjectProvider<Tracer> tracerProvider) {
+        this.observationRegistry = observationRegistry;
+        this.tracerProvider = tracerProvider;
+    }
+
+    /**
+     * Ouvrir un scope dans lequel toutes les opérations sont rattachées au document
+     */
+    public Scope open(Long documentId) {
+        if (documentId == null) {
+            return NOOP_SCOPE;
+        }
+
+        tagCurrent(documentId);
+        Tracer tracer = tracerProvider.getIfAvailable();
+        if (tracer == null) {
+            return NOOP_SCOPE;
+        }
+        BaggageInScope baggage = tracer.createBaggageInScope(DOCUMENT_ID, documentId.toString());
+        return baggage::close;
+    }
+
+    /**
+     * Ajouter l'identifiant du document à l'observation courante (span HTTP en général)
+     */
+    public void tagCurrent(Long documentId) {
+        Observation current = observationRegistry.getCurrentObservation();
+        if (current != null && documentId != null) {
+            current.highCardinalityKeyValue(DOCUMENT_ID, documentId.toString());
+        }
+    }
+
+    /**
+     * Scope de rattachement, à fermer en fin de traitement
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.esignature.tracing;
+
+import io.micrometer.common.KeyValue;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Rattacher les requêtes /documents/{documentId}/... au document concerné pendant tout leur traitement
+ */
+public class DocumentTracingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = DocumentTracingInterceptor.class.getName() + ".scope";
+
+    private final DocumentTracing documentTracing;
+
+    public DocumentTracingInterceptor(DocumentTracing documentTracing) {
+        this.documentTracing = documentTracing;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long documentId = documentId(request);
+        if (documentId != null) {
+            ServerHttpObservationFilter.findObservationContext(request).ifPresent(context ->
+                    context.addHighCardinalityKeyValue(KeyValue.of(DocumentTracing.DOCUMENT_ID, documentId.toString())));
+            request.setAttribute(SCOPE_ATTRIBUTE, documentTracing.open(documentId));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        closeScope(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        closeScope(request);
+    }
+
+    private void closeScope(HttpServletRequest request) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof DocumentTracing.Scope scope) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close();
+        }
+    }
+
+    private Long documentId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?> map) || !(map.get("documentId") instanceof String value)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.esignature.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spans autour de chaque couche du traitement : dépôts JPA, stockage disque, PDFBox et BouncyCastle
+ *
+ * Chaque span porte le composant et la méthode appelés, la taille du contenu traité (payload.size)
+ * et, pour les lectures, la taille du contenu renvoyé (result.size).
+ */
+@Aspect
+@Component
+public class LayerTracingAspect {
+
+    private static final String REPOSITORY_PACKAGE = "com.esignature.repository.";
+
+    private final ObservationRegistry observationRegistry;
+
+    public LayerTracingAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("esignature.repository", repositoryName(joinPoint), joinPoint);
+    }
+
+    @Around("execution(public * com.esignature.service.StorageService.*(..))")
+    public Object traceStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("esignature.storage", "StorageService", joinPoint);
+    }
+
+    @Around("execution(public * com.esignature.service.PdfSignatureService.*(..))")
+    public Object tracePdf(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("esignature.pdf", "PdfSignatureService", joinPoint);
+    }
+
+    @Around("execution(public * com.esignature.service.CertificateService.*(..))")
+    public Object traceCrypto(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("esignature.crypto", "CertificateService", joinPoint);
+    }
+
+    private Object observe(String name, String component, ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(component + "." + method)
+                .lowCardinalityKeyValue("component", component)
+                .lowCardinalityKeyValue("method", method);
+
+        long payloadSize = payloadSize(joinPoint.getArgs());
+        if (payloadSize >= 0) {
+            observation.highCardinalityKeyValue("payload.size", String.valueOf(payloadSize));
+        }
+
+        observation.start();
+        try (Observation.Scope ignored = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            if (result instanceof byte[] bytes) {
+                observation.highCardinalityKeyValue("result.size", String.valueOf(bytes.length));
+            }
+            return result;
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    /**
+     * Taille cumulée des contenus binaires passés en argument, -1 s'il n'y en a aucun
+     */
+    private long payloadSize(Object[] args) {
+        long size = -1;
+        for (Object arg : args) {
+            if (arg instanceof byte[] bytes) {
+                size = Math.max(size, 0) + bytes.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Nom de l'interface du dépôt applicatif (les méthodes héritées sont déclarées par Spring Data)
+     */
+    private String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+}
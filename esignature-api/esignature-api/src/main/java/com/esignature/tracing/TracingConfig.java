@@ -0,0 +1,70 @@
+package com.esignature.tracing;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration du traçage distribué (Micrometer Tracing / OpenTelemetry)
+ *
+ * Les spans HTTP sont créés par Spring MVC, les spans des couches internes par {@link LayerTracingAspect}.
+ * L'export OTLP est activé par management.otlp.tracing.endpoint.
+ */
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<DocumentTracing> documentTracing;
+
+    public TracingConfig(ObjectProvider<DocumentTracing> documentTracing) {
+        this.documentTracing = documentTracing;
+    }
+
+    /**
+     * Échantillonneur adaptatif pour les traces racines, les spans enfants suivent la décision du parent
+     */
+    @Bean
+    public static Sampler otelSampler(
+            @Value("${tracing.sampling.traces-per-second:20}") int tracesPerSecond,
+            @Value("${tracing.sampling.floor-probability:0.01}") double floorProbability
+    ) {
+        return Sampler.parentBased(new AdaptiveSampler(tracesPerSecond, floorProbability));
+    }
+
+    @Bean
+    public static DocumentObservationFilter documentObservationFilter(ObjectProvider<Tracer> tracerProvider) {
+        return new DocumentObservationFilter(tracerProvider);
+    }
+
+    /**
+     * Ne pas tracer les appels de supervision (scrape Prometheus, health checks)
+     */
+    @Bean
+    public static ObservationPredicate ignoreActuatorRequests() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext serverContext
+                && serverContext.getCarrier().getRequestURI().contains("/actuator"));
+    }
+
+    /**
+     * Collecteur local de substitution : les spans terminés sont écrits dans les logs
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tracing.export.logging", havingValue = "true")
+    public static LoggingSpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DocumentTracingInterceptor(documentTracing.getObject()))
+                .addPathPatterns("/documents/**");
+    }
+}
@@ -0,0 +1,119 @@
+package com.esignature.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditLogTest {
+
+    @TempDir
+    Path location;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void stop() throws Exception {
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    @Test
+    void verifiesCheckpointRanges() throws Exception {
+        auditLog = start(8192);
+        recordAndStop(10);
+
+        List<AuditCheckpoint> checkpoints = auditLog.checkpoints(0, Integer.MAX_VALUE);
+        assertThat(checkpoints).isNotEmpty();
+        assertThat(checkpoints.get(checkpoints.size() - 1).toSequence()).isEqualTo(10);
+        for (AuditCheckpoint checkpoint : checkpoints) {
+            assertThat(auditLog.verify(checkpoint.index()).valid()).isTrue();
+        }
+        assertThatThrownBy(() -> auditLog.verify(checkpoints.size())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void detectsAlteredEntry() throws Exception {
+        auditLog = start(8192);
+        recordAndStop(4);
+
+        Path segment = location.resolve("audit-000001.log");
+        String content = Files.readString(segment, StandardCharsets.UTF_8);
+        Files.writeString(segment, content.replaceFirst("document 1\"", "document 9\""), StandardCharsets.UTF_8);
+
+        AuditLog.AuditVerification verification = auditLog.verify(0);
+        assertThat(verification.valid()).isFalse();
+        assertThat(verification.message()).startsWith("Entrée altérée");
+    }
+
+    @Test
+    void recoversAfterTornWrites() throws Exception {
+        auditLog = start(8192);
+        recordAndStop(4);
+        int checkpoints = auditLog.checkpoints(0, Integer.MAX_VALUE).size();
+
+        // Arrêt brutal pendant l'écriture d'une entrée puis d'un point de contrôle
+        Files.writeString(location.resolve("audit-000001.log"), "abc {\"sequence\":5", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Files.writeString(location.resolve("checkpoints.log"), "{\"index\":" + checkpoints, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        auditLog = start(8192);
+        recordAndStop(3);
+
+        List<AuditCheckpoint> recovered = auditLog.checkpoints(0, Integer.MAX_VALUE);
+        assertThat(recovered).hasSize(checkpoints + 1);
+        assertThat(recovered.get(checkpoints).fromSequence()).isEqualTo(5);
+        assertThat(recovered.get(checkpoints).toSequence()).isEqualTo(7);
+        for (AuditCheckpoint checkpoint : recovered) {
+            assertThat(auditLog.verify(checkpoint.index()).valid()).isTrue();
+        }
+    }
+
+    @Test
+    void countsEventsDroppedWhenBufferStaysFull() {
+        // Journal non démarré : personne ne vide la file (4 places)
+        auditLog = newAuditLog(4);
+        for (int i = 0; i < 5; i++) {
+            auditLog.record(event(i));
+        }
+
+        assertThat(registry.counter("esignature.audit.events.dropped", "reason", "buffer-full").count())
+                .isEqualTo(1);
+    }
+
+    private AuditLog start(int bufferCapacity) throws Exception {
+        AuditLog started = newAuditLog(bufferCapacity);
+        started.start();
+        return started;
+    }
+
+    private AuditLog newAuditLog(int bufferCapacity) {
+        return new AuditLog(new ObjectMapper(), registry, location.toString(), 64 * 1024 * 1024, bufferCapacity,
+                512, 1, 1000, 60_000, 0, 5);
+    }
+
+    private void recordAndStop(int count) throws Exception {
+        for (int i = 1; i <= count; i++) {
+            auditLog.record(event(i));
+        }
+        auditLog.stop();
+    }
+
+    private static AuditEvent event(long documentId) {
+        return new AuditEvent(System.currentTimeMillis(), AuditAction.VIEW, documentId, "alice", "127.0.0.1",
+                "test", "document " + documentId);
+    }
+}
@@ -0,0 +1,59 @@
+package com.esignature.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerkleTreeTest {
+
+    @Test
+    void emptyTreeIsHashOfNothing() {
+        assertThat(MerkleTree.root(List.of())).isEqualTo(MerkleTree.sha256().digest());
+    }
+
+    @Test
+    void singleLeafIsPrefixedHash() {
+        byte[] leaf = bytes("a");
+
+        assertThat(MerkleTree.root(List.of(leaf))).isEqualTo(leafHash(leaf));
+    }
+
+    @Test
+    void oddNodeIsPromotedUnchanged() {
+        byte[] a = bytes("a");
+        byte[] b = bytes("b");
+        byte[] c = bytes("c");
+
+        byte[] expected = nodeHash(nodeHash(leafHash(a), leafHash(b)), leafHash(c));
+
+        assertThat(MerkleTree.root(List.of(a, b, c))).isEqualTo(expected);
+    }
+
+    @Test
+    void rootDependsOnLeafOrder() {
+        byte[] a = bytes("a");
+        byte[] b = bytes("b");
+
+        assertThat(MerkleTree.root(List.of(a, b))).isNotEqualTo(MerkleTree.root(List.of(b, a)));
+    }
+
+    private static byte[] bytes(String value) {
+        return MerkleTree.sha256().digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] leafHash(byte[] leaf) {
+        var digest = MerkleTree.sha256();
+        digest.update((byte) 0);
+        return digest.digest(leaf);
+    }
+
+    private static byte[] nodeHash(byte[] left, byte[] right) {
+        var digest = MerkleTree.sha256();
+        digest.update((byte) 1);
+        digest.update(left);
+        return digest.digest(right);
+    }
+}
@@ -0,0 +1,121 @@
+package com.esignature.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Réponses asynchrones (cloisons) avec jeton d'accès obligatoire : la redistribution ASYNC doit rester
+ * authentifiée
+ */
+@SpringBootTest(properties = "jwt.required=true")
+@AutoConfigureMockMvc
+class AsyncDispatchSecurityTest {
+
+    private static final Path STORAGE;
+
+    static {
+        try {
+            STORAGE = Files.createTempDirectory("esignature-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        for (String property : List.of("storage.location", "storage.signed-location",
+                "storage.signature-images-location", "uploads.location", "render.cache.location", "audit.location")) {
+            registry.add(property, () -> STORAGE.resolve(property).toString());
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Test
+    void uploadVerifyAndRenderStayAuthenticatedOnAsyncDispatch() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "contrat.pdf", MediaType.APPLICATION_PDF_VALUE, pdf());
+        MvcResult upload = performAsync(multipart("/documents/upload").file(file)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken()));
+        MvcResult uploaded = mockMvc.perform(asyncDispatch(upload)).andExpect(status().isCreated()).andReturn();
+        long documentId = objectMapper.readTree(uploaded.getResponse().getContentAsString()).get("id").asLong();
+
+        MvcResult verify = performAsync(get("/documents/{id}/verify", documentId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken()));
+        mockMvc.perform(asyncDispatch(verify)).andExpect(status().isOk());
+
+        MvcResult render = performAsync(get("/documents/{id}/pages/0.png", documentId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken()));
+        mockMvc.perform(asyncDispatch(render))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG));
+    }
+
+    @Test
+    void requestWithoutTokenIsRejected() throws Exception {
+        mockMvc.perform(get("/documents/{id}/verify", 1)).andExpect(status().isUnauthorized());
+    }
+
+    private MvcResult performAsync(RequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult(10_000);
+        return result;
+    }
+
+    private String accessToken() {
+        return Jwts.builder()
+                .subject("bob")
+                .claim("roles", List.of("USER"))
+                .expiration(Date.from(Instant.now().plus(5, ChronoUnit.MINUTES)))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static byte[] pdf() throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            document.addPage(new PDPage());
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
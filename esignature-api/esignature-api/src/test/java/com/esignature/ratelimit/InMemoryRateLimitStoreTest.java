@@ -0,0 +1,63 @@
+package com.esignature.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimitStoreTest {
+
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+
+    @Test
+    void rejectsOnceCapacityIsSpent() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.tryConsume("client", 1, 5, 0.001)).isZero();
+        }
+        assertThat(store.tryConsume("client", 1, 5, 0.001)).isPositive();
+    }
+
+    @Test
+    void evictionKeepsBucketsInUse() {
+        store.tryConsume("client", 1, 5, 0.001);
+        store.evictIdle();
+
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedCapacity() throws Exception {
+        int capacity = 100;
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 8; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 50; j++) {
+                        if (store.tryConsume("client", 1, capacity, 0.001) == 0) {
+                            admitted.incrementAndGet();
+                        }
+                        store.evictIdle();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(admitted.get()).isEqualTo(capacity);
+    }
+}
@@ -0,0 +1,118 @@
+package com.esignature.service;
+
+import com.esignature.event.DocumentChangedEvent;
+import com.esignature.model.dto.DocumentResponse;
+import com.esignature.model.enums.SignatureStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentCacheTest {
+
+    private final List<Object> published = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+    private DocumentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DocumentCache(published::add, new SimpleMeterRegistry(), 2, 60, now::get);
+    }
+
+    @Test
+    void rejectsValueReadBeforeInvalidation() {
+        long stamp = cache.stamp();
+        // Écriture commitée pendant la lecture en base du lecteur
+        cache.onDocumentChanged(DocumentChangedEvent.local(1L));
+
+        assertThat(cache.put(1L, document(1L, SignatureStatus.PENDING), stamp)).isFalse();
+        assertThat(cache.get(1L)).isNull();
+
+        assertThat(cache.put(1L, document(1L, SignatureStatus.SIGNED), cache.stamp())).isTrue();
+        assertThat(cache.get(1L).getStatus()).isEqualTo(SignatureStatus.SIGNED);
+    }
+
+    @Test
+    void invalidationOfAnotherDocumentDoesNotRejectPut() {
+        long stamp = cache.stamp();
+        cache.onDocumentChanged(DocumentChangedEvent.local(2L));
+
+        assertThat(cache.put(1L, document(1L, SignatureStatus.PENDING), stamp)).isTrue();
+    }
+
+    @Test
+    void rejectsStalePutOnceInvalidationIsForgotten() {
+        long stamp = cache.stamp();
+        // Plus d'invalidations que de places : celle du document 1 est oubliée
+        cache.onDocumentChanged(DocumentChangedEvent.local(1L));
+        cache.onDocumentChanged(DocumentChangedEvent.local(2L));
+        cache.onDocumentChanged(DocumentChangedEvent.local(3L));
+
+        assertThat(cache.put(1L, document(1L, SignatureStatus.PENDING), stamp)).isFalse();
+    }
+
+    @Test
+    void invalidateOnlyPublishesEvent() {
+        cache.put(1L, document(1L, SignatureStatus.PENDING), cache.stamp());
+
+        cache.invalidate(1L);
+
+        // Retrait différé au commit (écouteur AFTER_COMMIT)
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(published).containsExactly(DocumentChangedEvent.local(1L));
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        cache.put(1L, document(1L, SignatureStatus.PENDING), cache.stamp());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertThat(cache.get(1L)).isNotNull();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void storesAndReturnsCopies() {
+        DocumentResponse response = document(1L, SignatureStatus.PENDING);
+        cache.put(1L, response, cache.stamp());
+
+        response.setStatus(SignatureStatus.SIGNED);
+        DocumentResponse first = cache.get(1L);
+        first.setName("modifié");
+
+        DocumentResponse second = cache.get(1L);
+        assertThat(second.getStatus()).isEqualTo(SignatureStatus.PENDING);
+        assertThat(second.getName()).isEqualTo("contrat.pdf");
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        cache.put(1L, document(1L, SignatureStatus.PENDING), cache.stamp());
+        cache.put(2L, document(2L, SignatureStatus.PENDING), cache.stamp());
+        cache.get(1L);
+        cache.put(3L, document(3L, SignatureStatus.PENDING), cache.stamp());
+
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(3L)).isNotNull();
+    }
+
+    private static DocumentResponse document(Long id, SignatureStatus status) {
+        return DocumentResponse.builder()
+                .id(id)
+                .name("contrat.pdf")
+                .status(status)
+                .signatures(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.esignature.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageRenderCacheTest {
+
+    @TempDir
+    Path location;
+
+    @Test
+    void trimsToBudgetOnStartup() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            Path file = Files.write(location.resolve("k" + i + ".png"), new byte[100]);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000L * (i + 1)));
+        }
+        Files.write(location.resolve("partiel.png.tmp"), new byte[10]);
+
+        PageRenderCache cache = newCache(250);
+
+        assertThat(cache.bytes()).isEqualTo(200);
+        assertThat(cache.size()).isEqualTo(2);
+        // Les plus anciens sont supprimés du disque
+        assertThat(Files.exists(location.resolve("k0.png"))).isFalse();
+        assertThat(Files.exists(location.resolve("k1.png"))).isFalse();
+        assertThat(Files.exists(location.resolve("partiel.png.tmp"))).isFalse();
+        assertThat(cache.get("k3")).hasSize(100);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOnPut() throws Exception {
+        PageRenderCache cache = newCache(250);
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[100]);
+        cache.get("a");
+        cache.put("c", new byte[100]);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(Files.exists(location.resolve("b.png"))).isFalse();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.bytes()).isEqualTo(200);
+    }
+
+    private PageRenderCache newCache(long maxBytes) {
+        return new PageRenderCache(new StorageService(), new SimpleMeterRegistry(), location.toString(), maxBytes);
+    }
+}
@@ -0,0 +1,92 @@
+package com.esignature.service;
+
+import com.esignature.event.DocumentChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le test d'intégration s'exécute contre le PostgreSQL du docker-compose :
+ * <pre>
+ * docker compose up -d postgres
+ * ESIGNATURE_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/esignature mvn test
+ * </pre>
+ */
+class PostgresCacheInvalidationListenerTest {
+
+    private static final String POSTGRES_URL = "ESIGNATURE_TEST_POSTGRES_URL";
+
+    @Test
+    void republishesNotificationsOfOtherNodesOnly() {
+        List<Object> published = new ArrayList<>();
+        PostgresCacheInvalidationListener listener = new PostgresCacheInvalidationListener(
+                null, new DataSourceProperties(), published::add, "document_changes");
+
+        listener.handleNotification("autre-noeud:42");
+        listener.handleNotification("autre-noeud:pas-un-nombre");
+        listener.handleNotification("sans-separateur");
+
+        assertThat(published).containsExactly(DocumentChangedEvent.remote(42L));
+    }
+
+    @Test
+    void ignoresRemoteEventsAndSwallowsNotifyFailures() {
+        JdbcTemplate failing = new JdbcTemplate(new DriverManagerDataSource("jdbc:postgresql://127.0.0.1:1/none"));
+        PostgresCacheInvalidationListener listener = new PostgresCacheInvalidationListener(
+                failing, new DataSourceProperties(), event -> { }, "document_changes");
+
+        listener.onDocumentChanged(DocumentChangedEvent.remote(1L));
+        // La notification échoue (base injoignable) sans faire échouer l'appelant
+        listener.onDocumentChanged(DocumentChangedEvent.local(1L));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = POSTGRES_URL, matches = "jdbc:postgresql:.+")
+    void propagatesChangesBetweenNodes() throws Exception {
+        String url = System.getenv(POSTGRES_URL);
+        String username = System.getenv().getOrDefault("ESIGNATURE_TEST_POSTGRES_USER", "esignature");
+        String password = System.getenv().getOrDefault("ESIGNATURE_TEST_POSTGRES_PASSWORD", "SecurePassword123!");
+        String channel = "document_changes_test_" + System.nanoTime();
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername(username);
+        properties.setPassword(password);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, username, password));
+
+        BlockingQueue<Object> receivedByFirst = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> receivedBySecond = new LinkedBlockingQueue<>();
+        PostgresCacheInvalidationListener first = new PostgresCacheInvalidationListener(
+                jdbcTemplate, properties, receivedByFirst::add, channel);
+        PostgresCacheInvalidationListener second = new PostgresCacheInvalidationListener(
+                jdbcTemplate, properties, receivedBySecond::add, channel);
+        first.start();
+        second.start();
+        try {
+            // Notifier jusqu'à ce que l'écoute du second nœud soit établie
+            Object received = null;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            while (received == null && System.nanoTime() < deadline) {
+                first.onDocumentChanged(DocumentChangedEvent.local(42L));
+                received = receivedBySecond.poll(500, TimeUnit.MILLISECONDS);
+            }
+            assertThat(received).isEqualTo(DocumentChangedEvent.remote(42L));
+
+            // Le nœud émetteur ignore ses propres notifications
+            assertThat(receivedByFirst.poll(1, TimeUnit.SECONDS)).isNull();
+        } finally {
+            first.stop();
+            second.stop();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.esignature.service;
+
+import com.esignature.model.entity.UploadSession;
+import com.esignature.model.enums.UploadSessionStatus;
+import com.esignature.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final UploadSessionRepository repository = mock(UploadSessionRepository.class);
+    private final DocumentService documentService = mock(DocumentService.class);
+    private UploadSessionService service;
+    private UploadSession saved;
+
+    @BeforeEach
+    void setUp() {
+        service = new UploadSessionService(repository, new StorageService(), documentService);
+        ReflectionTestUtils.setField(service, "storageLocation", root.resolve("uploads").toString());
+        ReflectionTestUtils.setField(service, "uploadsLocation", root.resolve("sessions").toString());
+        ReflectionTestUtils.setField(service, "maxSize", 1024L);
+        ReflectionTestUtils.setField(service, "maxChunkSize", 1024L);
+        ReflectionTestUtils.setField(service, "sessionTtlHours", 1L);
+        ReflectionTestUtils.setField(service, "writerLeaseSeconds", 60L);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            saved = invocation.getArgument(0);
+            return saved;
+        });
+    }
+
+    @Test
+    void unknownUploadIsRejected() {
+        when(repository.findById("inconnu")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.writeChunk("inconnu", 0, 4, null, new ByteArrayInputStream(new byte[4])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void chunkIsRejectedWhileAnotherWriterHoldsTheSession() throws Exception {
+        UploadSession session = openSession(4);
+        when(repository.claimWriter(eq(session.getId()), eq(0L), anyString(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.writeChunk(session.getId(), 0, 4, 4L,
+                new ByteArrayInputStream(new byte[]{1, 2, 3, 4})))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("déjà en cours");
+
+        assertThat(Files.size(Path.of(session.getTempFilePath()))).isZero();
+        verify(documentService, never()).registerDocument(anyString(), anyString(), anyLong(), any(), anyString());
+    }
+
+    @Test
+    void lostClaimDoesNotCompleteTheUpload() throws Exception {
+        UploadSession session = openSession(4);
+        when(repository.claimWriter(eq(session.getId()), eq(0L), anyString(), any(), any())).thenReturn(1);
+        when(repository.advance(eq(session.getId()), anyString(), eq(0L), eq(4L), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.writeChunk(session.getId(), 0, 4, 4L,
+                new ByteArrayInputStream(new byte[]{1, 2, 3, 4})))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(session.getReceivedBytes()).isZero();
+        verify(documentService, never()).registerDocument(anyString(), anyString(), anyLong(), any(), anyString());
+    }
+
+    @Test
+    void failedRegistrationMarksSessionFailedAndRemovesFile() throws Exception {
+        UploadSession session = openSession(4);
+        when(repository.claimWriter(eq(session.getId()), eq(0L), anyString(), any(), any())).thenReturn(1);
+        when(repository.advance(eq(session.getId()), anyString(), eq(0L), eq(4L), any(), any())).thenReturn(1);
+        when(documentService.registerDocument(anyString(), anyString(), anyLong(), any(), anyString()))
+                .thenThrow(new IllegalStateException("base indisponible"));
+
+        assertThatThrownBy(() -> service.writeChunk(session.getId(), 0, 4, 4L,
+                new ByteArrayInputStream(new byte[]{1, 2, 3, 4})))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(session.getStatus()).isEqualTo(UploadSessionStatus.FAILED);
+        assertThat(Files.exists(Path.of(session.getTempFilePath()))).isFalse();
+        try (Stream<Path> stored = Files.list(root.resolve("uploads"))) {
+            assertThat(stored).isEmpty();
+        }
+    }
+
+    private UploadSession openSession(long totalSize) throws Exception {
+        service.createSession("contrat.pdf", "application/pdf", totalSize, "bob", null);
+        UploadSession session = saved;
+        when(repository.findById(session.getId())).thenReturn(Optional.of(session));
+        return session;
+    }
+}
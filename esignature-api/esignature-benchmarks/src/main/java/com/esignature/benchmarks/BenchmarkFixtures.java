@@ -0,0 +1,228 @@
+package com.esignature.benchmarks;
+
+import com.esignature.metrics.SigningMetrics;
+import com.esignature.service.PdfSignatureService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Génération déterministe des données de benchmark : PDF, images de signature et keystores PKCS#12
+ */
+public final class BenchmarkFixtures {
+
+    public static final String KEYSTORE_PASSWORD = "benchmark";
+    public static final String KEY_ALIAS = "benchmark";
+
+    private static final long SEED = 42L;
+    private static final int PAGES_PER_SECTION = 10;
+    private static final List<Path> EMBEDDABLE_FONTS = List.of(
+            Path.of("/usr/share/fonts/truetype/dejavu/DejaVuSansMono.ttf"),
+            Path.of("/usr/share/fonts/truetype/liberation/LiberationMono-Regular.ttf"),
+            Path.of("C:/Windows/Fonts/cour.ttf"));
+
+    private BenchmarkFixtures() {
+    }
+
+    public static void registerBouncyCastle() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * Service instrumenté comme en production (registre en mémoire)
+     */
+    public static PdfSignatureService pdfSignatureService() {
+        return new PdfSignatureService(new SigningMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * PDF de n pages A4 contenant chacune quelques lignes de texte
+     */
+    public static byte[] pdf(int pages) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 11);
+                    content.newLineAtOffset(50, 780);
+                    for (int line = 0; line < 40; line++) {
+                        content.showText("Page " + (i + 1) + " - ligne " + line
+                                + " : contrat de test pour les benchmarks de signature.");
+                        content.newLineAtOffset(0, -16);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * PDF de n pages tel que produit par un générateur peu soigneux : logo réintégré sur chaque page, police
+     * TrueType complète réintégrée à chaque section de 10 pages (document assemblé), contenus non compressés,
+     * table xref classique sans flux d'objets
+     *
+     * Sans police TrueType disponible sur la machine, le texte utilise Helvetica (pas de police dupliquée).
+     */
+    public static byte[] unoptimizedPdf(int pages) throws IOException {
+        BufferedImage logo = ImageIO.read(new ByteArrayInputStream(signaturePng(300, 120)));
+        Path fontPath = EMBEDDABLE_FONTS.stream().filter(Files::isReadable).findFirst().orElse(null);
+
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDFont font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int i = 0; i < pages; i++) {
+                if (fontPath != null && i % PAGES_PER_SECTION == 0) {
+                    TrueTypeFont trueType = new TTFParser().parse(new RandomAccessReadBufferedFile(fontPath.toFile()));
+                    font = PDType0Font.load(document, trueType, false);
+                }
+                PDImageXObject image = LosslessFactory.createFromImage(document, logo);
+
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(
+                        document, page, PDPageContentStream.AppendMode.OVERWRITE, false)) {
+                    content.drawImage(image, 50, 760, 150, 60);
+                    content.beginText();
+                    content.setFont(font, 10);
+                    content.newLineAtOffset(50, 730);
+                    for (int line = 0; line < 40; line++) {
+                        content.showText("Page " + (i + 1) + " - ligne " + line
+                                + " : contrat de test pour les benchmarks de signature.");
+                        content.newLineAtOffset(0, -16);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out, CompressParameters.NO_COMPRESSION);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Image PNG de signature manuscrite synthétique (tracé pseudo-aléatoire reproductible)
+     */
+    public static byte[] signaturePng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            Random random = new Random(SEED);
+            graphics.setColor(new Color(20, 30, 120));
+            graphics.setStroke(new BasicStroke(Math.max(1f, width / 150f)));
+            int x = 0;
+            int y = height / 2;
+            while (x < width) {
+                int nx = x + 1 + random.nextInt(Math.max(2, width / 40));
+                int ny = Math.max(0, Math.min(height - 1, y + random.nextInt(height / 2 + 1) - height / 4));
+                graphics.drawLine(x, y, nx, ny);
+                x = nx;
+                y = ny;
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Keystore PKCS#12 avec une clé et un certificat auto-signé ("RSA-2048", "RSA-4096", "EC-P256")
+     */
+    public static byte[] keyStore(String keyType) throws Exception {
+        registerBouncyCastle();
+        KeyPair keyPair = keyPair(keyType);
+        String signatureAlgorithm = keyType.startsWith("EC") ? "SHA256withECDSA" : "SHA256withRSA";
+
+        Instant now = Instant.now();
+        X500Name subject = new X500Name("CN=Benchmark " + keyType + ", O=E-Signature");
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject,
+                BigInteger.valueOf(SEED),
+                Date.from(now.minus(Duration.ofDays(1))),
+                Date.from(now.plus(Duration.ofDays(365))),
+                subject,
+                keyPair.getPublic());
+        X509Certificate certificate = new JcaX509CertificateConverter()
+                .getCertificate(builder.build(new JcaContentSignerBuilder(signatureAlgorithm)
+                        .build(keyPair.getPrivate())));
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry(KEY_ALIAS, keyPair.getPrivate(), KEYSTORE_PASSWORD.toCharArray(),
+                new Certificate[]{certificate});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        keyStore.store(out, KEYSTORE_PASSWORD.toCharArray());
+        return out.toByteArray();
+    }
+
+    private static KeyPair keyPair(String keyType) throws Exception {
+        SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+        random.setSeed(SEED);
+        switch (keyType) {
+            case "RSA-2048":
+            case "RSA-4096": {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(Integer.parseInt(keyType.substring(4)), random);
+                return generator.generateKeyPair();
+            }
+            case "EC-P256": {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+                return generator.generateKeyPair();
+            }
+            default:
+                throw new IllegalArgumentException("Type de clé non supporté : " + keyType);
+        }
+    }
+}
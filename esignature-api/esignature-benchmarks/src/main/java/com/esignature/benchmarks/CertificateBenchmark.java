@@ -0,0 +1,36 @@
+package com.esignature.benchmarks;
+
+import com.esignature.service.CertificateService;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Déverrouillage d'un keystore PKCS#12 (dérivation de clé PBE incluse)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CertificateBenchmark {
+
+    @Param({"RSA-2048", "RSA-4096", "EC-P256"})
+    public String keyType;
+
+    private final CertificateService certificateService = new CertificateService();
+
+    private byte[] keyStoreBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        keyStoreBytes = BenchmarkFixtures.keyStore(keyType);
+    }
+
+    @Benchmark
+    public KeyStore loadKeyStore() throws Exception {
+        return certificateService.loadKeyStore(keyStoreBytes, BenchmarkFixtures.KEYSTORE_PASSWORD);
+    }
+}
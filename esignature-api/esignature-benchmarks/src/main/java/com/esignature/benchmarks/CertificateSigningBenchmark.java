@@ -0,0 +1,53 @@
+package com.esignature.benchmarks;
+
+import com.esignature.model.enums.SignatureType;
+import com.esignature.service.CertificateService;
+import com.esignature.service.PdfSignatureService;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature cryptographique (CMS) d'un PDF avec un certificat
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class CertificateSigningBenchmark {
+
+    @Param({"1", "50", "2000"})
+    public int pages;
+
+    @Param({"RSA-2048", "RSA-4096", "EC-P256"})
+    public String keyType;
+
+    private final PdfSignatureService pdfSignatureService = BenchmarkFixtures.pdfSignatureService();
+    private final CertificateService certificateService = new CertificateService();
+
+    private byte[] pdf;
+    private KeyStore keyStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkFixtures.registerBouncyCastle();
+        pdf = BenchmarkFixtures.pdf(pages);
+        keyStore = certificateService.loadKeyStore(
+                BenchmarkFixtures.keyStore(keyType), BenchmarkFixtures.KEYSTORE_PASSWORD);
+    }
+
+    @Benchmark
+    public byte[] signPdfWithCertificate() throws Exception {
+        return pdfSignatureService.signPdfWithCertificate(
+                pdf,
+                keyStore,
+                BenchmarkFixtures.KEY_ALIAS,
+                BenchmarkFixtures.KEYSTORE_PASSWORD.toCharArray(),
+                SignatureType.ADVANCED,
+                "Benchmark",
+                0, 100f, 100f, 200f, 80f);
+    }
+}
@@ -0,0 +1,51 @@
+package com.esignature.benchmarks;
+
+import com.esignature.service.PdfSignatureService;
+import com.esignature.service.PreparedSignatureImage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature simple : application d'une image de signature sur un PDF
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ImageSigningBenchmark {
+
+    @Param({"1", "50", "2000"})
+    public int pages;
+
+    @Param({"200", "1200"})
+    public int imageWidth;
+
+    private final PdfSignatureService pdfSignatureService = BenchmarkFixtures.pdfSignatureService();
+
+    private byte[] pdf;
+    private byte[] image;
+    private PreparedSignatureImage preparedImage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pdf = BenchmarkFixtures.pdf(pages);
+        image = BenchmarkFixtures.signaturePng(imageWidth, imageWidth / 3);
+        preparedImage = PreparedSignatureImage.fromImage(image, 4000);
+    }
+
+    @Benchmark
+    public byte[] signPdfWithImage() throws Exception {
+        return pdfSignatureService.signPdfWithImage(pdf, image, 0, 100f, 100f, 150f, 50f);
+    }
+
+    /**
+     * Image issue du registre : flux PDF déjà compressés, sans décodage PNG
+     */
+    @Benchmark
+    public byte[] signPdfWithPreparedImage() throws Exception {
+        return pdfSignatureService.signPdfWithImage(pdf, preparedImage, 0, 100f, 100f, 150f, 50f);
+    }
+}
@@ -0,0 +1,61 @@
+package com.esignature.benchmarks;
+
+import com.esignature.model.enums.SignatureType;
+import com.esignature.service.CertificateService;
+import com.esignature.service.PdfSignatureService;
+import com.esignature.service.PreparedSignatureImage;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyStore;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrat paraphé sur chaque page puis signé : une passe unique contre une passe par emplacement
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class MultiPlacementBenchmark {
+
+    @Param({"20", "200"})
+    public int pages;
+
+    private final PdfSignatureService pdfSignatureService = BenchmarkFixtures.pdfSignatureService();
+
+    private byte[] pdf;
+    private PreparedSignatureImage initials;
+    private PdfSignatureService.CertificateSigning certificate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkFixtures.registerBouncyCastle();
+        pdf = BenchmarkFixtures.pdf(pages);
+        initials = PreparedSignatureImage.fromImage(BenchmarkFixtures.signaturePng(120, 60), 4000);
+        KeyStore keyStore = new CertificateService().loadKeyStore(
+                BenchmarkFixtures.keyStore("EC-P256"), BenchmarkFixtures.KEYSTORE_PASSWORD);
+        certificate = new PdfSignatureService.CertificateSigning(keyStore, BenchmarkFixtures.KEY_ALIAS,
+                BenchmarkFixtures.KEYSTORE_PASSWORD.toCharArray(), "Benchmark", null,
+                pages - 1, 100f, 100f, 200f, 80f);
+    }
+
+    @Benchmark
+    public byte[] singlePass() throws Exception {
+        return pdfSignatureService.signPdf(pdf, SignatureType.ADVANCED,
+                List.of(new PdfSignatureService.ImageStamp(initials, PdfSignatureService.ImageStamp.ALL_PAGES,
+                        500f, 40f, 40f, 20f)),
+                certificate);
+    }
+
+    @Benchmark
+    public byte[] passPerPlacement() throws Exception {
+        byte[] current = pdf;
+        for (int page = 0; page < pages; page++) {
+            current = pdfSignatureService.signPdfWithImage(current, initials, page, 500f, 40f, 40f, 20f);
+        }
+        return pdfSignatureService.signPdf(current, SignatureType.ADVANCED, List.of(), certificate);
+    }
+}
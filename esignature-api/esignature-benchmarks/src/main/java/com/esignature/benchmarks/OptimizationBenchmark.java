@@ -0,0 +1,97 @@
+package com.esignature.benchmarks;
+
+import com.esignature.model.enums.SignatureType;
+import com.esignature.service.CertificateService;
+import com.esignature.service.PdfOptimizer;
+import com.esignature.service.PdfSignatureService;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyStore;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optimisation de l'original au dépôt : coût de l'optimisation, signature de l'original brut contre l'original
+ * optimisé ; la taille produite et sa durée de téléchargement estimée sont des résultats secondaires de chaque essai
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class OptimizationBenchmark {
+
+    @Param({"20", "200"})
+    public int pages;
+
+    private final PdfSignatureService pdfSignatureService = BenchmarkFixtures.pdfSignatureService();
+
+    private byte[] original;
+    private byte[] optimized;
+    private PdfSignatureService.CertificateSigning certificate;
+
+    /**
+     * Taille du PDF produit et durée de son téléchargement aux débits des visionneuses (10 et 50 Mbit/s)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+
+        public long outputBytes;
+        public double download10MbpsMs;
+        public double download50MbpsMs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            outputBytes = 0;
+            download10MbpsMs = 0;
+            download50MbpsMs = 0;
+        }
+
+        byte[] record(byte[] pdf) {
+            outputBytes = pdf.length;
+            download10MbpsMs = downloadMillis(pdf.length, 10);
+            download50MbpsMs = downloadMillis(pdf.length, 50);
+            return pdf;
+        }
+
+        private static double downloadMillis(long bytes, int megabitsPerSecond) {
+            return bytes * 8.0 / (megabitsPerSecond * 1_000_000.0) * 1000;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkFixtures.registerBouncyCastle();
+        original = BenchmarkFixtures.unoptimizedPdf(pages);
+        optimized = optimize(original);
+        KeyStore keyStore = new CertificateService().loadKeyStore(
+                BenchmarkFixtures.keyStore("EC-P256"), BenchmarkFixtures.KEYSTORE_PASSWORD);
+        certificate = new PdfSignatureService.CertificateSigning(keyStore, BenchmarkFixtures.KEY_ALIAS,
+                BenchmarkFixtures.KEYSTORE_PASSWORD.toCharArray(), "Benchmark", null, 0, 100f, 100f, 200f, 80f);
+    }
+
+    @Benchmark
+    public byte[] optimize(Output output) throws Exception {
+        return output.record(optimize(original));
+    }
+
+    @Benchmark
+    public byte[] signOriginal(Output output) throws Exception {
+        return output.record(pdfSignatureService.signPdf(original, SignatureType.ADVANCED, List.of(), certificate));
+    }
+
+    @Benchmark
+    public byte[] signOptimized(Output output) throws Exception {
+        return output.record(pdfSignatureService.signPdf(optimized, SignatureType.ADVANCED, List.of(), certificate));
+    }
+
+    private static byte[] optimize(byte[] pdf) throws Exception {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return PdfOptimizer.optimize(document, pdf.length).content();
+        }
+    }
+}
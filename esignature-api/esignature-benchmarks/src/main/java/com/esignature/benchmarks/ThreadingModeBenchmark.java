@@ -0,0 +1,112 @@
+package com.esignature.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rafale de requêtes bloquantes : pool de threads plateforme (Tomcat, 200 threads) contre un thread virtuel
+ * par requête, avec les mêmes limites que l'application (connexions à la base, traitement CPU)
+ *
+ * Chaque requête lit un fichier stocké, attend un client lent (réseau), occupe une connexion pendant une
+ * requête SQL puis calcule une empreinte sous le sémaphore CPU. Le mode virtual demande Java 21+ ; sur une
+ * JVM antérieure, ses paramètres échouent au démarrage et seul le mode platform est mesuré.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ThreadingModeBenchmark {
+
+    private static final int REQUESTS = 2000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int DB_POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    /** Attente d'un client lent par requête (ms) */
+    @Param({"50"})
+    public int clientLatencyMs;
+
+    /** Durée d'une requête SQL (ms) */
+    @Param({"2"})
+    public int queryLatencyMs;
+
+    private ExecutorService executor;
+    private Semaphore dbPermits;
+    private Semaphore cpuPermits;
+    private Path storedFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        storedFile = Files.createTempFile("benchmark-", ".pdf");
+        Files.write(storedFile, BenchmarkFixtures.pdf(5));
+        dbPermits = new Semaphore(DB_POOL_SIZE, true);
+        cpuPermits = new Semaphore(Runtime.getRuntime().availableProcessors(), true);
+
+        if ("virtual".equals(mode)) {
+            try {
+                executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Threads virtuels indisponibles : Java 21+ requis");
+            }
+        } else {
+            executor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        Files.deleteIfExists(storedFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public long burst() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(this::handleRequest));
+        }
+        long total = 0;
+        for (Future<Integer> response : responses) {
+            total += response.get();
+        }
+        return total;
+    }
+
+    private int handleRequest() throws Exception {
+        byte[] content = Files.readAllBytes(storedFile);
+        Thread.sleep(clientLatencyMs);
+
+        dbPermits.acquire();
+        try {
+            Thread.sleep(queryLatencyMs);
+        } finally {
+            dbPermits.release();
+        }
+
+        cpuPermits.acquire();
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content)[0];
+        } finally {
+            cpuPermits.release();
+        }
+    }
+}
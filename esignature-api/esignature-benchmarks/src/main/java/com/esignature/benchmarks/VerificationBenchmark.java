@@ -0,0 +1,51 @@
+package com.esignature.benchmarks;
+
+import com.esignature.model.enums.SignatureType;
+import com.esignature.service.CertificateService;
+import com.esignature.service.PdfSignatureService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification des signatures d'un PDF signé par certificat
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class VerificationBenchmark {
+
+    @Param({"1", "50", "2000"})
+    public int pages;
+
+    @Param({"RSA-2048", "RSA-4096", "EC-P256"})
+    public String keyType;
+
+    private final PdfSignatureService pdfSignatureService = BenchmarkFixtures.pdfSignatureService();
+
+    private byte[] signedPdf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkFixtures.registerBouncyCastle();
+        CertificateService certificateService = new CertificateService();
+        signedPdf = pdfSignatureService.signPdfWithCertificate(
+                BenchmarkFixtures.pdf(pages),
+                certificateService.loadKeyStore(
+                        BenchmarkFixtures.keyStore(keyType), BenchmarkFixtures.KEYSTORE_PASSWORD),
+                BenchmarkFixtures.KEY_ALIAS,
+                BenchmarkFixtures.KEYSTORE_PASSWORD.toCharArray(),
+                SignatureType.ADVANCED,
+                "Benchmark",
+                0, 100f, 100f, 200f, 80f);
+    }
+
+    @Benchmark
+    public List<PdfSignatureService.SignatureValidation> verifyPdfSignatures() throws Exception {
+        return pdfSignatureService.verifyPdfSignatures(signedPdf);
+    }
+}
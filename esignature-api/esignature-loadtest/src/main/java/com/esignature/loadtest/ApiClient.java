@@ -0,0 +1,153 @@
+package com.esignature.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Appels HTTP asynchrones vers l'API (aucun thread bloqué par requête en vol)
+ */
+public class ApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String bearerToken;
+    private final String signatureImageBase64;
+    private final String keyStoreBase64;
+
+    public ApiClient(LoadTestConfig config, SyntheticCorpus corpus) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = config.baseUrl();
+        this.bearerToken = config.bearerToken();
+        this.signatureImageBase64 = Base64.getEncoder().encodeToString(corpus.signatureImage());
+        this.keyStoreBase64 = Base64.getEncoder().encodeToString(corpus.keyStore());
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> upload(Path pdf) throws IOException {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writePart(body, boundary, "uploadedBy", null, "loadtest".getBytes(StandardCharsets.UTF_8));
+        writePart(body, boundary, "file", pdf.getFileName().toString(), Files.readAllBytes(pdf));
+        body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        return send(request("/documents/upload")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())));
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> signSimple(long documentId) {
+        ObjectNode body = signRequest(documentId, "SIMPLE");
+        body.put("signatureImageBase64", signatureImageBase64);
+        return postJson("/documents/sign", body);
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> signCertificate(long documentId) {
+        ObjectNode body = signRequest(documentId, "ADVANCED");
+        body.put("certificateBase64", keyStoreBase64);
+        body.put("certificatePassword", SyntheticCorpus.KEYSTORE_PASSWORD);
+        return postJson("/documents/sign", body);
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> createWorkflow(long documentId) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("documentId", documentId);
+        body.put("expirationDays", 7);
+        ArrayNode signers = body.putArray("signers");
+        for (int order = 1; order <= 2; order++) {
+            signers.addObject()
+                    .put("name", "Signataire " + order)
+                    .put("email", "signataire" + order + "@loadtest.local")
+                    .put("signOrder", order)
+                    .put("requiredSignatureType", "SIMPLE");
+        }
+        return postJson("/documents/workflow", body);
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> verify(long documentId) {
+        return send(request("/documents/" + documentId + "/verify").GET());
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> download(long documentId) {
+        return send(request("/documents/" + documentId + "/download").GET());
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> get(long documentId) {
+        return send(request("/documents/" + documentId).GET());
+    }
+
+    /**
+     * Extraire l'identifiant d'une réponse DocumentResponse
+     */
+    public long documentId(HttpResponse<byte[]> response) throws IOException {
+        return mapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private ObjectNode signRequest(long documentId, String signatureType) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("documentId", documentId);
+        body.put("signerName", "Load Test");
+        body.put("signerEmail", "signer@loadtest.local");
+        body.put("signatureType", signatureType);
+        body.put("pageNumber", 0);
+        body.put("xPosition", 100);
+        body.put("yPosition", 100);
+        return body;
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> postJson(String path, ObjectNode body) {
+        try {
+            return send(request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body))));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT);
+        if (bearerToken != null) {
+            builder.header("Authorization", "Bearer " + bearerToken);
+        }
+        return builder;
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder builder) {
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String boundary, String name,
+                                  String fileName, byte[] content) throws IOException {
+        StringBuilder header = new StringBuilder()
+                .append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(name).append('"');
+        if (fileName != null) {
+            header.append("; filename=\"").append(fileName).append("\"\r\n")
+                    .append("Content-Type: application/pdf");
+        }
+        header.append("\r\n\r\n");
+        body.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,63 @@
+package com.esignature.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paramètres d'un tir de charge, lus depuis des arguments --clé=valeur
+ */
+public record LoadTestConfig(
+        String baseUrl,
+        String bearerToken,
+        Path corpusDirectory,
+        Path reportFile,
+        String label,
+        long seed,
+        int corpusSize,
+        int warmupDocuments,
+        double arrivalRatePerSecond,
+        int maxConcurrency,
+        int durationSeconds,
+        Map<Scenario, Integer> mix
+) {
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argument invalide (attendu --clé=valeur) : " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        return new LoadTestConfig(
+                options.getOrDefault("baseUrl", "http://localhost:8080/api/v1"),
+                options.get("token"),
+                Path.of(options.getOrDefault("corpus", "target/corpus")),
+                Path.of(options.getOrDefault("report", "target/loadtest-report.json")),
+                options.getOrDefault("label", "local"),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("corpusSize", "50")),
+                Integer.parseInt(options.getOrDefault("warmupDocuments", "20")),
+                Double.parseDouble(options.getOrDefault("rate", "20")),
+                Integer.parseInt(options.getOrDefault("concurrency", "64")),
+                Integer.parseInt(options.getOrDefault("duration", "60")),
+                parseMix(options.getOrDefault("mix",
+                        "upload:10,sign:20,signCertificate:10,workflow:5,verify:15,download:10,get:30"))
+        );
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Mix invalide (attendu scénario:poids) : " + part);
+            }
+            mix.put(Scenario.fromKey(entry[0]), Integer.parseInt(entry[1]));
+        }
+        return mix;
+    }
+}
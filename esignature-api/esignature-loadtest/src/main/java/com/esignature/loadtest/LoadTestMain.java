@@ -0,0 +1,160 @@
+package com.esignature.loadtest;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tir de charge en boucle ouverte : les arrivées suivent un débit fixe indépendant des temps
+ * de réponse, la concurrence est plafonnée et les arrivées excédentaires sont comptées.
+ *
+ * Exemple : java -jar target/loadtest.jar --rate=50 --duration=120 --concurrency=128 --label=$(git rev-parse --short HEAD)
+ */
+public class LoadTestMain {
+
+    private final LoadTestConfig config;
+    private final SyntheticCorpus corpus;
+    private final ApiClient client;
+    private final Random random;
+
+    private final List<Long> documents = new CopyOnWriteArrayList<>();
+    private final List<Long> signedDocuments = new CopyOnWriteArrayList<>();
+    private final Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+
+    public LoadTestMain(LoadTestConfig config) throws Exception {
+        this.config = config;
+        this.corpus = SyntheticCorpus.generate(config.corpusDirectory(), config.seed(), config.corpusSize());
+        this.client = new ApiClient(config, corpus);
+        this.random = new Random(config.seed());
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new ScenarioStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        LoadTestMain loadTest = new LoadTestMain(config);
+        loadTest.warmUp();
+        long elapsedNanos = loadTest.run();
+        new LoadTestReport(config, loadTest.corpus, loadTest.stats, elapsedNanos).write();
+        System.out.println("Rapport écrit dans " + config.reportFile().toAbsolutePath());
+    }
+
+    /**
+     * Documents initiaux (dont la moitié signée) pour les scénarios de lecture
+     */
+    private void warmUp() throws Exception {
+        for (int i = 0; i < config.warmupDocuments(); i++) {
+            HttpResponse<byte[]> response = client.upload(pickPdf()).join();
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Échec de l'upload initial : HTTP " + response.statusCode());
+            }
+            long documentId = client.documentId(response);
+            documents.add(documentId);
+            if (i % 2 == 0 && client.signSimple(documentId).join().statusCode() == 200) {
+                signedDocuments.add(documentId);
+            }
+        }
+    }
+
+    private long run() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(config.maxConcurrency());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.arrivalRatePerSecond());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+
+        for (long arrival = 0; ; arrival++) {
+            long intendedStart = start + arrival * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = pickScenario();
+            ScenarioStats scenarioStats = stats.get(scenario);
+            if (!inFlight.tryAcquire()) {
+                scenarioStats.recordDropped();
+                continue;
+            }
+
+            CompletableFuture<HttpResponse<byte[]>> call;
+            try {
+                call = execute(scenario);
+            } catch (Exception e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((response, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    scenarioStats.recordFailure(intendedStart);
+                } else {
+                    scenarioStats.record(intendedStart, response.statusCode());
+                    onSuccess(scenario, response);
+                }
+            });
+        }
+
+        // Laisser les requêtes en vol se terminer
+        inFlight.tryAcquire(config.maxConcurrency(), 2, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> execute(Scenario scenario) throws Exception {
+        return switch (scenario) {
+            case UPLOAD -> client.upload(pickPdf());
+            case SIGN -> client.signSimple(pick(documents));
+            case SIGN_CERTIFICATE -> client.signCertificate(pick(documents));
+            case WORKFLOW -> client.createWorkflow(pick(documents));
+            case VERIFY -> client.verify(pick(signedDocuments));
+            case DOWNLOAD -> client.download(pick(signedDocuments));
+            case GET -> client.get(pick(documents));
+        };
+    }
+
+    private void onSuccess(Scenario scenario, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        try {
+            if (scenario == Scenario.UPLOAD && status == 201) {
+                documents.add(client.documentId(response));
+            } else if ((scenario == Scenario.SIGN || scenario == Scenario.SIGN_CERTIFICATE) && status == 200) {
+                signedDocuments.add(client.documentId(response));
+            }
+        } catch (Exception ignored) {
+            // Réponse inattendue : déjà comptée via le code HTTP
+        }
+    }
+
+    private Scenario pickScenario() {
+        int total = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+        int draw = random.nextInt(total);
+        for (Map.Entry<Scenario, Integer> entry : config.mix().entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mix de scénarios vide");
+    }
+
+    private Path pickPdf() {
+        return corpus.pdfs().get(random.nextInt(corpus.pdfs().size()));
+    }
+
+    private long pick(List<Long> ids) {
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Aucun document disponible pour ce scénario");
+        }
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.esignature.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rapport JSON comparable entre commits, plus une distribution HdrHistogram (.hgrm) par scénario
+ */
+public class LoadTestReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestConfig config;
+    private final SyntheticCorpus corpus;
+    private final Map<Scenario, ScenarioStats> stats;
+    private final long elapsedNanos;
+
+    public LoadTestReport(LoadTestConfig config, SyntheticCorpus corpus,
+                          Map<Scenario, ScenarioStats> stats, long elapsedNanos) {
+        this.config = config;
+        this.corpus = corpus;
+        this.stats = stats;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public void write() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode report = mapper.createObjectNode();
+        report.put("label", config.label());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("corpusManifestSha256", corpus.manifestHash());
+
+        ObjectNode settings = report.putObject("config");
+        settings.put("baseUrl", config.baseUrl());
+        settings.put("seed", config.seed());
+        settings.put("corpusSize", config.corpusSize());
+        settings.put("arrivalRatePerSecond", config.arrivalRatePerSecond());
+        settings.put("maxConcurrency", config.maxConcurrency());
+        settings.put("durationSeconds", config.durationSeconds());
+        ObjectNode mix = settings.putObject("mix");
+        config.mix().forEach((scenario, weight) -> mix.put(scenario.key(), weight));
+
+        double elapsedSeconds = elapsedNanos / 1e9;
+        report.put("elapsedSeconds", elapsedSeconds);
+
+        ObjectNode scenarios = report.putObject("scenarios");
+        Path directory = config.reportFile().toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+            ScenarioStats scenarioStats = entry.getValue();
+            Histogram histogram = scenarioStats.latencies();
+            if (histogram.getTotalCount() == 0 && scenarioStats.dropped() == 0) {
+                continue;
+            }
+
+            ObjectNode node = scenarios.putObject(entry.getKey().key());
+            node.put("count", histogram.getTotalCount());
+            node.put("errors", scenarioStats.errors());
+            node.put("dropped", scenarioStats.dropped());
+            node.put("throughputPerSecond", histogram.getTotalCount() / elapsedSeconds);
+            ObjectNode codes = node.putObject("statusCodes");
+            scenarioStats.statusCodes().forEach((code, count) -> codes.put(String.valueOf(code), count.sum()));
+
+            ObjectNode latency = node.putObject("latencyMs");
+            latency.put("mean", histogram.getMean() / NANOS_PER_MILLI);
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + String.valueOf(percentile).replace(".0", "").replace(".", ""),
+                        histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+            }
+            latency.put("max", histogram.getMaxValue() / NANOS_PER_MILLI);
+
+            Path hgrm = directory.resolve(baseName() + "-" + entry.getKey().key() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm))) {
+                histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(config.reportFile().toFile(), report);
+    }
+
+    private String baseName() {
+        String fileName = config.reportFile().getFileName().toString();
+        return fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - 5) : fileName;
+    }
+}
@@ -0,0 +1,33 @@
+package com.esignature.loadtest;
+
+/**
+ * Scénarios de charge pondérables dans le mix
+ */
+public enum Scenario {
+    UPLOAD("upload"),
+    SIGN("sign"),
+    SIGN_CERTIFICATE("signCertificate"),
+    WORKFLOW("workflow"),
+    VERIFY("verify"),
+    DOWNLOAD("download"),
+    GET("get");
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Scenario fromKey(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Scénario inconnu : " + key);
+    }
+}
@@ -0,0 +1,60 @@
+package com.esignature.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences (HdrHistogram, en nanosecondes) et codes de retour d'un scénario
+ *
+ * La latence est mesurée depuis l'instant d'arrivée prévu et non depuis l'envoi effectif,
+ * ce qui évite l'omission coordonnée quand le système ralentit.
+ */
+public class ScenarioStats {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public void record(long intendedStartNanos, int statusCode) {
+        latencies.recordValue(Math.min(System.nanoTime() - intendedStartNanos, MAX_LATENCY_NANOS));
+        statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        if (statusCode < 200 || statusCode >= 300) {
+            errors.increment();
+        }
+    }
+
+    public void recordFailure(long intendedStartNanos) {
+        record(intendedStartNanos, 0);
+    }
+
+    /**
+     * Arrivée abandonnée faute de place (concurrence maximale atteinte)
+     */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public Histogram latencies() {
+        return latencies;
+    }
+
+    public Map<Integer, LongAdder> statusCodes() {
+        return statusCodes;
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,217 @@
+package com.esignature.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Corpus synthétique reproductible : PDF de tailles variées, images de signature et keystore PKCS#12.
+ *
+ * Pour une même graine, les PDF et images sont identiques octet pour octet ; le manifeste
+ * (empreintes SHA-256) permet de vérifier que deux rapports portent sur le même corpus.
+ */
+public final class SyntheticCorpus {
+
+    public static final String KEYSTORE_PASSWORD = "loadtest";
+
+    private static final int[] PAGE_COUNTS = {1, 2, 3, 5, 10, 30, 100, 300};
+    private static final int[] PAGE_WEIGHTS = {25, 20, 15, 15, 10, 8, 5, 2};
+    private static final long FIXED_DATE = 1_700_000_000_000L;
+
+    private final List<Path> pdfs;
+    private final byte[] signatureImage;
+    private final byte[] keyStore;
+    private final String manifestHash;
+
+    private SyntheticCorpus(List<Path> pdfs, byte[] signatureImage, byte[] keyStore, String manifestHash) {
+        this.pdfs = pdfs;
+        this.signatureImage = signatureImage;
+        this.keyStore = keyStore;
+        this.manifestHash = manifestHash;
+    }
+
+    /**
+     * Générer (ou régénérer) le corpus dans le répertoire donné
+     */
+    public static SyntheticCorpus generate(Path directory, long seed, int size) throws Exception {
+        Files.createDirectories(directory);
+        Random random = new Random(seed);
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode manifest = mapper.createObjectNode();
+        manifest.put("seed", seed);
+        ArrayNode files = manifest.putArray("files");
+
+        List<Path> pdfs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int pages = pickPageCount(random);
+            Path file = directory.resolve(String.format("doc-%04d-%dp.pdf", i, pages));
+            byte[] pdf = pdf(pages, seed + i);
+            Files.write(file, pdf);
+            pdfs.add(file);
+            files.addObject()
+                    .put("name", file.getFileName().toString())
+                    .put("pages", pages)
+                    .put("bytes", pdf.length)
+                    .put("sha256", sha256(pdf));
+        }
+
+        byte[] signatureImage = signaturePng(400, 120, seed);
+        Files.write(directory.resolve("signature.png"), signatureImage);
+        manifest.put("signatureImageSha256", sha256(signatureImage));
+
+        byte[] keyStore = keyStore(seed);
+        Files.write(directory.resolve("signer.p12"), keyStore);
+
+        byte[] manifestBytes = mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest);
+        Files.write(directory.resolve("manifest.json"), manifestBytes);
+
+        return new SyntheticCorpus(pdfs, signatureImage, keyStore, sha256(manifestBytes));
+    }
+
+    public List<Path> pdfs() {
+        return pdfs;
+    }
+
+    public byte[] signatureImage() {
+        return signatureImage;
+    }
+
+    public byte[] keyStore() {
+        return keyStore;
+    }
+
+    public String manifestHash() {
+        return manifestHash;
+    }
+
+    private static int pickPageCount(Random random) {
+        int total = 0;
+        for (int weight : PAGE_WEIGHTS) {
+            total += weight;
+        }
+        int draw = random.nextInt(total);
+        for (int i = 0; i < PAGE_WEIGHTS.length; i++) {
+            draw -= PAGE_WEIGHTS[i];
+            if (draw < 0) {
+                return PAGE_COUNTS[i];
+            }
+        }
+        return PAGE_COUNTS[0];
+    }
+
+    private static byte[] pdf(int pages, long documentSeed) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        Random random = new Random(documentSeed);
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            // Identifiant fixe : sinon PDFBox dérive le /ID de l'heure courante
+            document.setDocumentId(documentSeed);
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 11);
+                    content.newLineAtOffset(50, 780);
+                    int lines = 20 + random.nextInt(25);
+                    for (int line = 0; line < lines; line++) {
+                        content.showText("Article " + (i + 1) + "." + line + " - clause " + random.nextInt(100000)
+                                + " du contrat synthétique de test de charge.");
+                        content.newLineAtOffset(0, -16);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] signaturePng(int width, int height, long seed) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            Random random = new Random(seed);
+            graphics.setColor(new Color(20, 30, 120));
+            graphics.setStroke(new BasicStroke(3f));
+            int x = 0;
+            int y = height / 2;
+            while (x < width) {
+                int nx = x + 1 + random.nextInt(10);
+                int ny = Math.max(0, Math.min(height - 1, y + random.nextInt(height / 2 + 1) - height / 4));
+                graphics.drawLine(x, y, nx, ny);
+                x = nx;
+                y = ny;
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] keyStore(long seed) throws Exception {
+        SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+        random.setSeed(seed);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048, random);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=Load Test Signer, O=E-Signature");
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(
+                        subject,
+                        BigInteger.valueOf(seed),
+                        new Date(FIXED_DATE),
+                        new Date(FIXED_DATE + 10L * 365 * 24 * 3600 * 1000),
+                        subject,
+                        keyPair.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("signer", keyPair.getPrivate(), KEYSTORE_PASSWORD.toCharArray(),
+                new Certificate[]{certificate});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        keyStore.store(out, KEYSTORE_PASSWORD.toCharArray());
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}